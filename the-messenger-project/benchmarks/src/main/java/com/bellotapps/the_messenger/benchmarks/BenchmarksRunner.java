@@ -0,0 +1,39 @@
+package com.bellotapps.the_messenger.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of the benchmarks uber-jar.
+ * Runs the benchmarks with the {@link GCProfiler} enabled, in order to report the bytes allocated per operation
+ * (i.e the {@code gc.alloc.rate.norm} metric) together with the throughput.
+ * Any JMH command line option can be used (e.g a regular expression to select the benchmarks to run).
+ */
+public final class BenchmarksRunner {
+
+    /**
+     * Private constructor to avoid instantiation.
+     */
+    private BenchmarksRunner() {
+    }
+
+    /**
+     * Runs the benchmarks.
+     *
+     * @param args JMH command line options.
+     * @throws CommandLineOptionException If the command line options are not valid.
+     * @throws RunnerException            If any error occurs while running the benchmarks.
+     */
+    public static void main(final String[] args) throws CommandLineOptionException, RunnerException {
+        final Options options = new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
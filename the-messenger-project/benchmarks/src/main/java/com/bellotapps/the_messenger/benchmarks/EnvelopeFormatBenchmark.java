@@ -0,0 +1,128 @@
+package com.bellotapps.the_messenger.benchmarks;
+
+import com.bellotapps.the_messenger.commons.Message;
+import com.bellotapps.the_messenger.json.JacksonJsonPayloadSerializer;
+import com.bellotapps.the_messenger.producer.basic_factories.GenericMessageBuilderFactory;
+import com.bellotapps.the_messenger.transport.cbor.jackson.CborMessageCodec;
+import com.bellotapps.the_messenger.transport.compact.CompactEnvelopeDecoder;
+import com.bellotapps.the_messenger.transport.compact.CompactEnvelopeEncoder;
+import com.bellotapps.the_messenger.transport.json.jackson.JacksonMessage;
+import com.bellotapps.the_messenger.transport.json.jackson.JacksonMessageCodec;
+import com.bellotapps.the_messenger.transport.smile.jackson.SmileMessageCodec;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares writing and reading {@link JacksonMessage} envelopes as JSON, Smile and CBOR,
+ * and compact envelopes (with the {@link CompactEnvelopeEncoder} and the {@link CompactEnvelopeDecoder}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EnvelopeFormatBenchmark {
+
+    /**
+     * The size of the payload of the transported {@link Message}.
+     */
+    @Param({"SMALL", "MEDIUM"})
+    private PayloadSize payloadSize;
+
+    /**
+     * The format of the envelope.
+     */
+    @Param({"JSON", "SMILE", "CBOR", "COMPACT"})
+    private String format;
+
+    /**
+     * The benchmarked {@link JacksonMessageCodec} ({@code null} for compact envelopes).
+     */
+    private JacksonMessageCodec codec;
+
+    /**
+     * The {@link Message} to be written.
+     */
+    private Message message;
+
+    /**
+     * The {@link #message}, already written (i.e the input of the read benchmark).
+     */
+    private byte[] serializedMessage;
+
+
+    /**
+     * Initializes the state of the benchmark.
+     *
+     * @throws IOException If any error occurs while writing the message.
+     */
+    @Setup
+    public void setup() throws IOException {
+        switch (format) {
+            case "SMILE":
+                this.codec = new SmileMessageCodec();
+                break;
+            case "CBOR":
+                this.codec = new CborMessageCodec();
+                break;
+            case "COMPACT":
+                this.codec = null;
+                break;
+            default:
+                this.codec = new JacksonMessageCodec();
+        }
+        this.message = new GenericMessageBuilderFactory<>(
+                "benchmarks",
+                new JacksonJsonPayloadSerializer<>(new ObjectMapper(), SamplePayload.class),
+                JacksonMessage::new)
+                .commandMessage("PlaceOrder")
+                .copyHeaders("Tracing-Id")
+                .withHeader("Tracing-Id", "benchmark-trace")
+                .withPayload(payloadSize.createPayload())
+                .build();
+        this.serializedMessage = write();
+    }
+
+
+    /**
+     * Writes the {@link Message}.
+     *
+     * @return The written {@link Message}.
+     * @throws IOException If any error occurs while writing.
+     */
+    @Benchmark
+    public byte[] write() throws IOException {
+        if (codec == null) {
+            return CompactEnvelopeEncoder.getInstance().encode(message);
+        }
+        return codec.writeAsBytes(message);
+    }
+
+    /**
+     * Reads a {@link Message}.
+     *
+     * @return The read {@link Message}.
+     * @throws IOException If any error occurs while reading.
+     */
+    @Benchmark
+    public Message read() throws IOException {
+        if (codec == null) {
+            return CompactEnvelopeDecoder.getInstance().decode(serializedMessage);
+        }
+        return codec.read(serializedMessage);
+    }
+}
@@ -0,0 +1,78 @@
+package com.bellotapps.the_messenger.benchmarks;
+
+import com.bellotapps.the_messenger.producer.IdGenerator;
+import com.bellotapps.the_messenger.producer.basic_id_generators.RandomUuidIdGenerator;
+import com.bellotapps.the_messenger.producer.basic_id_generators.StripedCounterIdGenerator;
+import com.bellotapps.the_messenger.producer.basic_id_generators.TimeOrderedUuidIdGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the built-in {@link IdGenerator}s when several threads generate ids at the same time,
+ * as producers do under load.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class IdGeneratorBenchmark {
+
+    /**
+     * The {@link StripedCounterIdGenerator} shared by all the threads.
+     */
+    private IdGenerator stripedCounterIdGenerator;
+
+
+    /**
+     * Initializes the state of the benchmark.
+     */
+    @Setup
+    public void setup() {
+        this.stripedCounterIdGenerator = new StripedCounterIdGenerator();
+    }
+
+
+    /**
+     * Generates a random {@link java.util.UUID}.
+     *
+     * @return The generated id.
+     */
+    @Benchmark
+    public String randomUuid() {
+        return RandomUuidIdGenerator.getInstance().generateId();
+    }
+
+    /**
+     * Generates a time ordered {@link java.util.UUID}.
+     *
+     * @return The generated id.
+     */
+    @Benchmark
+    public String timeOrderedUuid() {
+        return TimeOrderedUuidIdGenerator.getInstance().generateId();
+    }
+
+    /**
+     * Generates a striped counter id.
+     *
+     * @return The generated id.
+     */
+    @Benchmark
+    public String stripedCounter() {
+        return stripedCounterIdGenerator.generateId();
+    }
+}
@@ -0,0 +1,90 @@
+package com.bellotapps.the_messenger.benchmarks;
+
+import com.bellotapps.the_messenger.json.JacksonJsonPayloadDeserializer;
+import com.bellotapps.the_messenger.json.JacksonJsonPayloadSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the {@link JacksonJsonPayloadSerializer} and {@link JacksonJsonPayloadDeserializer} hot paths.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JacksonJsonPayloadSerializerBenchmark {
+
+    /**
+     * The size of the (de)serialized payload.
+     */
+    @Param({"SMALL", "MEDIUM", "LARGE"})
+    private PayloadSize payloadSize;
+
+    /**
+     * The benchmarked {@link JacksonJsonPayloadSerializer}.
+     */
+    private JacksonJsonPayloadSerializer<SamplePayload> serializer;
+
+    /**
+     * The benchmarked {@link JacksonJsonPayloadDeserializer}.
+     */
+    private JacksonJsonPayloadDeserializer<SamplePayload> deserializer;
+
+    /**
+     * The payload to be serialized.
+     */
+    private SamplePayload payload;
+
+    /**
+     * The {@link #payload}, already serialized (i.e the input of the deserialization benchmark).
+     */
+    private String serializedPayload;
+
+
+    /**
+     * Initializes the state of the benchmark.
+     */
+    @Setup
+    public void setup() {
+        final ObjectMapper objectMapper = new ObjectMapper();
+        this.serializer = new JacksonJsonPayloadSerializer<>(objectMapper, SamplePayload.class);
+        this.deserializer = new JacksonJsonPayloadDeserializer<>(objectMapper, SamplePayload.class);
+        this.payload = payloadSize.createPayload();
+        this.serializedPayload = serializer.serialize(payload);
+    }
+
+
+    /**
+     * Serializes the payload.
+     *
+     * @return The serialized payload.
+     */
+    @Benchmark
+    public String serialize() {
+        return serializer.serialize(payload);
+    }
+
+    /**
+     * Deserializes the payload.
+     *
+     * @return The deserialized payload.
+     */
+    @Benchmark
+    public SamplePayload deserialize() {
+        return deserializer.deserialize(serializedPayload);
+    }
+}
@@ -0,0 +1,108 @@
+package com.bellotapps.the_messenger.benchmarks;
+
+import com.bellotapps.the_messenger.commons.Message;
+import com.bellotapps.the_messenger.json.JacksonJsonPayloadSerializer;
+import com.bellotapps.the_messenger.producer.basic_factories.GenericMessageBuilderFactory;
+import com.bellotapps.the_messenger.transport.json.jackson.JacksonMessage;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the transport of {@link JacksonMessage}s through an {@link ObjectMapper}
+ * (i.e writing the envelope, reading it, and a full round-trip).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JacksonMessageBenchmark {
+
+    /**
+     * The size of the payload of the transported {@link Message}.
+     */
+    @Param({"SMALL", "MEDIUM", "LARGE"})
+    private PayloadSize payloadSize;
+
+    /**
+     * The {@link ObjectMapper} used to write and read the envelopes.
+     */
+    private ObjectMapper objectMapper;
+
+    /**
+     * The {@link Message} to be written.
+     */
+    private Message message;
+
+    /**
+     * The {@link #message}, already written (i.e the input of the read benchmark).
+     */
+    private String serializedMessage;
+
+
+    /**
+     * Initializes the state of the benchmark.
+     *
+     * @throws IOException If any error occurs while writing the message.
+     */
+    @Setup
+    public void setup() throws IOException {
+        this.objectMapper = new ObjectMapper();
+        this.message = new GenericMessageBuilderFactory<>(
+                "benchmarks",
+                new JacksonJsonPayloadSerializer<>(objectMapper, SamplePayload.class),
+                JacksonMessage::new)
+                .commandMessage("PlaceOrder")
+                .withPayload(payloadSize.createPayload())
+                .build();
+        this.serializedMessage = objectMapper.writeValueAsString(message);
+    }
+
+
+    /**
+     * Writes the {@link Message} into JSON.
+     *
+     * @return The written {@link Message}.
+     * @throws IOException If any error occurs while writing.
+     */
+    @Benchmark
+    public String write() throws IOException {
+        return objectMapper.writeValueAsString(message);
+    }
+
+    /**
+     * Reads a {@link JacksonMessage} from JSON.
+     *
+     * @return The read {@link Message}.
+     * @throws IOException If any error occurs while reading.
+     */
+    @Benchmark
+    public Message read() throws IOException {
+        return objectMapper.readValue(serializedMessage, JacksonMessage.class);
+    }
+
+    /**
+     * Writes the {@link Message} into JSON and reads it back.
+     *
+     * @return The read {@link Message}.
+     * @throws IOException If any error occurs while writing or reading.
+     */
+    @Benchmark
+    public Message roundTrip() throws IOException {
+        return objectMapper.readValue(objectMapper.writeValueAsString(message), JacksonMessage.class);
+    }
+}
@@ -0,0 +1,165 @@
+package com.bellotapps.the_messenger.benchmarks;
+
+import com.bellotapps.the_messenger.json.JacksonJsonPayloadDeserializer;
+import com.bellotapps.the_messenger.json.JacksonJsonPayloadSerializer;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares (de)serializing through an {@link ObjectMapper} on each call (the {@code mapper*} benchmarks)
+ * with the pre-resolved readers and writers used by the {@link JacksonJsonPayloadSerializer}
+ * and {@link JacksonJsonPayloadDeserializer} (the {@code cached*} benchmarks),
+ * both for a plain class and for a generic type.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JacksonReaderWriterCachingBenchmark {
+
+    /**
+     * The generic type used by the {@code *Generic} benchmarks.
+     */
+    private static final TypeReference<List<SamplePayload>> LIST_TYPE = new TypeReference<List<SamplePayload>>() {
+    };
+
+    /**
+     * The size of the (de)serialized payload.
+     */
+    @Param({"SMALL", "MEDIUM"})
+    private PayloadSize payloadSize;
+
+    /**
+     * The {@link ObjectMapper} used by all the benchmarks.
+     */
+    private ObjectMapper objectMapper;
+
+    /**
+     * The {@link JacksonJsonPayloadSerializer} of {@link SamplePayload}s.
+     */
+    private JacksonJsonPayloadSerializer<SamplePayload> serializer;
+
+    /**
+     * The {@link JacksonJsonPayloadDeserializer} of {@link SamplePayload}s.
+     */
+    private JacksonJsonPayloadDeserializer<SamplePayload> deserializer;
+
+    /**
+     * The {@link JacksonJsonPayloadDeserializer} of {@link List}s of {@link SamplePayload}s.
+     */
+    private JacksonJsonPayloadDeserializer<List<SamplePayload>> genericDeserializer;
+
+    /**
+     * The payload to be serialized.
+     */
+    private SamplePayload payload;
+
+    /**
+     * The {@link #payload}, already serialized.
+     */
+    private String serializedPayload;
+
+    /**
+     * A {@link List} containing the {@link #payload}, already serialized.
+     */
+    private String serializedPayloadList;
+
+
+    /**
+     * Initializes the state of the benchmark.
+     *
+     * @throws IOException Never.
+     */
+    @Setup
+    public void setup() throws IOException {
+        this.objectMapper = new ObjectMapper();
+        this.serializer = new JacksonJsonPayloadSerializer<>(objectMapper, SamplePayload.class);
+        this.deserializer = new JacksonJsonPayloadDeserializer<>(objectMapper, SamplePayload.class);
+        this.genericDeserializer = new JacksonJsonPayloadDeserializer<>(objectMapper, LIST_TYPE);
+        this.payload = payloadSize.createPayload();
+        this.serializedPayload = objectMapper.writeValueAsString(payload);
+        this.serializedPayloadList = objectMapper.writeValueAsString(Collections.singletonList(payload));
+    }
+
+
+    /**
+     * Serializes the payload with {@link ObjectMapper#writeValueAsString(Object)}.
+     *
+     * @return The serialized payload.
+     * @throws IOException Never.
+     */
+    @Benchmark
+    public String mapperSerialize() throws IOException {
+        return objectMapper.writeValueAsString(payload);
+    }
+
+    /**
+     * Serializes the payload with the {@link JacksonJsonPayloadSerializer}.
+     *
+     * @return The serialized payload.
+     */
+    @Benchmark
+    public String cachedSerialize() {
+        return serializer.serialize(payload);
+    }
+
+    /**
+     * Deserializes the payload with {@link ObjectMapper#readValue(String, Class)}.
+     *
+     * @return The deserialized payload.
+     * @throws IOException Never.
+     */
+    @Benchmark
+    public SamplePayload mapperDeserialize() throws IOException {
+        return objectMapper.readValue(serializedPayload, SamplePayload.class);
+    }
+
+    /**
+     * Deserializes the payload with the {@link JacksonJsonPayloadDeserializer}.
+     *
+     * @return The deserialized payload.
+     */
+    @Benchmark
+    public SamplePayload cachedDeserialize() {
+        return deserializer.deserialize(serializedPayload);
+    }
+
+    /**
+     * Deserializes a {@link List} of payloads with {@link ObjectMapper#readValue(String, TypeReference)}.
+     *
+     * @return The deserialized payloads.
+     * @throws IOException Never.
+     */
+    @Benchmark
+    public List<SamplePayload> mapperDeserializeGeneric() throws IOException {
+        return objectMapper.readValue(serializedPayloadList, LIST_TYPE);
+    }
+
+    /**
+     * Deserializes a {@link List} of payloads with the {@link JacksonJsonPayloadDeserializer}.
+     *
+     * @return The deserialized payloads.
+     */
+    @Benchmark
+    public List<SamplePayload> cachedDeserializeGeneric() {
+        return genericDeserializer.deserialize(serializedPayloadList);
+    }
+}
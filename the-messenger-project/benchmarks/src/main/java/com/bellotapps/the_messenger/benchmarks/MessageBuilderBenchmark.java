@@ -0,0 +1,172 @@
+package com.bellotapps.the_messenger.benchmarks;
+
+import com.bellotapps.the_messenger.commons.Message;
+import com.bellotapps.the_messenger.json.JacksonJsonPayloadSerializer;
+import com.bellotapps.the_messenger.producer.MessageBuilderFactory;
+import com.bellotapps.the_messenger.producer.basic_factories.GenericMessageBuilderFactory;
+import com.bellotapps.the_messenger.producer.basic_factories.StringPayloadMessageBuilderFactory;
+import com.bellotapps.the_messenger.producer.basic_id_generators.TimeOrderedUuidIdGenerator;
+import com.bellotapps.the_messenger.producer.basic_payload_serializers.PlainPayloadSerializer;
+import com.bellotapps.the_messenger.producer.basic_timestamp_sources.CachedTimestampSource;
+import com.bellotapps.the_messenger.transport.json.jackson.JacksonMessage;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the {@link com.bellotapps.the_messenger.producer.MessageBuilder#build()} hot path,
+ * both with an already serialized payload and with a JSON payload serialized at build time,
+ * and with builders created for each {@link Message} or reused from a pool (reading the clock each time
+ * or from a {@link CachedTimestampSource}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MessageBuilderBenchmark {
+
+    /**
+     * The size of the payload of the built {@link Message}s.
+     */
+    @Param({"SMALL", "MEDIUM", "LARGE"})
+    private PayloadSize payloadSize;
+
+    /**
+     * A {@link MessageBuilderFactory} of already serialized payloads.
+     */
+    private MessageBuilderFactory<String> stringFactory;
+
+    /**
+     * A {@link MessageBuilderFactory} of already serialized payloads that reuses its builders.
+     */
+    private MessageBuilderFactory<String> pooledStringFactory;
+
+    /**
+     * The {@link CachedTimestampSource} used by the {@link #cachedClockStringFactory}.
+     */
+    private CachedTimestampSource cachedTimestampSource;
+
+    /**
+     * A {@link MessageBuilderFactory} of already serialized payloads that reuses its builders,
+     * and takes timestamps from the {@link #cachedTimestampSource}.
+     */
+    private MessageBuilderFactory<String> cachedClockStringFactory;
+
+    /**
+     * A {@link MessageBuilderFactory} that serializes payloads into JSON when building.
+     */
+    private MessageBuilderFactory<SamplePayload> jsonFactory;
+
+    /**
+     * The payload to be set to the built {@link Message}s.
+     */
+    private SamplePayload payload;
+
+    /**
+     * The {@link #payload}, already serialized.
+     */
+    private String serializedPayload;
+
+
+    /**
+     * Initializes the state of the benchmark.
+     *
+     * @throws Exception If any error occurs while serializing the payload.
+     */
+    @Setup
+    public void setup() throws Exception {
+        final ObjectMapper objectMapper = new ObjectMapper();
+        this.stringFactory = new StringPayloadMessageBuilderFactory("benchmarks", JacksonMessage::new);
+        this.pooledStringFactory = new StringPayloadMessageBuilderFactory("benchmarks", JacksonMessage::new, true);
+        this.cachedTimestampSource = new CachedTimestampSource();
+        this.cachedClockStringFactory = new GenericMessageBuilderFactory<>(
+                "benchmarks",
+                new PlainPayloadSerializer(),
+                JacksonMessage::new,
+                TimeOrderedUuidIdGenerator.getInstance(),
+                cachedTimestampSource,
+                true
+        );
+        this.jsonFactory = new GenericMessageBuilderFactory<>(
+                "benchmarks",
+                new JacksonJsonPayloadSerializer<>(objectMapper, SamplePayload.class),
+                JacksonMessage::new
+        );
+        this.payload = payloadSize.createPayload();
+        this.serializedPayload = objectMapper.writeValueAsString(payload);
+    }
+
+    /**
+     * Releases the resources of the benchmark.
+     */
+    @TearDown
+    public void tearDown() {
+        cachedTimestampSource.close();
+    }
+
+
+    /**
+     * Builds a simple {@link Message} with an already serialized payload.
+     *
+     * @return The built {@link Message}.
+     */
+    @Benchmark
+    public Message buildSimpleMessage() {
+        return stringFactory.simpleMessage()
+                .withPayload(serializedPayload)
+                .build();
+    }
+
+    /**
+     * Builds a simple {@link Message} with an already serialized payload, reusing the builder.
+     *
+     * @return The built {@link Message}.
+     */
+    @Benchmark
+    public Message buildSimpleMessagePooled() {
+        return pooledStringFactory.simpleMessage()
+                .withPayload(serializedPayload)
+                .build();
+    }
+
+    /**
+     * Builds a simple {@link Message} with an already serialized payload, reusing the builder,
+     * and taking the timestamp from a {@link CachedTimestampSource}.
+     *
+     * @return The built {@link Message}.
+     */
+    @Benchmark
+    public Message buildSimpleMessageCachedClock() {
+        return cachedClockStringFactory.simpleMessage()
+                .withPayload(serializedPayload)
+                .build();
+    }
+
+    /**
+     * Builds a command {@link Message} whose payload is serialized into JSON by the builder.
+     *
+     * @return The built {@link Message}.
+     */
+    @Benchmark
+    public Message buildJsonCommandMessage() {
+        return jsonFactory.commandMessage("PlaceOrder")
+                .copyHeaders("Tracing-Id")
+                .withHeader("Tracing-Id", "benchmark-trace")
+                .withPayload(payload)
+                .build();
+    }
+}
@@ -0,0 +1,221 @@
+package com.bellotapps.the_messenger.benchmarks;
+
+import com.bellotapps.the_messenger.commons.Message;
+import com.bellotapps.the_messenger.commons.payload.PayloadDeserializer;
+import com.bellotapps.the_messenger.consumer.BuiltInMessageHandler;
+import com.bellotapps.the_messenger.consumer.DeserializerMessageHandler;
+import com.bellotapps.the_messenger.consumer.MessageHandler;
+import com.bellotapps.the_messenger.json.JacksonJsonPayloadDeserializer;
+import com.bellotapps.the_messenger.json.JacksonJsonPayloadSerializer;
+import com.bellotapps.the_messenger.producer.MessageBuilderFactory;
+import com.bellotapps.the_messenger.producer.basic_factories.GenericMessageBuilderFactory;
+import com.bellotapps.the_messenger.transport.json.jackson.JacksonMessage;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the consumer side dispatch through a {@link BuiltInMessageHandler}
+ * configured with a {@link com.bellotapps.the_messenger.consumer.TypedMessageHandler}
+ * and a {@link com.bellotapps.the_messenger.consumer.CommandMessageHandler},
+ * optionally ending in a {@link DeserializerMessageHandler}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MessageHandlerDispatchBenchmark {
+
+    /**
+     * The command that is handled by just consuming the {@link Message}.
+     */
+    private static final String CONSUMED_COMMAND = "PlaceOrder";
+
+    /**
+     * The command that is handled by deserializing the {@link Message}'s payload.
+     */
+    private static final String DESERIALIZED_COMMAND = "CancelOrder";
+
+
+    /**
+     * The size of the payload of the dispatched {@link Message}s.
+     */
+    @Param({"SMALL", "MEDIUM", "LARGE"})
+    private PayloadSize payloadSize;
+
+    /**
+     * The benchmarked {@link MessageHandler}.
+     */
+    private MessageHandler messageHandler;
+
+    /**
+     * A simple {@link Message}.
+     */
+    private Message simpleMessage;
+
+    /**
+     * A command {@link Message} that is just consumed.
+     */
+    private Message consumedCommandMessage;
+
+    /**
+     * A command {@link Message} whose payload is deserialized
+     * (a template, as deserialized payloads are cached in the {@link Message}, see {@link FreshCommandMessage}).
+     */
+    private Message deserializedCommandMessage;
+
+
+    /**
+     * Initializes the state of the benchmark.
+     *
+     * @param blackhole The {@link Blackhole} that consumes the handled {@link Message}s.
+     * @throws IOException If any error occurs while creating the dispatched {@link Message}s.
+     */
+    @Setup
+    public void setup(final Blackhole blackhole) throws IOException {
+        final ObjectMapper objectMapper = new ObjectMapper();
+        this.messageHandler = BuiltInMessageHandler.Builder.create()
+                .configureTypedMessageHandlers()
+                .handleSimpleMessageWith(blackhole::consume)
+                .configureCommandMessageHandlers()
+                .handleCommandWith(CONSUMED_COMMAND, blackhole::consume)
+                .handleCommandWith(DESERIALIZED_COMMAND, new BlackholeDeserializerMessageHandler(
+                        new JacksonJsonPayloadDeserializer<>(objectMapper, SamplePayload.class),
+                        blackhole))
+                .continueWithParentBuilder()
+                .continueWithParentBuilder()
+                .build();
+
+        final MessageBuilderFactory<SamplePayload> factory = new GenericMessageBuilderFactory<>(
+                "benchmarks",
+                new JacksonJsonPayloadSerializer<>(objectMapper, SamplePayload.class),
+                JacksonMessage::new
+        );
+        final SamplePayload payload = payloadSize.createPayload();
+        // Messages are read from JSON as they would be received in the consumer side
+        this.simpleMessage = transport(objectMapper, factory.simpleMessage().withPayload(payload).build());
+        this.consumedCommandMessage = transport(objectMapper,
+                factory.commandMessage(CONSUMED_COMMAND).withPayload(payload).build());
+        this.deserializedCommandMessage = transport(objectMapper,
+                factory.commandMessage(DESERIALIZED_COMMAND).withPayload(payload).build());
+    }
+
+
+    /**
+     * Dispatches a simple {@link Message}.
+     */
+    @Benchmark
+    public void dispatchSimpleMessage() {
+        messageHandler.handle(simpleMessage);
+    }
+
+    /**
+     * Dispatches a command {@link Message}.
+     */
+    @Benchmark
+    public void dispatchCommandMessage() {
+        messageHandler.handle(consumedCommandMessage);
+    }
+
+    /**
+     * Dispatches a command {@link Message}, deserializing its payload.
+     *
+     * @param freshMessage The {@link FreshCommandMessage} holding the {@link Message} to be dispatched,
+     *                     whose payload has not been deserialized yet.
+     */
+    @Benchmark
+    public void dispatchAndDeserializeCommandMessage(final FreshCommandMessage freshMessage) {
+        messageHandler.handle(freshMessage.message);
+    }
+
+
+    /**
+     * Writes the given {@code message} into JSON and reads it back.
+     *
+     * @param objectMapper The {@link ObjectMapper} used to write and read.
+     * @param message      The {@link Message} to be transported.
+     * @return The read {@link Message}.
+     * @throws IOException If any error occurs while writing or reading.
+     */
+    private static Message transport(final ObjectMapper objectMapper, final Message message) throws IOException {
+        return objectMapper.readValue(objectMapper.writeValueAsString(message), JacksonMessage.class);
+    }
+
+
+    /**
+     * Holds a copy of the {@link #deserializedCommandMessage}, created before each invocation of the benchmark,
+     * as {@link Message#payloadAs(PayloadDeserializer)} caches the deserialized payload in the {@link Message}
+     * (so dispatching the same instance again would only measure a cache hit).
+     */
+    @State(Scope.Thread)
+    public static class FreshCommandMessage {
+
+        /**
+         * The {@link Message} to be dispatched.
+         */
+        private Message message;
+
+
+        /**
+         * Copies the {@link #deserializedCommandMessage} of the given {@code benchmark}.
+         *
+         * @param benchmark The {@link MessageHandlerDispatchBenchmark} whose template {@link Message} is copied.
+         */
+        @Setup(Level.Invocation)
+        public void setup(final MessageHandlerDispatchBenchmark benchmark) {
+            final Message template = benchmark.deserializedCommandMessage;
+            this.message = new JacksonMessage(
+                    template.getId(),
+                    template.getSender(),
+                    template.getTimestamp(),
+                    template.getHeaders(),
+                    template.getPayload());
+        }
+    }
+
+
+    /**
+     * A {@link DeserializerMessageHandler} that sends the deserialized payloads to a {@link Blackhole}.
+     */
+    private static final class BlackholeDeserializerMessageHandler extends DeserializerMessageHandler<SamplePayload> {
+
+        /**
+         * The {@link Blackhole} that consumes the deserialized payloads.
+         */
+        private final Blackhole blackhole;
+
+        /**
+         * Constructor.
+         *
+         * @param payloadDeserializer The {@link PayloadDeserializer} to be used to deserialize the payloads.
+         * @param blackhole           The {@link Blackhole} that consumes the deserialized payloads.
+         */
+        private BlackholeDeserializerMessageHandler(
+                final PayloadDeserializer<SamplePayload> payloadDeserializer,
+                final Blackhole blackhole) {
+            super(payloadDeserializer);
+            this.blackhole = blackhole;
+        }
+
+        @Override
+        protected void andThen(final SamplePayload payload, final Message message) {
+            blackhole.consume(payload);
+        }
+    }
+}
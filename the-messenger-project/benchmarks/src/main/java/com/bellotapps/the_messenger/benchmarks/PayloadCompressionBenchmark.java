@@ -0,0 +1,136 @@
+package com.bellotapps.the_messenger.benchmarks;
+
+import com.bellotapps.the_messenger.commons.payload.PayloadDeserializer;
+import com.bellotapps.the_messenger.commons.payload.PayloadSerializer;
+import com.bellotapps.the_messenger.commons.payload.compression.CompressingPayloadSerializer;
+import com.bellotapps.the_messenger.commons.payload.compression.DecompressingPayloadDeserializer;
+import com.bellotapps.the_messenger.commons.payload.compression.DeflatePayloadCompressor;
+import com.bellotapps.the_messenger.commons.payload.compression.GzipPayloadCompressor;
+import com.bellotapps.the_messenger.commons.payload.compression.PayloadCompressor;
+import com.bellotapps.the_messenger.json.JacksonJsonPayloadDeserializer;
+import com.bellotapps.the_messenger.json.JacksonJsonPayloadSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.Deflater;
+
+/**
+ * Benchmarks serializing and deserializing JSON payloads compressed with the
+ * {@link CompressingPayloadSerializer} and the {@link DecompressingPayloadDeserializer}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PayloadCompressionBenchmark {
+
+    /**
+     * The size of the (de)serialized payload.
+     */
+    @Param({"MEDIUM", "LARGE"})
+    private PayloadSize payloadSize;
+
+    /**
+     * The content encoding of the payload ({@code NONE} for uncompressed payloads).
+     */
+    @Param({"NONE", "GZIP", "DEFLATE", "DEFLATE_FAST"})
+    private String encoding;
+
+    /**
+     * The benchmarked {@link PayloadSerializer}.
+     */
+    private PayloadSerializer<SamplePayload> serializer;
+
+    /**
+     * The benchmarked {@link PayloadDeserializer}.
+     */
+    private PayloadDeserializer<SamplePayload> deserializer;
+
+    /**
+     * The payload to be serialized.
+     */
+    private SamplePayload payload;
+
+    /**
+     * The headers set by the {@link #serializer}.
+     */
+    private Map<String, String> headers;
+
+    /**
+     * The {@link #payload}, already serialized (i.e the input of the deserialization benchmark).
+     */
+    private String serializedPayload;
+
+
+    /**
+     * Initializes the state of the benchmark.
+     */
+    @Setup
+    public void setup() {
+        final ObjectMapper objectMapper = new ObjectMapper();
+        final JacksonJsonPayloadSerializer<SamplePayload> jsonSerializer =
+                new JacksonJsonPayloadSerializer<>(objectMapper, SamplePayload.class);
+        final JacksonJsonPayloadDeserializer<SamplePayload> jsonDeserializer =
+                new JacksonJsonPayloadDeserializer<>(objectMapper, SamplePayload.class);
+        final PayloadCompressor compressor;
+        switch (encoding) {
+            case "GZIP":
+                compressor = GzipPayloadCompressor.getInstance();
+                break;
+            case "DEFLATE":
+                compressor = DeflatePayloadCompressor.getInstance();
+                break;
+            case "DEFLATE_FAST":
+                compressor = new DeflatePayloadCompressor(Deflater.BEST_SPEED);
+                break;
+            default:
+                compressor = null;
+        }
+        if (compressor == null) {
+            this.serializer = jsonSerializer;
+            this.deserializer = jsonDeserializer;
+        } else {
+            this.serializer = new CompressingPayloadSerializer<>(jsonSerializer, compressor);
+            this.deserializer = new DecompressingPayloadDeserializer<>(jsonDeserializer, compressor);
+        }
+        this.payload = payloadSize.createPayload();
+        this.headers = new HashMap<>();
+        this.serializedPayload = serialize();
+    }
+
+
+    /**
+     * Serializes (and compresses) the payload.
+     *
+     * @return The serialized payload.
+     */
+    @Benchmark
+    public String serialize() {
+        return serializer.serialize(payload, headers);
+    }
+
+    /**
+     * Deserializes (and decompresses) the payload.
+     *
+     * @return The deserialized payload.
+     */
+    @Benchmark
+    public SamplePayload deserialize() {
+        return deserializer.deserialize(serializedPayload);
+    }
+}
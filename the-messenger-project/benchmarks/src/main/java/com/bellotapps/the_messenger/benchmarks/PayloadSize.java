@@ -0,0 +1,50 @@
+package com.bellotapps.the_messenger.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Enum containing the payload sizes used as a benchmark parameter.
+ */
+public enum PayloadSize {
+    /**
+     * A payload of a few tens of bytes, like a command with a couple of arguments.
+     */
+    SMALL(1),
+    /**
+     * A payload of a few kilobytes, like a regular domain event.
+     */
+    MEDIUM(40),
+    /**
+     * A payload of a few hundreds of kilobytes, like a bulk event.
+     */
+    LARGE(4000),
+    ;
+
+    /**
+     * The amount of {@link SamplePayload.Item}s in the payload.
+     */
+    private final int items;
+
+    /**
+     * Constructor.
+     *
+     * @param items The amount of {@link SamplePayload.Item}s in the payload.
+     */
+    PayloadSize(final int items) {
+        this.items = items;
+    }
+
+    /**
+     * Creates a {@link SamplePayload} of this size.
+     *
+     * @return The created {@link SamplePayload}.
+     */
+    public SamplePayload createPayload() {
+        final List<SamplePayload.Item> payloadItems = new ArrayList<>(items);
+        for (int i = 0; i < items; i++) {
+            payloadItems.add(new SamplePayload.Item("SKU-" + i, "Description of item number " + i, i % 10, i * 1.5));
+        }
+        return new SamplePayload("OrderPlaced", 42L, payloadItems);
+    }
+}
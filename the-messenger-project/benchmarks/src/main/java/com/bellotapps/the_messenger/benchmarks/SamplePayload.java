@@ -0,0 +1,195 @@
+package com.bellotapps.the_messenger.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A payload object used by the benchmarks, shaped like a typical domain event.
+ */
+public class SamplePayload {
+
+    /**
+     * The event name.
+     */
+    private String name;
+
+    /**
+     * The aggregate id.
+     */
+    private long aggregateId;
+
+    /**
+     * The event items (their amount determines the size of the payload).
+     */
+    private List<Item> items;
+
+
+    /**
+     * Default constructor (used by Jackson).
+     */
+    public SamplePayload() {
+        this.items = new ArrayList<>();
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param name        The event name.
+     * @param aggregateId The aggregate id.
+     * @param items       The event items.
+     */
+    public SamplePayload(final String name, final long aggregateId, final List<Item> items) {
+        this.name = name;
+        this.aggregateId = aggregateId;
+        this.items = items;
+    }
+
+
+    /**
+     * @return The event name.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @param name The event name.
+     */
+    public void setName(final String name) {
+        this.name = name;
+    }
+
+    /**
+     * @return The aggregate id.
+     */
+    public long getAggregateId() {
+        return aggregateId;
+    }
+
+    /**
+     * @param aggregateId The aggregate id.
+     */
+    public void setAggregateId(final long aggregateId) {
+        this.aggregateId = aggregateId;
+    }
+
+    /**
+     * @return The event items.
+     */
+    public List<Item> getItems() {
+        return items;
+    }
+
+    /**
+     * @param items The event items.
+     */
+    public void setItems(final List<Item> items) {
+        this.items = items;
+    }
+
+
+    /**
+     * An item of a {@link SamplePayload}.
+     */
+    public static class Item {
+
+        /**
+         * The item's sku.
+         */
+        private String sku;
+
+        /**
+         * The item's description.
+         */
+        private String description;
+
+        /**
+         * The item's quantity.
+         */
+        private int quantity;
+
+        /**
+         * The item's price.
+         */
+        private double price;
+
+
+        /**
+         * Default constructor (used by Jackson).
+         */
+        public Item() {
+        }
+
+        /**
+         * Constructor.
+         *
+         * @param sku         The item's sku.
+         * @param description The item's description.
+         * @param quantity    The item's quantity.
+         * @param price       The item's price.
+         */
+        public Item(final String sku, final String description, final int quantity, final double price) {
+            this.sku = sku;
+            this.description = description;
+            this.quantity = quantity;
+            this.price = price;
+        }
+
+
+        /**
+         * @return The item's sku.
+         */
+        public String getSku() {
+            return sku;
+        }
+
+        /**
+         * @param sku The item's sku.
+         */
+        public void setSku(final String sku) {
+            this.sku = sku;
+        }
+
+        /**
+         * @return The item's description.
+         */
+        public String getDescription() {
+            return description;
+        }
+
+        /**
+         * @param description The item's description.
+         */
+        public void setDescription(final String description) {
+            this.description = description;
+        }
+
+        /**
+         * @return The item's quantity.
+         */
+        public int getQuantity() {
+            return quantity;
+        }
+
+        /**
+         * @param quantity The item's quantity.
+         */
+        public void setQuantity(final int quantity) {
+            this.quantity = quantity;
+        }
+
+        /**
+         * @return The item's price.
+         */
+        public double getPrice() {
+            return price;
+        }
+
+        /**
+         * @param price The item's price.
+         */
+        public void setPrice(final double price) {
+            this.price = price;
+        }
+    }
+}
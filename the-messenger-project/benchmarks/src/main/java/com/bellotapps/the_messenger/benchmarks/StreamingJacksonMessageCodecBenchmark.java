@@ -0,0 +1,139 @@
+package com.bellotapps.the_messenger.benchmarks;
+
+import com.bellotapps.the_messenger.commons.Message;
+import com.bellotapps.the_messenger.json.JacksonJsonPayloadDeserializer;
+import com.bellotapps.the_messenger.json.JacksonJsonPayloadSerializer;
+import com.bellotapps.the_messenger.producer.basic_factories.GenericMessageBuilderFactory;
+import com.bellotapps.the_messenger.transport.json.jackson.JacksonMessage;
+import com.bellotapps.the_messenger.transport.json.jackson.StreamingJacksonMessageCodec;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the transport of {@link Message}s with JSON payloads through the {@link StreamingJacksonMessageCodec}
+ * (i.e writing the envelope, reading it, and a full round-trip that also deserializes the payload).
+ * Compare with {@link JacksonMessageBenchmark}, which escapes the payload into a string field.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StreamingJacksonMessageCodecBenchmark {
+
+    /**
+     * The size of the payload of the transported {@link Message}.
+     */
+    @Param({"SMALL", "MEDIUM", "LARGE"})
+    private PayloadSize payloadSize;
+
+    /**
+     * The benchmarked {@link StreamingJacksonMessageCodec}.
+     */
+    private StreamingJacksonMessageCodec codec;
+
+    /**
+     * The {@link JacksonJsonPayloadDeserializer} used to deserialize the payload of read messages.
+     */
+    private JacksonJsonPayloadDeserializer<SamplePayload> deserializer;
+
+    /**
+     * The {@link Message} to be written.
+     */
+    private Message message;
+
+    /**
+     * The {@link #message}, already written (i.e the input of the read benchmark).
+     */
+    private byte[] serializedMessage;
+
+    /**
+     * The {@link #serializedMessage}, in a direct {@link ByteBuffer} (i.e the input of the direct read benchmark).
+     */
+    private ByteBuffer directSerializedMessage;
+
+
+    /**
+     * Initializes the state of the benchmark.
+     *
+     * @throws IOException If any error occurs while writing the message.
+     */
+    @Setup
+    public void setup() throws IOException {
+        final ObjectMapper objectMapper = new ObjectMapper();
+        this.codec = new StreamingJacksonMessageCodec(objectMapper.getFactory());
+        this.deserializer = new JacksonJsonPayloadDeserializer<>(objectMapper, SamplePayload.class);
+        this.message = new GenericMessageBuilderFactory<>(
+                "benchmarks",
+                new JacksonJsonPayloadSerializer<>(objectMapper, SamplePayload.class),
+                JacksonMessage::new)
+                .commandMessage("PlaceOrder")
+                .withPayload(payloadSize.createPayload())
+                .build();
+        this.serializedMessage = codec.writeAsBytes(message);
+        this.directSerializedMessage = ByteBuffer.allocateDirect(serializedMessage.length);
+        directSerializedMessage.put(serializedMessage);
+        directSerializedMessage.flip();
+    }
+
+
+    /**
+     * Writes the {@link Message} into JSON.
+     *
+     * @return The written {@link Message}.
+     * @throws IOException If any error occurs while writing.
+     */
+    @Benchmark
+    public byte[] write() throws IOException {
+        return codec.writeAsBytes(message);
+    }
+
+    /**
+     * Reads a {@link Message} from JSON.
+     *
+     * @return The read {@link Message}.
+     * @throws IOException If any error occurs while reading.
+     */
+    @Benchmark
+    public Message read() throws IOException {
+        return codec.read(serializedMessage);
+    }
+
+    /**
+     * Reads a {@link Message} from JSON in a direct {@link ByteBuffer} (e.g like a memory-mapped log),
+     * keeping its payload off-heap.
+     *
+     * @return The read {@link Message}.
+     * @throws IOException If any error occurs while reading.
+     */
+    @Benchmark
+    public Message readDirectBuffer() throws IOException {
+        return codec.read(directSerializedMessage.duplicate());
+    }
+
+    /**
+     * Writes the {@link Message} into JSON, reads it back and deserializes its payload.
+     *
+     * @return The deserialized payload.
+     * @throws IOException If any error occurs while writing or reading.
+     */
+    @Benchmark
+    public SamplePayload roundTrip() throws IOException {
+        return codec.read(codec.writeAsBytes(message)).payloadAs(deserializer);
+    }
+}
@@ -16,11 +16,20 @@
 
 package com.bellotapps.the_messenger.commons;
 
-import org.apache.commons.lang3.StringUtils;
-import org.apache.commons.lang3.Validate;
+import com.bellotapps.the_messenger.commons.headers.CompactHeaderMap;
+import com.bellotapps.the_messenger.commons.headers.ContentType;
+import com.bellotapps.the_messenger.commons.headers.DefinedHeader;
+import com.bellotapps.the_messenger.commons.headers.MessageType;
+import com.bellotapps.the_messenger.commons.payload.BytesPayloadDeserializer;
+import com.bellotapps.the_messenger.commons.payload.PayloadDeserializationException;
+import com.bellotapps.the_messenger.commons.payload.PayloadDeserializer;
+import com.bellotapps.the_messenger.commons.validation.FullMessageValidator;
+import com.bellotapps.the_messenger.commons.validation.MessageValidator;
+import com.bellotapps.the_messenger.commons.validation.TrustedMessageValidator;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
-import java.util.Collections;
 import java.util.Map;
 
 /**
@@ -40,29 +49,106 @@ public abstract class AbstractMessage implements Message {
     private final String sender;
 
     /**
-     * The timestamp of the message.
+     * The timestamp of the message, in milliseconds since the epoch.
      */
-    private final Instant timestamp;
+    private final long timestampMillis;
 
     /**
-     * The message headers.
+     * The timestamp of the message (lazily created from the {@link #timestampMillis} if it was not received).
      */
-    private final Map<String, String> headers;
+    private volatile Instant timestamp;
 
     /**
-     * The message payload.
+     * The message headers (an immutable copy of the headers received at construction).
      */
-    private final String payload;
+    private final CompactHeaderMap headers;
 
+    /**
+     * The message payload as a {@link String}
+     * (lazily decoded from the {@link #payloadBuffer} if the payload was received as bytes).
+     */
+    private volatile String payload;
+
+    /**
+     * The message payload as bytes if it was received as bytes, or {@code null} otherwise.
+     * It is never exposed, as only read-only views of it are handed out.
+     */
+    private final ByteBuffer payloadBuffer;
+
+    /**
+     * The message payload encoded in UTF-8 if it was received as a String (lazily created when requested).
+     * It is never exposed, as only copies or read-only views of it are handed out.
+     */
+    private volatile byte[] encodedPayload;
+
+    /**
+     * The payloads deserialized with {@link #payloadAs(PayloadDeserializer)} (lazily populated).
+     */
+    private volatile DeserializedPayload deserializedPayloads;
+
+    /**
+     * The value of the {@link DefinedHeader#MESSAGE_TYPE} header (parsed once at construction).
+     */
+    private final String type;
+
+    /**
+     * The {@link MessageType} of this message if it is a well-known type, or {@code null} otherwise
+     * (parsed once at construction).
+     */
+    private final MessageType wellKnownType;
+
+    /**
+     * The value of the {@link DefinedHeader#CONTENT_TYPE} header (parsed once at construction).
+     */
+    private final String contentType;
+
+    /**
+     * The {@link ContentType} of this message if it is a well-known content type, or {@code null} otherwise
+     * (parsed once at construction).
+     */
+    private final ContentType wellKnownContentType;
+
+    /**
+     * The value of the {@link DefinedHeader#COMMAND} header if this is a command message,
+     * or {@code null} otherwise (parsed once at construction).
+     */
+    private final String command;
+
+    /**
+     * The value of the {@link DefinedHeader#REPLIES_TO} header (parsed once at construction).
+     */
+    private final String repliesTo;
+
+
+    /**
+     * Constructor that performs all the validations (see {@link FullMessageValidator}).
+     *
+     * @param id        The message's id.
+     * @param sender    An identification of the sender. This allows the recipient to know who has sent the message.
+     * @param timestamp The timestamp of the message.
+     * @param headers   The message headers.
+     * @param payload   The message payload.
+     * @throws IllegalArgumentException If any argument is invalid.
+     */
+    protected AbstractMessage(
+            final String id,
+            final String sender,
+            final Instant timestamp,
+            final Map<String, String> headers,
+            final String payload) throws IllegalArgumentException {
+        this(id, sender, timestamp, headers, payload, FullMessageValidator.getInstance());
+    }
 
     /**
-     * Private constructor. Use
+     * Constructor that validates with the given {@link MessageValidator}.
      *
      * @param id        The message's id.
      * @param sender    An identification of the sender. This allows the recipient to know who has sent the message.
      * @param timestamp The timestamp of the message.
      * @param headers   The message headers.
      * @param payload   The message payload.
+     * @param validator The {@link MessageValidator} used to validate the arguments
+     *                  (e.g a {@link TrustedMessageValidator} for messages that were already validated).
      * @throws IllegalArgumentException If any argument is invalid.
      */
     protected AbstractMessage(
@@ -70,20 +156,151 @@ public abstract class AbstractMessage implements Message {
             final String sender,
             final Instant timestamp,
             final Map<String, String> headers,
+            final String payload,
+            final MessageValidator validator) throws IllegalArgumentException {
+        this(id, sender, toEpochMillis(timestamp), timestamp, headers, payload, null, validator);
+    }
+
+    /**
+     * Constructor that performs all the validations (see {@link FullMessageValidator}),
+     * receiving the timestamp in milliseconds since the epoch
+     * (the {@link Instant} is created only if {@link #getTimestamp()} is called).
+     *
+     * @param id              The message's id.
+     * @param sender          An identification of the sender.
+     *                        This allows the recipient to know who has sent the message.
+     * @param timestampMillis The timestamp of the message, in milliseconds since the epoch.
+     * @param headers         The message headers.
+     * @param payload         The message payload.
+     * @throws IllegalArgumentException If any argument is invalid.
+     */
+    protected AbstractMessage(
+            final String id,
+            final String sender,
+            final long timestampMillis,
+            final Map<String, String> headers,
             final String payload) throws IllegalArgumentException {
-        Validate.isTrue(StringUtils.isNotBlank(id), "The id must have text");
-        Validate.isTrue(StringUtils.isNotBlank(sender), "The sender must have text");
-        Validate.isTrue(timestamp != null, "The timestamp must not be null");
-        Validate.isTrue(headers != null, "The headers map must not be null");
-        Validate.isTrue(
-                headers.entrySet().stream().noneMatch(e -> StringUtils.isAnyBlank(e.getKey(), e.getValue())),
-                "All the headers key and value must have text"
-        );
+        this(id, sender, timestampMillis, headers, payload, FullMessageValidator.getInstance());
+    }
+
+    /**
+     * Constructor that validates with the given {@link MessageValidator},
+     * receiving the timestamp in milliseconds since the epoch
+     * (the {@link Instant} is created only if {@link #getTimestamp()} is called).
+     *
+     * @param id              The message's id.
+     * @param sender          An identification of the sender.
+     *                        This allows the recipient to know who has sent the message.
+     * @param timestampMillis The timestamp of the message, in milliseconds since the epoch.
+     * @param headers         The message headers.
+     * @param payload         The message payload.
+     * @param validator       The {@link MessageValidator} used to validate the arguments.
+     * @throws IllegalArgumentException If any argument is invalid.
+     */
+    protected AbstractMessage(
+            final String id,
+            final String sender,
+            final long timestampMillis,
+            final Map<String, String> headers,
+            final String payload,
+            final MessageValidator validator) throws IllegalArgumentException {
+        this(id, sender, timestampMillis, null, headers, payload, null, validator);
+    }
+
+    /**
+     * Constructor for messages whose payload is received as bytes (e.g from a binary transport),
+     * which validates with the given {@link MessageValidator}.
+     * The payload is kept as bytes, and it is decoded into a {@link String} only if {@link #getPayload()} is called.
+     *
+     * @param id           The message's id.
+     * @param sender       An identification of the sender.
+     *                     This allows the recipient to know who has sent the message.
+     * @param timestamp    The timestamp of the message.
+     * @param headers      The message headers.
+     * @param payloadBytes A {@link ByteBuffer} whose remaining bytes are the message payload, encoded in UTF-8,
+     *                     or {@code null} if the message has no payload. The buffer is not copied,
+     *                     so its content must not be modified afterwards.
+     * @param validator    The {@link MessageValidator} used to validate the arguments.
+     * @throws IllegalArgumentException If any argument is invalid.
+     */
+    protected AbstractMessage(
+            final String id,
+            final String sender,
+            final Instant timestamp,
+            final Map<String, String> headers,
+            final ByteBuffer payloadBytes,
+            final MessageValidator validator) throws IllegalArgumentException {
+        this(id, sender, toEpochMillis(timestamp), timestamp, headers,
+                null, payloadBytes == null ? null : payloadBytes.slice(), validator);
+    }
+
+    /**
+     * Constructor for messages whose payload is received as bytes (e.g from a binary transport),
+     * which validates with the given {@link MessageValidator}, receiving the timestamp in milliseconds since the epoch
+     * (the {@link Instant} is created only if {@link #getTimestamp()} is called).
+     *
+     * @param id              The message's id.
+     * @param sender          An identification of the sender.
+     *                        This allows the recipient to know who has sent the message.
+     * @param timestampMillis The timestamp of the message, in milliseconds since the epoch.
+     * @param headers         The message headers.
+     * @param payloadBytes    A {@link ByteBuffer} whose remaining bytes are the message payload, encoded in UTF-8,
+     *                        or {@code null} if the message has no payload. The buffer is not copied,
+     *                        so its content must not be modified afterwards.
+     * @param validator       The {@link MessageValidator} used to validate the arguments.
+     * @throws IllegalArgumentException If any argument is invalid.
+     */
+    protected AbstractMessage(
+            final String id,
+            final String sender,
+            final long timestampMillis,
+            final Map<String, String> headers,
+            final ByteBuffer payloadBytes,
+            final MessageValidator validator) throws IllegalArgumentException {
+        this(id, sender, timestampMillis, null, headers,
+                null, payloadBytes == null ? null : payloadBytes.slice(), validator);
+    }
+
+    /**
+     * Private constructor used by the rest of the constructors.
+     *
+     * @param id              The message's id.
+     * @param sender          An identification of the sender.
+     * @param timestampMillis The timestamp of the message, in milliseconds since the epoch.
+     * @param timestamp       The timestamp of the message, or {@code null} to create it lazily.
+     * @param headers         The message headers.
+     * @param payload         The message payload as a {@link String}, or {@code null} if it is received as bytes.
+     * @param payloadBuffer   The message payload as bytes, or {@code null} if it is received as a {@link String}.
+     * @param validator       The {@link MessageValidator} used to validate the arguments.
+     * @throws IllegalArgumentException If any argument is invalid.
+     */
+    private AbstractMessage(
+            final String id,
+            final String sender,
+            final long timestampMillis,
+            final Instant timestamp,
+            final Map<String, String> headers,
+            final String payload,
+            final ByteBuffer payloadBuffer,
+            final MessageValidator validator) throws IllegalArgumentException {
+        validator.validate(id, sender, headers);
         this.id = id;
         this.sender = sender;
+        this.timestampMillis = timestampMillis;
         this.timestamp = timestamp;
-        this.headers = Collections.unmodifiableMap(headers);
+        this.headers = CompactHeaderMap.copyOf(headers);
         this.payload = payload;
+        this.payloadBuffer = payloadBuffer;
+        // Well-known values are replaced by their interned instances, so they can be compared by reference.
+        final String rawType = this.headers.get(DefinedHeader.MESSAGE_TYPE.serialize());
+        this.wellKnownType = MessageType.fromSerialized(rawType);
+        this.type = wellKnownType == null ? rawType : wellKnownType.serialize();
+        final String rawContentType = this.headers.get(DefinedHeader.CONTENT_TYPE.serialize());
+        this.wellKnownContentType = ContentType.fromSerialized(rawContentType);
+        this.contentType = wellKnownContentType == null ? rawContentType : wellKnownContentType.serialize();
+        this.command = wellKnownType == MessageType.COMMAND ?
+                this.headers.get(DefinedHeader.COMMAND.serialize()) : null;
+        this.repliesTo = this.headers.get(DefinedHeader.REPLIES_TO.serialize());
     }
 
 
@@ -99,7 +316,18 @@ public abstract class AbstractMessage implements Message {
 
     @Override
     public Instant getTimestamp() {
-        return timestamp;
+        Instant result = timestamp;
+        if (result == null) {
+            // Racy single-check: creating it twice is harmless, as Instants are immutable.
+            result = Instant.ofEpochMilli(timestampMillis);
+            timestamp = result;
+        }
+        return result;
+    }
+
+    @Override
+    public long getTimestampMillis() {
+        return timestampMillis;
     }
 
     @Override
@@ -109,6 +337,206 @@ public abstract class AbstractMessage implements Message {
 
     @Override
     public String getPayload() {
+        String result = payload;
+        if (result == null && payloadBuffer != null) {
+            // Racy single-check: decoding twice is harmless, as Strings are immutable.
+            result = decode(payloadBuffer);
+            payload = result;
+        }
+        return result;
+    }
+
+    @Override
+    public byte[] getPayloadBytes() {
+        if (payloadBuffer != null) {
+            return toArray(payloadBuffer);
+        }
+        final byte[] encoded = encodedPayload();
+        return encoded == null ? null : encoded.clone();
+    }
+
+    @Override
+    public ByteBuffer getPayloadBuffer() {
+        if (payloadBuffer != null) {
+            return payloadBuffer.asReadOnlyBuffer();
+        }
+        final byte[] encoded = encodedPayload();
+        return encoded == null ? null : ByteBuffer.wrap(encoded).asReadOnlyBuffer();
+    }
+
+    @Override
+    public <T> T deserializePayload(final PayloadDeserializer<T> deserializer)
+            throws PayloadDeserializationException {
+        // If the payload is held as bytes, avoid decoding it into a String.
+        if (payloadBuffer != null && deserializer instanceof BytesPayloadDeserializer) {
+            @SuppressWarnings("unchecked") final BytesPayloadDeserializer<T> bytesDeserializer =
+                    (BytesPayloadDeserializer<T>) deserializer;
+            return bytesDeserializer.deserializeBytes(payloadBuffer.asReadOnlyBuffer());
+        }
+        return deserializer.deserialize(getPayload());
+    }
+
+    @Override
+    public <T> T payloadAs(final PayloadDeserializer<T> deserializer) throws PayloadDeserializationException {
+        final DeserializedPayload head = deserializedPayloads;
+        for (DeserializedPayload entry = head; entry != null; entry = entry.next) {
+            if (entry.deserializer == deserializer || entry.deserializer.equals(deserializer)) {
+                @SuppressWarnings("unchecked") final T payload = (T) entry.payload;
+                return payload;
+            }
+        }
+        final T payload = deserializePayload(deserializer);
+        // Racy publication: if another thread caches a payload concurrently, one of them might be lost,
+        // which only means that its payload will be deserialized again.
+        deserializedPayloads = new DeserializedPayload(deserializer, payload, head);
         return payload;
     }
+
+    @Override
+    public String headerValueOrNull(final DefinedHeader header) {
+        switch (header) {
+            case MESSAGE_TYPE:
+                return type;
+            case CONTENT_TYPE:
+                return contentType;
+            case REPLIES_TO:
+                return repliesTo;
+            default:
+                return headers.get(header.serialize());
+        }
+    }
+
+    @Override
+    public String typeOrNull() {
+        return type;
+    }
+
+    @Override
+    public String contentTypeOrNull() {
+        return contentType;
+    }
+
+    @Override
+    public MessageType wellKnownTypeOrNull() {
+        return wellKnownType;
+    }
+
+    @Override
+    public ContentType wellKnownContentTypeOrNull() {
+        return wellKnownContentType;
+    }
+
+    @Override
+    public String commandOrNull() {
+        return command;
+    }
+
+    @Override
+    public String repliesToOrNull() {
+        return repliesTo;
+    }
+
+
+    /**
+     * Decodes the remaining bytes of the given {@code buffer} as UTF-8.
+     *
+     * @param buffer The {@link ByteBuffer} to be decoded (its position is not modified).
+     * @return The decoded {@link String}.
+     */
+    private static String decode(final ByteBuffer buffer) {
+        if (buffer.hasArray()) {
+            return new String(
+                    buffer.array(),
+                    buffer.arrayOffset() + buffer.position(),
+                    buffer.remaining(),
+                    StandardCharsets.UTF_8
+            );
+        }
+        return StandardCharsets.UTF_8.decode(buffer.duplicate()).toString();
+    }
+
+    /**
+     * Converts the given {@code timestamp} into milliseconds since the epoch.
+     *
+     * @param timestamp The timestamp to be converted.
+     * @return The milliseconds since the epoch.
+     * @throws IllegalArgumentException If the timestamp is null.
+     */
+    private static long toEpochMillis(final Instant timestamp) throws IllegalArgumentException {
+        if (timestamp == null) {
+            throw new IllegalArgumentException("The timestamp must not be null");
+        }
+        return timestamp.toEpochMilli();
+    }
+
+    /**
+     * Returns the String payload encoded in UTF-8, encoding it only the first time.
+     *
+     * @return The encoded payload, or {@code null} if the message has no payload.
+     * @implNote The returned array is shared, so it must not be handed out.
+     */
+    private byte[] encodedPayload() {
+        byte[] result = encodedPayload;
+        if (result == null) {
+            final String stringPayload = payload;
+            if (stringPayload == null) {
+                return null;
+            }
+            // Racy single-check: encoding twice is harmless, as the array is never modified.
+            result = stringPayload.getBytes(StandardCharsets.UTF_8);
+            encodedPayload = result;
+        }
+        return result;
+    }
+
+    /**
+     * Returns a copy of the remaining bytes of the given {@code buffer}.
+     *
+     * @param buffer The {@link ByteBuffer} whose remaining bytes must be returned (its position is not modified).
+     * @return The remaining bytes.
+     */
+    private static byte[] toArray(final ByteBuffer buffer) {
+        final byte[] bytes = new byte[buffer.remaining()];
+        buffer.duplicate().get(bytes);
+        return bytes;
+    }
+
+
+    /**
+     * An entry of the cache of deserialized payloads (an immutable linked list, as messages are usually
+     * deserialized with one or two deserializers).
+     */
+    private static final class DeserializedPayload {
+
+        /**
+         * The {@link PayloadDeserializer} with which the payload was deserialized.
+         */
+        private final PayloadDeserializer<?> deserializer;
+
+        /**
+         * The deserialized payload.
+         */
+        private final Object payload;
+
+        /**
+         * The next entry.
+         */
+        private final DeserializedPayload next;
+
+        /**
+         * Constructor.
+         *
+         * @param deserializer The {@link PayloadDeserializer} with which the payload was deserialized.
+         * @param payload      The deserialized payload.
+         * @param next         The next entry.
+         */
+        private DeserializedPayload(
+                final PayloadDeserializer<?> deserializer,
+                final Object payload,
+                final DeserializedPayload next) {
+            this.deserializer = deserializer;
+            this.payload = payload;
+            this.next = next;
+        }
+    }
 }
@@ -1,12 +1,17 @@
 package com.bellotapps.the_messenger.commons;
 
+import com.bellotapps.the_messenger.commons.headers.ContentType;
+import com.bellotapps.the_messenger.commons.headers.CopyHeadersProjection;
 import com.bellotapps.the_messenger.commons.headers.DefinedHeader;
 import com.bellotapps.the_messenger.commons.headers.MessageType;
-import org.apache.commons.lang3.StringUtils;
+import com.bellotapps.the_messenger.commons.payload.BytesPayloadDeserializer;
+import com.bellotapps.the_messenger.commons.payload.PayloadDeserializationException;
+import com.bellotapps.the_messenger.commons.payload.PayloadDeserializer;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.*;
-import java.util.stream.Collectors;
 
 /**
  * Represents a message.
@@ -28,6 +33,17 @@ public interface Message {
      */
     Instant getTimestamp();
 
+    /**
+     * Returns the timestamp of the message in milliseconds since the epoch,
+     * which is cheaper than {@link #getTimestamp()} for comparisons (e.g to measure the age of the message).
+     *
+     * @return The timestamp of the message, in milliseconds since the epoch.
+     * @implSpec The default implementation converts the {@link #getTimestamp()}.
+     */
+    default long getTimestampMillis() {
+        return getTimestamp().toEpochMilli();
+    }
+
     /**
      * @return The message headers.
      */
@@ -43,6 +59,63 @@ public interface Message {
     // Convenient methods
     // ================================================================================================================
 
+    /**
+     * Returns the message payload as bytes.
+     *
+     * @return The message payload, encoded in UTF-8, or {@code null} if the message has no payload.
+     * @apiNote The returned array is a copy, so it can be modified.
+     * Callers that only read the payload should use {@link #getPayloadBuffer()} instead,
+     * which returns a read-only view of the payload (i.e it avoids copying it).
+     */
+    default byte[] getPayloadBytes() {
+        final String payload = getPayload();
+        return payload == null ? null : payload.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns a read-only {@link ByteBuffer} view of the message payload.
+     *
+     * @return A read-only {@link ByteBuffer} whose remaining bytes are the message payload, encoded in UTF-8,
+     * or {@code null} if the message has no payload.
+     */
+    default ByteBuffer getPayloadBuffer() {
+        final byte[] payload = getPayloadBytes();
+        return payload == null ? null : ByteBuffer.wrap(payload).asReadOnlyBuffer();
+    }
+
+    /**
+     * Deserializes the message payload with the given {@code deserializer}.
+     *
+     * @param deserializer The {@link PayloadDeserializer} to be used.
+     * @param <T>          The concrete type into which the payload is deserialized.
+     * @return The deserialized payload.
+     * @throws PayloadDeserializationException If any error occurs while deserializing the payload.
+     * @implNote Implementations holding the payload as bytes should deserialize them directly
+     * if the given {@code deserializer} is also a {@link BytesPayloadDeserializer}.
+     */
+    default <T> T deserializePayload(final PayloadDeserializer<T> deserializer)
+            throws PayloadDeserializationException {
+        return deserializer.deserialize(getPayload());
+    }
+
+    /**
+     * Returns the message payload deserialized with the given {@code deserializer}.
+     * Unlike {@link #deserializePayload(PayloadDeserializer)}, implementations may cache the result
+     * for each {@code deserializer} (or any equal one), so the payload is parsed at most once
+     * even if several handlers need it.
+     *
+     * @param deserializer The {@link PayloadDeserializer} to be used.
+     * @param <T>          The concrete type into which the payload is deserialized.
+     * @return The deserialized payload.
+     * @throws PayloadDeserializationException If any error occurs while deserializing the payload.
+     * @apiNote As the result might be shared, it should be treated as immutable.
+     * @implSpec The default implementation does not cache, and just calls
+     * {@link #deserializePayload(PayloadDeserializer)}.
+     */
+    default <T> T payloadAs(final PayloadDeserializer<T> deserializer) throws PayloadDeserializationException {
+        return deserializePayload(deserializer);
+    }
+
     /**
      * Returns the value for the given {@code header} if it exists.
      *
@@ -53,13 +126,92 @@ public interface Message {
         return Optional.ofNullable(getHeaders().get(header));
     }
 
+    /**
+     * Returns the value for the given {@link DefinedHeader} if it exists.
+     *
+     * @param header The {@link DefinedHeader} to be inquired.
+     * @return The header's value if present, or {@code null} otherwise.
+     * @apiNote This method does not allocate, so it is preferred over {@link #headerValue(String)}
+     * in hot paths (e.g when dispatching {@link Message}s).
+     */
+    default String headerValueOrNull(final DefinedHeader header) {
+        return getHeaders().get(header.serialize());
+    }
+
+    /**
+     * A convenient method for inquiring the type of message.
+     *
+     * @return The type of message if any, or {@code null} otherwise.
+     * @apiNote This method does not allocate, so it is preferred over {@link #type()} in hot paths.
+     */
+    default String typeOrNull() {
+        return headerValueOrNull(DefinedHeader.MESSAGE_TYPE);
+    }
+
+    /**
+     * A convenient method for inquiring the content type of the message.
+     *
+     * @return The content type of the message if any, or {@code null} otherwise.
+     * @apiNote This method does not allocate, so it is preferred over {@link #contentType()} in hot paths.
+     */
+    default String contentTypeOrNull() {
+        return headerValueOrNull(DefinedHeader.CONTENT_TYPE);
+    }
+
+    /**
+     * A convenient method for inquiring the well-known type of message.
+     *
+     * @return The {@link MessageType} of the message if it is a well-known type, or {@code null} otherwise.
+     * @apiNote This method allows checking the type of message by reference (or with a {@code switch}).
+     */
+    default MessageType wellKnownTypeOrNull() {
+        return MessageType.fromSerialized(typeOrNull());
+    }
+
+    /**
+     * A convenient method for inquiring the well-known content type of the message.
+     *
+     * @return The {@link ContentType} of the message if it is a well-known content type, or {@code null} otherwise.
+     * @apiNote This method allows checking the content type of the message by reference
+     * (or with a {@code switch}).
+     */
+    default ContentType wellKnownContentTypeOrNull() {
+        return ContentType.fromSerialized(contentTypeOrNull());
+    }
+
+    /**
+     * A convenient method for inquiring the command in the message (if it is a Command message).
+     *
+     * @return The command of message if any, or {@code null} otherwise.
+     * @apiNote For non command messages, {@code null} will be returned.
+     * This method does not allocate, so it is preferred over {@link #command()} in hot paths.
+     */
+    default String commandOrNull() {
+        // First check whether it is a Command message.
+        if (wellKnownTypeOrNull() == MessageType.COMMAND) {
+            // If yes, get the command (it might not be present, though it shouldn't).
+            return headerValueOrNull(DefinedHeader.COMMAND);
+        }
+        // If not, return null.
+        return null;
+    }
+
+    /**
+     * A convenient method for inquiring the id of the message being replied (if it is a Reply message).
+     *
+     * @return The id of the message being replied if any, or {@code null} otherwise.
+     */
+    default String repliesToOrNull() {
+        return headerValueOrNull(DefinedHeader.REPLIES_TO);
+    }
+
     /**
      * A convenient method for inquiring the type of message.
      *
      * @return An {@link Optional} containing the type of message if any, or empty otherwise.
      */
     default Optional<String> type() {
-        return headerValue(DefinedHeader.MESSAGE_TYPE.serialize());
+        return Optional.ofNullable(typeOrNull());
     }
 
     /**
@@ -68,7 +220,7 @@ public interface Message {
      * @return An {@link Optional} containing the content type of the message if any, or empty otherwise.
      */
     default Optional<String> contentType() {
-        return headerValue(DefinedHeader.CONTENT_TYPE.serialize());
+        return Optional.ofNullable(contentTypeOrNull());
     }
 
     /**
@@ -78,13 +230,7 @@ public interface Message {
      * @apiNote For non command messages, an empty {@link Optional} will be returned.
      */
     default Optional<String> command() {
-        // First check whether it is a Command message.
-        if (type().filter(type -> MessageType.COMMAND.serialize().equals(type)).isPresent()) {
-            // If yes, get the command (wrapped in an Optional as it might not be present, though it shouldn't).
-            return headerValue(DefinedHeader.COMMAND.serialize());
-        }
-        // If not, return an empty Optional.
-        return Optional.empty();
+        return Optional.ofNullable(commandOrNull());
     }
 
     /**
@@ -95,10 +241,19 @@ public interface Message {
      * even if they don't exist in the message.
      */
     default List<String> copyHeaders() {
-        return headerValue(DefinedHeader.COPY_HEADERS.serialize())
-                .map(headers -> StringUtils.split(headers, ", "))
-                .map(Arrays::asList)
-                .orElse(Collections.emptyList());
+        return copyHeadersProjection().headerNames();
+    }
+
+    /**
+     * A convenient method for getting the parsed {@link DefinedHeader#COPY_HEADERS} header,
+     * which can copy the requested headers straight into the headers of a reply to this message.
+     *
+     * @return The {@link CopyHeadersProjection} of this message (which is empty if there are no headers to copy).
+     * @implSpec The default implementation gets the projection from {@link CopyHeadersProjection#of(String)},
+     * so the header value is parsed once for all the messages that have it.
+     */
+    default CopyHeadersProjection copyHeadersProjection() {
+        return CopyHeadersProjection.of(headerValueOrNull(DefinedHeader.COPY_HEADERS));
     }
 
     /**
@@ -111,9 +266,9 @@ public interface Message {
      * Those that were requested but do not exist in the message won't be included.
      */
     default Map<String, String> copyHeadersKeysAndValues() {
-        final List<String> copyHeaders = copyHeaders();
-        return getHeaders().entrySet().stream()
-                .filter(e -> copyHeaders.contains(e.getKey()))
-                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+        final CopyHeadersProjection projection = copyHeadersProjection();
+        final Map<String, String> copiedHeaders = new HashMap<>();
+        projection.copy(getHeaders(), copiedHeaders);
+        return copiedHeaders;
     }
 }
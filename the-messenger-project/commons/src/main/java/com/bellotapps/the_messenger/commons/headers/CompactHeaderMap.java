@@ -0,0 +1,171 @@
+package com.bellotapps.the_messenger.commons.headers;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * An immutable {@link Map} of headers that stores its entries in a flat array of keys and values.
+ * Lookups are performed by scanning the array, which for the few headers a message carries is as fast as hashing,
+ * while it only takes two objects (the map and the array) instead of a table, an entry per header and a wrapper.
+ * Well-known header names are interned (see {@link DefinedHeader#canonicalize(String)}), so looking them up
+ * with the {@link DefinedHeader#serialize()} values is resolved by reference.
+ *
+ * @implNote Mutator methods throw {@link UnsupportedOperationException}.
+ */
+public final class CompactHeaderMap extends AbstractMap<String, String> {
+
+    /**
+     * The empty {@link CompactHeaderMap}.
+     */
+    private static final CompactHeaderMap EMPTY = new CompactHeaderMap(new String[0]);
+
+    /**
+     * The keys and values of this map, flattened (i.e the key of the {@code i}-th entry is in position {@code 2i},
+     * and its value is in position {@code 2i + 1}).
+     */
+    private final String[] keysAndValues;
+
+
+    /**
+     * Private constructor.
+     * Use {@link #copyOf(Map)} to get an instance of a {@link CompactHeaderMap}.
+     *
+     * @param keysAndValues The keys and values of the map, flattened.
+     */
+    private CompactHeaderMap(final String[] keysAndValues) {
+        this.keysAndValues = keysAndValues;
+    }
+
+
+    @Override
+    public int size() {
+        return keysAndValues.length >> 1;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return keysAndValues.length == 0;
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+        return indexOf(key) >= 0;
+    }
+
+    @Override
+    public String get(final Object key) {
+        final int index = indexOf(key);
+        return index < 0 ? null : keysAndValues[index + 1];
+    }
+
+    @Override
+    public String getOrDefault(final Object key, final String defaultValue) {
+        final int index = indexOf(key);
+        return index < 0 ? defaultValue : keysAndValues[index + 1];
+    }
+
+    @Override
+    public void forEach(final BiConsumer<? super String, ? super String> action) {
+        for (int i = 0; i < keysAndValues.length; i += 2) {
+            action.accept(keysAndValues[i], keysAndValues[i + 1]);
+        }
+    }
+
+    @Override
+    public Set<Entry<String, String>> entrySet() {
+        return new EntrySet();
+    }
+
+
+    /**
+     * Finds the position of the given {@code key} in the {@link #keysAndValues} array.
+     *
+     * @param key The key to be searched.
+     * @return The position of the key, or {@code -1} if it is not contained in this map.
+     */
+    private int indexOf(final Object key) {
+        if (key == null) {
+            return -1;
+        }
+        // First try by reference, which is the usual case for well-known headers.
+        for (int i = 0; i < keysAndValues.length; i += 2) {
+            if (keysAndValues[i] == key) {
+                return i;
+            }
+        }
+        for (int i = 0; i < keysAndValues.length; i += 2) {
+            if (key.equals(keysAndValues[i])) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+
+    /**
+     * Creates a {@link CompactHeaderMap} with the same entries as the given {@code headers}.
+     *
+     * @param headers The headers to be copied.
+     * @return A {@link CompactHeaderMap} with the given {@code headers}
+     * (the same instance if {@code headers} is already a {@link CompactHeaderMap}).
+     */
+    public static CompactHeaderMap copyOf(final Map<String, String> headers) {
+        if (headers instanceof CompactHeaderMap) {
+            return (CompactHeaderMap) headers;
+        }
+        if (headers.isEmpty()) {
+            return EMPTY;
+        }
+        final String[] keysAndValues = new String[headers.size() << 1];
+        int i = 0;
+        for (final Map.Entry<String, String> header : headers.entrySet()) {
+            keysAndValues[i++] = DefinedHeader.canonicalize(header.getKey());
+            keysAndValues[i++] = header.getValue();
+        }
+        return new CompactHeaderMap(keysAndValues);
+    }
+
+
+    /**
+     * The {@link Set} view of the entries of a {@link CompactHeaderMap}.
+     */
+    private final class EntrySet extends AbstractSet<Entry<String, String>> {
+
+        @Override
+        public int size() {
+            return CompactHeaderMap.this.size();
+        }
+
+        @Override
+        public Iterator<Entry<String, String>> iterator() {
+            return new Iterator<Entry<String, String>>() {
+
+                /**
+                 * The position of the key of the next entry.
+                 */
+                private int next = 0;
+
+                @Override
+                public boolean hasNext() {
+                    return next < keysAndValues.length;
+                }
+
+                @Override
+                public Entry<String, String> next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    final Entry<String, String> entry =
+                            new SimpleImmutableEntry<>(keysAndValues[next], keysAndValues[next + 1]);
+                    next += 2;
+                    return entry;
+                }
+            };
+        }
+    }
+}
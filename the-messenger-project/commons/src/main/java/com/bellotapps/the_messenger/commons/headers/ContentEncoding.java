@@ -0,0 +1,56 @@
+package com.bellotapps.the_messenger.commons.headers;
+
+/**
+ * Enum containing well-known content encodings (i.e the compressions that can be applied to a payload).
+ *
+ * @see DefinedHeader#CONTENT_ENCODING
+ */
+public enum ContentEncoding implements ToStringSerializable {
+    /**
+     * GZIP content encoding.
+     */
+    GZIP {
+        @Override
+        public String serialize() {
+            return "gzip";
+        }
+    },
+    /**
+     * Deflate (i.e zlib) content encoding.
+     */
+    DEFLATE {
+        @Override
+        public String serialize() {
+            return "deflate";
+        }
+    },
+    ;
+
+    /**
+     * The {@link SerializedValueRegistry} of the {@link ContentEncoding} constants.
+     */
+    private static final SerializedValueRegistry<ContentEncoding> REGISTRY = SerializedValueRegistry.of(values());
+
+
+    /**
+     * Returns the {@link ContentEncoding} whose serialized value is the given {@code serializedValue}.
+     *
+     * @param serializedValue The serialized value of the content encoding.
+     * @return The corresponding {@link ContentEncoding}, or {@code null} if it is not a well-known content encoding.
+     */
+    public static ContentEncoding fromSerialized(final String serializedValue) {
+        return REGISTRY.lookup(serializedValue);
+    }
+
+    /**
+     * Returns the interned instance of the given content encoding {@code value}.
+     *
+     * @param value The content encoding value to be canonicalized.
+     * @return The {@link ToStringSerializable#serialize()} value of the corresponding {@link ContentEncoding}
+     * if the given {@code value} is a well-known content encoding, or the same {@code value} otherwise.
+     * @see SerializedValueRegistry#canonicalize(String)
+     */
+    public static String canonicalize(final String value) {
+        return REGISTRY.canonicalize(value);
+    }
+}
@@ -25,4 +25,32 @@ public enum ContentType implements ToStringSerializable {
         }
     },
     ;
+
+    /**
+     * The {@link SerializedValueRegistry} of the {@link ContentType} constants.
+     */
+    private static final SerializedValueRegistry<ContentType> REGISTRY = SerializedValueRegistry.of(values());
+
+
+    /**
+     * Returns the {@link ContentType} whose serialized value is the given {@code serializedValue}.
+     *
+     * @param serializedValue The serialized value of the content type.
+     * @return The corresponding {@link ContentType}, or {@code null} if it is not a well-known content type.
+     */
+    public static ContentType fromSerialized(final String serializedValue) {
+        return REGISTRY.lookup(serializedValue);
+    }
+
+    /**
+     * Returns the interned instance of the given content type {@code value}.
+     *
+     * @param value The content type value to be canonicalized.
+     * @return The {@link ToStringSerializable#serialize()} value of the corresponding {@link ContentType}
+     * if the given {@code value} is a well-known content type, or the same {@code value} otherwise.
+     * @see SerializedValueRegistry#canonicalize(String)
+     */
+    public static String canonicalize(final String value) {
+        return REGISTRY.canonicalize(value);
+    }
 }
@@ -0,0 +1,133 @@
+package com.bellotapps.the_messenger.commons.headers;
+
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The parsed value of a {@link DefinedHeader#COPY_HEADERS} header (i.e the names of the headers to be copied
+ * into a reply), which copies those headers from a message into the headers of its reply.
+ * <p>
+ * Projections are cached per distinct header value (up to a bounded amount of values),
+ * as the same few values are received over and over again, so each value is usually parsed only once.
+ */
+public final class CopyHeadersProjection {
+
+    /**
+     * The max. amount of cached projections.
+     */
+    private static final int MAX_CACHED_PROJECTIONS = 1024;
+
+    /**
+     * The projections already parsed, indexed by the header value from which they were parsed.
+     */
+    private static final Map<String, CopyHeadersProjection> CACHE = new ConcurrentHashMap<>();
+
+    /**
+     * The projection that copies no headers.
+     */
+    private static final CopyHeadersProjection EMPTY = new CopyHeadersProjection(new String[0]);
+
+    /**
+     * The names of the headers to be copied (canonicalized, so well-known headers are compared by reference).
+     */
+    private final String[] headerNames;
+
+    /**
+     * An unmodifiable {@link List} view of the {@link #headerNames}.
+     */
+    private final List<String> headerNamesList;
+
+
+    /**
+     * Private constructor.
+     * Use {@link #of(String)} to get an instance of a {@link CopyHeadersProjection}.
+     *
+     * @param headerNames The names of the headers to be copied.
+     */
+    private CopyHeadersProjection(final String[] headerNames) {
+        this.headerNames = headerNames;
+        this.headerNamesList = Collections.unmodifiableList(Arrays.asList(headerNames));
+    }
+
+
+    /**
+     * Returns the names of the headers to be copied.
+     *
+     * @return An unmodifiable {@link List} with the names of the headers to be copied
+     * (even if they do not exist in the message being replied).
+     */
+    public List<String> headerNames() {
+        return headerNamesList;
+    }
+
+    /**
+     * Indicates whether this projection copies no headers.
+     *
+     * @return {@code true} if there are no headers to be copied, or {@code false} otherwise.
+     */
+    public boolean isEmpty() {
+        return headerNames.length == 0;
+    }
+
+    /**
+     * Copies the headers of this projection that exist in the given {@code source} into the given {@code target}.
+     *
+     * @param source The headers of the message being replied.
+     * @param target The headers of the reply (e.g those of the builder of the reply).
+     * @apiNote Headers already in the {@code target} are replaced.
+     */
+    public void copy(final Map<String, String> source, final Map<String, String> target) {
+        for (final String headerName : headerNames) {
+            final String value = source.get(headerName);
+            if (value != null) {
+                target.put(headerName, value);
+            }
+        }
+    }
+
+
+    /**
+     * Returns the {@link CopyHeadersProjection} of the given {@link DefinedHeader#COPY_HEADERS} header value.
+     *
+     * @param copyHeaders The value of the {@link DefinedHeader#COPY_HEADERS} header
+     *                    (a list of header names separated by commas and/or spaces), or {@code null}.
+     * @return The corresponding {@link CopyHeadersProjection}.
+     */
+    public static CopyHeadersProjection of(final String copyHeaders) {
+        if (copyHeaders == null) {
+            return EMPTY;
+        }
+        final CopyHeadersProjection cached = CACHE.get(copyHeaders);
+        if (cached != null) {
+            return cached;
+        }
+        final CopyHeadersProjection projection = parse(copyHeaders);
+        // Once full, the cache stops growing, so unexpected values can not exhaust the memory.
+        if (CACHE.size() < MAX_CACHED_PROJECTIONS) {
+            CACHE.putIfAbsent(copyHeaders, projection);
+        }
+        return projection;
+    }
+
+    /**
+     * Parses the given {@link DefinedHeader#COPY_HEADERS} header value.
+     *
+     * @param copyHeaders The value to be parsed.
+     * @return The parsed {@link CopyHeadersProjection}.
+     */
+    private static CopyHeadersProjection parse(final String copyHeaders) {
+        final String[] headerNames = StringUtils.split(copyHeaders, ", ");
+        if (headerNames.length == 0) {
+            return EMPTY;
+        }
+        for (int i = 0; i < headerNames.length; i++) {
+            headerNames[i] = DefinedHeader.canonicalize(headerNames[i]);
+        }
+        return new CopyHeadersProjection(headerNames);
+    }
+}
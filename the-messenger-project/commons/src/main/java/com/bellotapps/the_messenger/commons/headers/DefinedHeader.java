@@ -59,5 +59,45 @@ public enum DefinedHeader implements ToStringSerializable {
             return "Copy-Headers";
         }
     },
+    /**
+     * Indicates the encoding (i.e the compression) applied to the payload,
+     * which must be reverted before deserializing it according to its {@link #CONTENT_TYPE}.
+     *
+     * @see ContentEncoding
+     */
+    CONTENT_ENCODING {
+        @Override
+        public String serialize() {
+            return "Content-Encoding";
+        }
+    },
     ;
+
+    /**
+     * The {@link SerializedValueRegistry} of the {@link DefinedHeader} constants.
+     */
+    private static final SerializedValueRegistry<DefinedHeader> REGISTRY = SerializedValueRegistry.of(values());
+
+
+    /**
+     * Returns the {@link DefinedHeader} whose serialized value is the given {@code serializedValue}.
+     *
+     * @param serializedValue The serialized value of the header.
+     * @return The corresponding {@link DefinedHeader}, or {@code null} if it is not a well-known header.
+     */
+    public static DefinedHeader fromSerialized(final String serializedValue) {
+        return REGISTRY.lookup(serializedValue);
+    }
+
+    /**
+     * Returns the interned instance of the given header name {@code value}.
+     *
+     * @param value The header name to be canonicalized.
+     * @return The {@link ToStringSerializable#serialize()} value of the corresponding {@link DefinedHeader}
+     * if the given {@code value} is a well-known header, or the same {@code value} otherwise.
+     * @see SerializedValueRegistry#canonicalize(String)
+     */
+    public static String canonicalize(final String value) {
+        return REGISTRY.canonicalize(value);
+    }
 }
@@ -40,4 +40,32 @@ public enum MessageType implements ToStringSerializable {
         }
     },
     ;
+
+    /**
+     * The {@link SerializedValueRegistry} of the {@link MessageType} constants.
+     */
+    private static final SerializedValueRegistry<MessageType> REGISTRY = SerializedValueRegistry.of(values());
+
+
+    /**
+     * Returns the {@link MessageType} whose serialized value is the given {@code serializedValue}.
+     *
+     * @param serializedValue The serialized value of the message type.
+     * @return The corresponding {@link MessageType}, or {@code null} if it is not a well-known message type.
+     */
+    public static MessageType fromSerialized(final String serializedValue) {
+        return REGISTRY.lookup(serializedValue);
+    }
+
+    /**
+     * Returns the interned instance of the given message type {@code value}.
+     *
+     * @param value The message type value to be canonicalized.
+     * @return The {@link ToStringSerializable#serialize()} value of the corresponding {@link MessageType}
+     * if the given {@code value} is a well-known message type, or the same {@code value} otherwise.
+     * @see SerializedValueRegistry#canonicalize(String)
+     */
+    public static String canonicalize(final String value) {
+        return REGISTRY.canonicalize(value);
+    }
 }
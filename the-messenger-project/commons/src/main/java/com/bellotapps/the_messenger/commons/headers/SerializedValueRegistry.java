@@ -0,0 +1,74 @@
+package com.bellotapps.the_messenger.commons.headers;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A registry of the constants of an enum of {@link ToStringSerializable}s, indexed by their serialized value.
+ * It allows mapping a value received in a header into the corresponding constant (or its interned serialized value)
+ * once, so further checks can be performed by reference (or with a {@code switch}) instead of comparing strings.
+ *
+ * @param <E> The concrete type of enum.
+ */
+public final class SerializedValueRegistry<E extends Enum<E> & ToStringSerializable> {
+
+    /**
+     * A {@link Map} containing each constant, indexed by its serialized value.
+     */
+    private final Map<String, E> constants;
+
+
+    /**
+     * Private constructor.
+     * Use {@link #of(Enum[])} to get an instance of a {@link SerializedValueRegistry}.
+     *
+     * @param values The constants to be registered.
+     */
+    private SerializedValueRegistry(final E[] values) {
+        this.constants = new HashMap<>(values.length * 2);
+        for (final E value : values) {
+            this.constants.put(value.serialize(), value);
+        }
+    }
+
+
+    /**
+     * Returns the constant whose serialized value is the given {@code serializedValue}.
+     *
+     * @param serializedValue The serialized value.
+     * @return The corresponding constant, or {@code null} if there is no such constant
+     * (or if the given {@code serializedValue} is {@code null}).
+     */
+    public E lookup(final String serializedValue) {
+        if (serializedValue == null) {
+            return null;
+        }
+        return constants.get(serializedValue);
+    }
+
+    /**
+     * Returns the interned instance of the given {@code value}
+     * (i.e the {@link String} returned by the {@link ToStringSerializable#serialize()} method of the constant
+     * whose serialized value is equal to the given {@code value}).
+     *
+     * @param value The value to be canonicalized.
+     * @return The interned instance of the given {@code value} if it is the serialized value of any constant,
+     * or the same {@code value} otherwise.
+     */
+    public String canonicalize(final String value) {
+        final E constant = lookup(value);
+        return constant == null ? value : constant.serialize();
+    }
+
+
+    /**
+     * Creates a {@link SerializedValueRegistry} for the given {@code values}.
+     *
+     * @param values The constants to be registered.
+     * @param <E>    The concrete type of enum.
+     * @return The created {@link SerializedValueRegistry}.
+     */
+    public static <E extends Enum<E> & ToStringSerializable> SerializedValueRegistry<E> of(final E[] values) {
+        return new SerializedValueRegistry<>(values);
+    }
+}
@@ -0,0 +1,24 @@
+package com.bellotapps.the_messenger.commons.payload;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Defines behaviour for an object that can deserialize bytes into payload objects of type {@code T},
+ * without an intermediate {@link String} (i.e for payloads received as bytes).
+ *
+ * @param <T> Concrete type of object to be created from the bytes to be deserialized.
+ * @see PayloadDeserializer
+ */
+public interface BytesPayloadDeserializer<T> extends ContentTypeHandler {
+
+    /**
+     * Deserializes the remaining bytes of the given {@code bytes} buffer.
+     *
+     * @param bytes A {@link ByteBuffer} whose remaining bytes are the ones to be deserialized
+     *              (for text content types, the UTF-8 encoding of the payload).
+     *              Implementations may change its position.
+     * @return An object of type {@code T} created from the given {@code bytes}.
+     * @throws PayloadDeserializationException If any error occurs while deserializing the given {@code bytes}.
+     */
+    T deserializeBytes(final ByteBuffer bytes) throws PayloadDeserializationException;
+}
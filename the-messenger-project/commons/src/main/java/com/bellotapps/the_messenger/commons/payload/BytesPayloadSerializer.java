@@ -0,0 +1,21 @@
+package com.bellotapps.the_messenger.commons.payload;
+
+/**
+ * Defines behaviour for an object that can serialize payload objects of type {@code T} into bytes,
+ * without an intermediate {@link String} (i.e for transports that send bytes).
+ *
+ * @param <T> Concrete type of object to be serialized.
+ * @see PayloadSerializer
+ */
+public interface BytesPayloadSerializer<T> extends ContentTypeHandler {
+
+    /**
+     * Serializes the given {@code object} into bytes.
+     *
+     * @param object The object to be serialized.
+     * @return A byte representation of the given {@code object}
+     * (for text content types, the UTF-8 encoding of the {@link String} representation).
+     * @throws PayloadSerializationException If any error occurs while serializing the given {@code object}.
+     */
+    byte[] serializeToBytes(final T object) throws PayloadSerializationException;
+}
@@ -1,5 +1,9 @@
 package com.bellotapps.the_messenger.commons.payload;
 
+import com.bellotapps.the_messenger.commons.headers.DefinedHeader;
+
+import java.util.Map;
+
 /**
  * Defines behaviour for an object that can serialize payload objects of type {@code T} into {@link String}s.
  *
@@ -15,4 +19,21 @@ public interface PayloadSerializer<T> extends ContentTypeHandler {
      * @throws PayloadSerializationException If any error occurs while serializing the given {@code object}.
      */
     String serialize(final T object) throws PayloadSerializationException;
+
+    /**
+     * Serializes the given {@code object}, reporting the headers that describe the serialized payload
+     * (e.g the {@link DefinedHeader#CONTENT_ENCODING} if it is compressed), which must be added to the headers
+     * of the message.
+     *
+     * @param object         The object to be serialized.
+     * @param payloadHeaders An empty {@link Map} into which the headers describing the serialized payload are put
+     *                       (they replace those of the message with the same name).
+     * @return A {@link String} representation of the given {@code object}.
+     * @throws PayloadSerializationException If any error occurs while serializing the given {@code object}.
+     * @implSpec The default implementation calls {@link #serialize(Object)}, and does not report headers.
+     */
+    default String serialize(final T object, final Map<String, String> payloadHeaders)
+            throws PayloadSerializationException {
+        return serialize(object);
+    }
 }
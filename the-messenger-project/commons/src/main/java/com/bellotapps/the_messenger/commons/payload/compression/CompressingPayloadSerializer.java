@@ -0,0 +1,139 @@
+package com.bellotapps.the_messenger.commons.payload.compression;
+
+import com.bellotapps.the_messenger.commons.headers.DefinedHeader;
+import com.bellotapps.the_messenger.commons.payload.BytesPayloadSerializer;
+import com.bellotapps.the_messenger.commons.payload.PayloadSerializationException;
+import com.bellotapps.the_messenger.commons.payload.PayloadSerializer;
+import org.apache.commons.lang3.Validate;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Map;
+
+/**
+ * A {@link PayloadSerializer} that decorates another one, compressing the payloads it serializes
+ * with a {@link PayloadCompressor} (and setting the {@link DefinedHeader#CONTENT_ENCODING} header accordingly).
+ * Compressed payloads are encoded in Base64, as payloads are text.
+ * <p>
+ * Payloads smaller than a threshold are not compressed (as it would not pay off),
+ * and neither are those whose compressed form would not be smaller.
+ *
+ * @param <T> Concrete type of object to be serialized.
+ * @apiNote Compression is performed by {@link #serialize(Object, Map)} (the method used by message builders),
+ * as the {@link DefinedHeader#CONTENT_ENCODING} header must be set in the compressed messages.
+ * {@link #serialize(Object)} does not compress.
+ * @see DecompressingPayloadDeserializer
+ */
+public class CompressingPayloadSerializer<T> implements PayloadSerializer<T> {
+
+    /**
+     * The default min. size (in bytes) of the payloads to be compressed.
+     */
+    public static final int DEFAULT_THRESHOLD = 1024;
+
+    /**
+     * The decorated {@link PayloadSerializer}.
+     */
+    private final PayloadSerializer<T> delegate;
+
+    /**
+     * The {@link PayloadCompressor} used to compress the payloads.
+     */
+    private final PayloadCompressor compressor;
+
+    /**
+     * The min. size (in bytes) of the payloads to be compressed.
+     */
+    private final int threshold;
+
+
+    /**
+     * Constructor that uses the {@link #DEFAULT_THRESHOLD}.
+     *
+     * @param delegate   The {@link PayloadSerializer} to be decorated.
+     * @param compressor The {@link PayloadCompressor} used to compress the payloads.
+     * @throws IllegalArgumentException If any argument is null.
+     */
+    public CompressingPayloadSerializer(final PayloadSerializer<T> delegate, final PayloadCompressor compressor)
+            throws IllegalArgumentException {
+        this(delegate, compressor, DEFAULT_THRESHOLD);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param delegate   The {@link PayloadSerializer} to be decorated.
+     * @param compressor The {@link PayloadCompressor} used to compress the payloads.
+     * @param threshold  The min. size (in bytes) of the payloads to be compressed.
+     *                   If the decorated serializer is not a {@link BytesPayloadSerializer},
+     *                   the length of the serialized {@link String} is compared instead.
+     * @throws IllegalArgumentException If any argument is null, or if the threshold is negative.
+     */
+    public CompressingPayloadSerializer(
+            final PayloadSerializer<T> delegate,
+            final PayloadCompressor compressor,
+            final int threshold)
+            throws IllegalArgumentException {
+        Validate.isTrue(delegate != null, "The delegate must not be null");
+        Validate.isTrue(compressor != null, "The compressor must not be null");
+        Validate.isTrue(threshold >= 0, "The threshold must not be negative");
+        this.delegate = delegate;
+        this.compressor = compressor;
+        this.threshold = threshold;
+    }
+
+
+    @Override
+    public String contentType() {
+        return delegate.contentType();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @implNote The payload is not compressed, as the {@link DefinedHeader#CONTENT_ENCODING} header can not be set.
+     */
+    @Override
+    public String serialize(final T object) throws PayloadSerializationException {
+        return delegate.serialize(object);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @implNote The {@link DefinedHeader#CONTENT_ENCODING} header is reported only if the payload is compressed.
+     */
+    @Override
+    public String serialize(final T object, final Map<String, String> payloadHeaders)
+            throws PayloadSerializationException {
+        final byte[] bytes;
+        if (delegate instanceof BytesPayloadSerializer) {
+            @SuppressWarnings("unchecked") final BytesPayloadSerializer<T> bytesSerializer =
+                    (BytesPayloadSerializer<T>) delegate;
+            bytes = bytesSerializer.serializeToBytes(object);
+            if (bytes == null || bytes.length < threshold) {
+                return bytes == null ? null : new String(bytes, StandardCharsets.UTF_8);
+            }
+        } else {
+            final String serialized = delegate.serialize(object);
+            if (serialized == null || serialized.length() < threshold) {
+                return serialized;
+            }
+            bytes = serialized.getBytes(StandardCharsets.UTF_8);
+        }
+        final byte[] compressed;
+        try {
+            compressed = compressor.compress(bytes);
+        } catch (final IOException e) {
+            throw new PayloadSerializationException(
+                    object == null ? Object.class : object.getClass(), "Could not compress the payload", e);
+        }
+        // Base64 takes 4 characters for each 3 bytes.
+        if ((compressed.length + 2) / 3 * 4 >= bytes.length) {
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+        payloadHeaders.put(DefinedHeader.CONTENT_ENCODING.serialize(), compressor.contentEncoding());
+        return Base64.getEncoder().encodeToString(compressed);
+    }
+}
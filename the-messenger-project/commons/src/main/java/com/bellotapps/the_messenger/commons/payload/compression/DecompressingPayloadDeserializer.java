@@ -0,0 +1,157 @@
+package com.bellotapps.the_messenger.commons.payload.compression;
+
+import com.bellotapps.the_messenger.commons.headers.DefinedHeader;
+import com.bellotapps.the_messenger.commons.payload.BytesPayloadDeserializer;
+import com.bellotapps.the_messenger.commons.payload.PayloadDeserializationException;
+import com.bellotapps.the_messenger.commons.payload.PayloadDeserializer;
+import org.apache.commons.lang3.Validate;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Objects;
+
+/**
+ * A {@link PayloadDeserializer} that decorates another one, decompressing the payloads before deserializing them
+ * (i.e it reverts the {@link CompressingPayloadSerializer} with the same {@link PayloadCompressor}).
+ * Decompressed bytes are handed straight to the decorated deserializer if it is a {@link BytesPayloadDeserializer}.
+ *
+ * @param <T> Concrete type of object to be created from the payloads.
+ * @apiNote It must only be used with payloads whose {@link DefinedHeader#CONTENT_ENCODING} header
+ * is the {@link PayloadCompressor#contentEncoding()} of its compressor.
+ * Instances decorating the same deserializer with the same compressor and max. size are equal,
+ * so {@link com.bellotapps.the_messenger.commons.Message#payloadAs(PayloadDeserializer)} decompresses
+ * a payload only once even if each handler creates its own instance.
+ */
+public class DecompressingPayloadDeserializer<T> implements PayloadDeserializer<T>, BytesPayloadDeserializer<T> {
+
+    /**
+     * The default max. size (in bytes) of a decompressed payload.
+     */
+    public static final int DEFAULT_MAX_DECOMPRESSED_SIZE = 16 * 1024 * 1024;
+
+    /**
+     * The decorated {@link PayloadDeserializer}.
+     */
+    private final PayloadDeserializer<T> delegate;
+
+    /**
+     * The {@link PayloadCompressor} used to decompress the payloads.
+     */
+    private final PayloadCompressor compressor;
+
+    /**
+     * The max. size (in bytes) of a decompressed payload.
+     */
+    private final int maxDecompressedSize;
+
+
+    /**
+     * Constructor that uses the {@link #DEFAULT_MAX_DECOMPRESSED_SIZE}.
+     *
+     * @param delegate   The {@link PayloadDeserializer} to be decorated.
+     * @param compressor The {@link PayloadCompressor} used to decompress the payloads.
+     * @throws IllegalArgumentException If any argument is null.
+     */
+    public DecompressingPayloadDeserializer(final PayloadDeserializer<T> delegate, final PayloadCompressor compressor)
+            throws IllegalArgumentException {
+        this(delegate, compressor, DEFAULT_MAX_DECOMPRESSED_SIZE);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param delegate            The {@link PayloadDeserializer} to be decorated.
+     * @param compressor          The {@link PayloadCompressor} used to decompress the payloads.
+     * @param maxDecompressedSize The max. size (in bytes) of a decompressed payload
+     *                            (payloads exceeding it fail to be deserialized).
+     * @throws IllegalArgumentException If any argument is null, or if the max. size is not positive.
+     */
+    public DecompressingPayloadDeserializer(
+            final PayloadDeserializer<T> delegate,
+            final PayloadCompressor compressor,
+            final int maxDecompressedSize)
+            throws IllegalArgumentException {
+        Validate.isTrue(delegate != null, "The delegate must not be null");
+        Validate.isTrue(compressor != null, "The compressor must not be null");
+        Validate.isTrue(maxDecompressedSize > 0, "The max. decompressed size must be positive");
+        this.delegate = delegate;
+        this.compressor = compressor;
+        this.maxDecompressedSize = maxDecompressedSize;
+    }
+
+
+    @Override
+    public String contentType() {
+        return delegate.contentType();
+    }
+
+    /**
+     * Indicates the content encoding of the payloads this deserializer can decompress.
+     *
+     * @return The content encoding of the {@link PayloadCompressor}.
+     */
+    public String contentEncoding() {
+        return compressor.contentEncoding();
+    }
+
+    @Override
+    public T deserialize(final String string) throws PayloadDeserializationException {
+        if (string == null) {
+            return delegate.deserialize(null);
+        }
+        return decompressAndDeserialize(string.getBytes(StandardCharsets.ISO_8859_1), string);
+    }
+
+    @Override
+    public T deserializeBytes(final ByteBuffer bytes) throws PayloadDeserializationException {
+        final byte[] encoded = new byte[bytes.remaining()];
+        bytes.get(encoded);
+        return decompressAndDeserialize(encoded, null);
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final DecompressingPayloadDeserializer<?> that = (DecompressingPayloadDeserializer<?>) o;
+        return maxDecompressedSize == that.maxDecompressedSize
+                && delegate.equals(that.delegate)
+                && compressor.equals(that.compressor);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(delegate, compressor, maxDecompressedSize);
+    }
+
+
+    /**
+     * Decodes the given Base64 {@code encoded} bytes, decompresses them and deserializes the result.
+     *
+     * @param encoded The Base64 encoded compressed payload.
+     * @param string  The payload as a {@link String} (used to report errors), or {@code null} if not available.
+     * @return The deserialized payload.
+     * @throws PayloadDeserializationException If any error occurs while decompressing or deserializing.
+     */
+    private T decompressAndDeserialize(final byte[] encoded, final String string)
+            throws PayloadDeserializationException {
+        final byte[] decompressed;
+        try {
+            decompressed = compressor.decompress(Base64.getDecoder().decode(encoded), maxDecompressedSize);
+        } catch (final IOException | IllegalArgumentException e) {
+            throw new PayloadDeserializationException(string, null, "Could not decompress the payload", e);
+        }
+        if (delegate instanceof BytesPayloadDeserializer) {
+            @SuppressWarnings("unchecked") final BytesPayloadDeserializer<T> bytesDeserializer =
+                    (BytesPayloadDeserializer<T>) delegate;
+            return bytesDeserializer.deserializeBytes(ByteBuffer.wrap(decompressed));
+        }
+        return delegate.deserialize(new String(decompressed, StandardCharsets.UTF_8));
+    }
+}
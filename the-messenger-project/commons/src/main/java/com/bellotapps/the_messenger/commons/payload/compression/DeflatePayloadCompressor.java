@@ -0,0 +1,110 @@
+package com.bellotapps.the_messenger.commons.payload.compression;
+
+import com.bellotapps.the_messenger.commons.headers.ContentEncoding;
+import org.apache.commons.lang3.Validate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * A {@link PayloadCompressor} for the {@link ContentEncoding#DEFLATE} content encoding.
+ * <p>
+ * Each thread reuses its own {@link Deflater} and {@link Inflater}, which are costly to create
+ * (they hold native memory), instead of creating them for each payload.
+ * The compression level can be configured (e.g {@link Deflater#BEST_SPEED} trades size for speed).
+ */
+public final class DeflatePayloadCompressor implements PayloadCompressor {
+
+    /**
+     * Single instance of this class with the default compression level.
+     */
+    private static final DeflatePayloadCompressor SINGLETON =
+            new DeflatePayloadCompressor(Deflater.DEFAULT_COMPRESSION);
+
+    /**
+     * The size of the chunks in which bytes are (de)compressed.
+     */
+    private static final int BUFFER_SIZE = 8192;
+
+    /**
+     * The {@link Inflater} of each thread (shared by all the instances, as inflating does not depend on the level).
+     */
+    private static final ThreadLocal<Inflater> INFLATERS = ThreadLocal.withInitial(Inflater::new);
+
+    /**
+     * The {@link Deflater} of each thread, with the compression level of this compressor.
+     */
+    private final ThreadLocal<Deflater> deflaters;
+
+
+    /**
+     * Constructor.
+     *
+     * @param level The compression level (from 0 to 9, or {@link Deflater#DEFAULT_COMPRESSION}).
+     * @throws IllegalArgumentException If the level is not valid.
+     */
+    public DeflatePayloadCompressor(final int level) throws IllegalArgumentException {
+        Validate.isTrue(level == Deflater.DEFAULT_COMPRESSION
+                        || (level >= Deflater.NO_COMPRESSION && level <= Deflater.BEST_COMPRESSION),
+                "The compression level must be between 0 and 9, or the default one");
+        this.deflaters = ThreadLocal.withInitial(() -> new Deflater(level));
+    }
+
+
+    @Override
+    public String contentEncoding() {
+        return ContentEncoding.DEFLATE.serialize();
+    }
+
+    @Override
+    public byte[] compress(final byte[] bytes) {
+        final Deflater deflater = deflaters.get();
+        deflater.reset();
+        deflater.setInput(bytes);
+        deflater.finish();
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream(bytes.length / 4 + 32);
+        final byte[] buffer = new byte[BUFFER_SIZE];
+        while (!deflater.finished()) {
+            final int written = deflater.deflate(buffer);
+            outputStream.write(buffer, 0, written);
+        }
+        return outputStream.toByteArray();
+    }
+
+    @Override
+    public byte[] decompress(final byte[] bytes, final int maxDecompressedSize) throws IOException {
+        final Inflater inflater = INFLATERS.get();
+        inflater.reset();
+        inflater.setInput(bytes);
+        final ByteArrayOutputStream outputStream =
+                new ByteArrayOutputStream((int) Math.min(bytes.length * 4L, maxDecompressedSize));
+        final byte[] buffer = new byte[BUFFER_SIZE];
+        try {
+            while (!inflater.finished()) {
+                final int read = inflater.inflate(buffer);
+                if (read == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new ZipException("Truncated deflate data");
+                }
+                if (read > maxDecompressedSize - outputStream.size()) {
+                    throw new ZipException("The decompressed payload exceeds " + maxDecompressedSize + " bytes");
+                }
+                outputStream.write(buffer, 0, read);
+            }
+        } catch (final DataFormatException e) {
+            throw new ZipException("Invalid deflate data: " + e.getMessage());
+        }
+        return outputStream.toByteArray();
+    }
+
+
+    /**
+     * @return The single instance of the {@link DeflatePayloadCompressor} with the default compression level.
+     */
+    public static DeflatePayloadCompressor getInstance() {
+        return SINGLETON;
+    }
+}
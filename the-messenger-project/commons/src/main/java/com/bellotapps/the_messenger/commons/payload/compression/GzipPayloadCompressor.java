@@ -0,0 +1,75 @@
+package com.bellotapps.the_messenger.commons.payload.compression;
+
+import com.bellotapps.the_messenger.commons.headers.ContentEncoding;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipException;
+
+/**
+ * A {@link PayloadCompressor} for the {@link ContentEncoding#GZIP} content encoding.
+ */
+public final class GzipPayloadCompressor implements PayloadCompressor {
+
+    /**
+     * Single instance of this class.
+     */
+    private static final GzipPayloadCompressor SINGLETON = new GzipPayloadCompressor();
+
+    /**
+     * The size of the buffer used to copy decompressed bytes.
+     */
+    private static final int BUFFER_SIZE = 8192;
+
+
+    /**
+     * Private constructor.
+     * Use {@link #getInstance()} to get an instance of the {@link GzipPayloadCompressor}.
+     */
+    private GzipPayloadCompressor() {
+    }
+
+
+    @Override
+    public String contentEncoding() {
+        return ContentEncoding.GZIP.serialize();
+    }
+
+    @Override
+    public byte[] compress(final byte[] bytes) throws IOException {
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream(bytes.length / 4 + 32);
+        try (final GZIPOutputStream gzipOutputStream = new GZIPOutputStream(outputStream, BUFFER_SIZE)) {
+            gzipOutputStream.write(bytes);
+        }
+        return outputStream.toByteArray();
+    }
+
+    @Override
+    public byte[] decompress(final byte[] bytes, final int maxDecompressedSize) throws IOException {
+        final ByteArrayOutputStream outputStream =
+                new ByteArrayOutputStream((int) Math.min(bytes.length * 4L, maxDecompressedSize));
+        try (final GZIPInputStream gzipInputStream =
+                     new GZIPInputStream(new ByteArrayInputStream(bytes), BUFFER_SIZE)) {
+            final byte[] buffer = new byte[BUFFER_SIZE];
+            int read;
+            while ((read = gzipInputStream.read(buffer)) != -1) {
+                if (read > maxDecompressedSize - outputStream.size()) {
+                    throw new ZipException("The decompressed payload exceeds " + maxDecompressedSize + " bytes");
+                }
+                outputStream.write(buffer, 0, read);
+            }
+        }
+        return outputStream.toByteArray();
+    }
+
+
+    /**
+     * @return The single instance of the {@link GzipPayloadCompressor}.
+     */
+    public static GzipPayloadCompressor getInstance() {
+        return SINGLETON;
+    }
+}
@@ -0,0 +1,47 @@
+package com.bellotapps.the_messenger.commons.payload.compression;
+
+import com.bellotapps.the_messenger.commons.headers.ContentEncoding;
+import com.bellotapps.the_messenger.commons.headers.DefinedHeader;
+
+import java.io.IOException;
+
+/**
+ * Defines behaviour for an object that can compress and decompress payloads
+ * with a given content encoding (i.e the value of the {@link DefinedHeader#CONTENT_ENCODING} header).
+ * <p>
+ * The JDK encodings are provided by the {@link GzipPayloadCompressor} and the {@link DeflatePayloadCompressor}.
+ * Other encodings (e.g LZ4) can be supported by implementing this interface.
+ *
+ * @see CompressingPayloadSerializer
+ * @see DecompressingPayloadDeserializer
+ */
+public interface PayloadCompressor {
+
+    /**
+     * Indicates the content encoding that the implementor can handle.
+     *
+     * @return The content encoding that the implementor can handle (e.g one of {@link ContentEncoding}).
+     */
+    String contentEncoding();
+
+    /**
+     * Compresses the given {@code bytes}.
+     *
+     * @param bytes The bytes to be compressed.
+     * @return The compressed bytes.
+     * @throws IOException If any error occurs while compressing.
+     */
+    byte[] compress(final byte[] bytes) throws IOException;
+
+    /**
+     * Decompresses the given {@code bytes}, failing as soon as the decompressed bytes exceed the given max. size
+     * (so small malicious payloads can not exhaust the memory when they are decompressed).
+     *
+     * @param bytes               The bytes to be decompressed.
+     * @param maxDecompressedSize The max. amount of decompressed bytes.
+     * @return The decompressed bytes.
+     * @throws IOException If any error occurs while decompressing (e.g the bytes are corrupted),
+     *                     or if the decompressed bytes exceed the max. size.
+     */
+    byte[] decompress(final byte[] bytes, final int maxDecompressedSize) throws IOException;
+}
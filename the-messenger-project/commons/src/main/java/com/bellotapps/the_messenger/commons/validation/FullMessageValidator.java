@@ -0,0 +1,70 @@
+package com.bellotapps.the_messenger.commons.validation;
+
+import com.bellotapps.the_messenger.commons.Message;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.Map;
+
+/**
+ * A {@link MessageValidator} that performs all the checks a {@link Message} must pass:
+ * the id and the sender must have text, and all the headers must have a key and a value with text.
+ * This is the validator to be used when {@link Message}s are created (i.e in the producer side).
+ *
+ * @implNote Headers are checked in a single pass, without streams, lambdas or varargs arrays.
+ */
+public final class FullMessageValidator implements MessageValidator {
+
+    /**
+     * The unique instance of a {@link FullMessageValidator}.
+     */
+    private static final FullMessageValidator SINGLETON = new FullMessageValidator();
+
+    /**
+     * Private constructor.
+     * Use {@link #getInstance()} to get an instance of the {@link FullMessageValidator}.
+     */
+    private FullMessageValidator() {
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void validate(final String id, final String sender, final Map<String, String> headers)
+            throws IllegalArgumentException {
+        if (StringUtils.isBlank(id)) {
+            throw new IllegalArgumentException("The id must have text");
+        }
+        if (StringUtils.isBlank(sender)) {
+            throw new IllegalArgumentException("The sender must have text");
+        }
+        if (headers == null) {
+            throw new IllegalArgumentException("The headers map must not be null");
+        }
+        for (final Map.Entry<String, String> header : headers.entrySet()) {
+            validateHeader(header.getKey(), header.getValue());
+        }
+    }
+
+    /**
+     * Validates a header.
+     *
+     * @param key   The header's key.
+     * @param value The header's value.
+     * @throws IllegalArgumentException If the key or the value do not have text.
+     */
+    private static void validateHeader(final String key, final String value) throws IllegalArgumentException {
+        if (StringUtils.isBlank(key) || StringUtils.isBlank(value)) {
+            throw new IllegalArgumentException("All the headers key and value must have text");
+        }
+    }
+
+    /**
+     * Returns the singleton.
+     *
+     * @return The unique instance of a {@link FullMessageValidator}.
+     */
+    public static FullMessageValidator getInstance() {
+        return SINGLETON;
+    }
+}
@@ -0,0 +1,28 @@
+package com.bellotapps.the_messenger.commons.validation;
+
+import com.bellotapps.the_messenger.commons.AbstractMessage;
+import com.bellotapps.the_messenger.commons.Message;
+
+import java.util.Map;
+
+/**
+ * Defines behaviour for an object that can validate the components of a {@link Message} before it is created.
+ *
+ * @see AbstractMessage
+ * @see FullMessageValidator
+ * @see TrustedMessageValidator
+ */
+@FunctionalInterface
+public interface MessageValidator {
+
+    /**
+     * Validates the given components of a {@link Message}.
+     *
+     * @param id      The message's id.
+     * @param sender  An identification of the sender.
+     * @param headers The message headers.
+     * @throws IllegalArgumentException If any component is invalid.
+     */
+    void validate(final String id, final String sender, final Map<String, String> headers)
+            throws IllegalArgumentException;
+}
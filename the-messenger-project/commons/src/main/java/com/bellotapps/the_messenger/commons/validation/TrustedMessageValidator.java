@@ -0,0 +1,56 @@
+package com.bellotapps.the_messenger.commons.validation;
+
+import com.bellotapps.the_messenger.commons.Message;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.Map;
+
+/**
+ * A {@link MessageValidator} for {@link Message}s whose headers were already validated when they were created
+ * (e.g {@link Message}s received from a transport, that were validated by the producer before being sent).
+ * It performs the cheap checks (i.e the id and the sender must have text, and there must be a headers map),
+ * as they are read from input that might not come from a producer,
+ * but it skips checking each header (the most expensive check of the {@link FullMessageValidator}).
+ *
+ * @apiNote Invalid headers won't be detected by this validator.
+ */
+public final class TrustedMessageValidator implements MessageValidator {
+
+    /**
+     * The unique instance of a {@link TrustedMessageValidator}.
+     */
+    private static final TrustedMessageValidator SINGLETON = new TrustedMessageValidator();
+
+    /**
+     * Private constructor.
+     * Use {@link #getInstance()} to get an instance of the {@link TrustedMessageValidator}.
+     */
+    private TrustedMessageValidator() {
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void validate(final String id, final String sender, final Map<String, String> headers)
+            throws IllegalArgumentException {
+        if (StringUtils.isBlank(id)) {
+            throw new IllegalArgumentException("The id must have text");
+        }
+        if (StringUtils.isBlank(sender)) {
+            throw new IllegalArgumentException("The sender must have text");
+        }
+        if (headers == null) {
+            throw new IllegalArgumentException("The headers map must not be null");
+        }
+    }
+
+    /**
+     * Returns the singleton.
+     *
+     * @return The unique instance of a {@link TrustedMessageValidator}.
+     */
+    public static TrustedMessageValidator getInstance() {
+        return SINGLETON;
+    }
+}
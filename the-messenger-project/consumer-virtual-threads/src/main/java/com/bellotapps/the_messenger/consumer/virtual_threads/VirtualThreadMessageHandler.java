@@ -0,0 +1,266 @@
+package com.bellotapps.the_messenger.consumer.virtual_threads;
+
+import com.bellotapps.the_messenger.commons.Message;
+import com.bellotapps.the_messenger.consumer.BuiltInMessageHandler;
+import com.bellotapps.the_messenger.consumer.MessageHandler;
+import org.apache.commons.lang3.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * A {@link MessageHandler} that delegates handling to another {@link MessageHandler},
+ * running it in a new virtual thread for each {@link Message}.
+ * This suits I/O bound handlers (e.g those calling databases or HTTP services), as blocked virtual threads
+ * are cheap, so tens of thousands of {@link Message}s can be in flight at the same time.
+ * <p>
+ * The amount of in-flight {@link Message}s is bounded: when it is reached, {@link #handle(Message)} blocks
+ * until one of them is handled (back-pressure to the consumer). Exceptions thrown by the delegate are logged,
+ * as there is no caller to propagate them to. {@link #close()} stops accepting {@link Message}s and waits for the
+ * in-flight ones to be handled (graceful drain).
+ */
+public class VirtualThreadMessageHandler implements MessageHandler, AutoCloseable {
+
+    /**
+     * The {@link Logger}.
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(VirtualThreadMessageHandler.class);
+
+    /**
+     * The {@link MessageHandler} to which handling is delegated.
+     */
+    private final MessageHandler delegate;
+
+    /**
+     * The max. amount of {@link Message}s that can be in flight.
+     */
+    private final int maxConcurrency;
+
+    /**
+     * The permits of {@link Message}s that can be in flight.
+     */
+    private final Semaphore permits;
+
+    /**
+     * The {@link ExecutorService} that creates a virtual thread for each {@link Message}.
+     */
+    private final ExecutorService executor;
+
+
+    /**
+     * Private constructor.
+     * Use {@link Builder#create()} to get a builder of this handler.
+     *
+     * @param delegate       The {@link MessageHandler} to which handling is delegated.
+     * @param maxConcurrency The max. amount of {@link Message}s that can be in flight.
+     * @param threadName     The prefix of the name of the virtual threads.
+     * @throws IllegalArgumentException If any argument is invalid.
+     */
+    private VirtualThreadMessageHandler(
+            final MessageHandler delegate,
+            final int maxConcurrency,
+            final String threadName) throws IllegalArgumentException {
+        Validate.isTrue(delegate != null, "The delegate message handler must not be null.");
+        Validate.isTrue(maxConcurrency > 0, "The max. concurrency must be positive.");
+        Validate.isTrue(threadName != null, "The thread name must not be null.");
+        this.delegate = delegate;
+        this.maxConcurrency = maxConcurrency;
+        this.permits = new Semaphore(maxConcurrency);
+        this.executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(threadName + "-", 0).factory());
+    }
+
+
+    /**
+     * {@inheritDoc}
+     *
+     * @implNote Blocks while the max. amount of in-flight {@link Message}s is reached.
+     * @throws RejectedExecutionException If this handler is closed, or if the calling thread is interrupted
+     *                                    while waiting (in which case the interrupted status is restored).
+     */
+    @Override
+    public void handle(final Message message) throws RejectedExecutionException {
+        if (message == null) {
+            LOGGER.warn("VirtualThreadMessageHandler received a null message! Will skip it!");
+            return;
+        }
+        try {
+            permits.acquire();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Interrupted while waiting for an in-flight message to finish", e);
+        }
+        try {
+            executor.execute(() -> handleAndRelease(message));
+        } catch (final RejectedExecutionException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Stops accepting {@link Message}s, and waits until the in-flight ones are handled.
+     */
+    @Override
+    public void close() {
+        executor.close();
+    }
+
+    /**
+     * Stops accepting {@link Message}s, and waits until the in-flight ones are handled,
+     * or the {@code timeout} elapses, or the current thread is interrupted, whichever happens first.
+     *
+     * @param timeout The max. time to wait.
+     * @return {@code true} if all the in-flight {@link Message}s were handled,
+     * or {@code false} if the timeout elapsed.
+     * @throws InterruptedException If interrupted while waiting.
+     */
+    public boolean close(final Duration timeout) throws InterruptedException {
+        executor.shutdown();
+        return executor.awaitTermination(timeout.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Returns the amount of {@link Message}s being handled.
+     *
+     * @return The amount of in-flight {@link Message}s.
+     */
+    public int inFlightMessages() {
+        return maxConcurrency - permits.availablePermits();
+    }
+
+
+    /**
+     * Handles the given {@code message} with the {@link #delegate}, releasing its permit afterwards.
+     *
+     * @param message The {@link Message} to be handled.
+     */
+    private void handleAndRelease(final Message message) {
+        try {
+            delegate.handle(message);
+        } catch (final RuntimeException e) {
+            LOGGER.error("Unexpected error while handling message with id {}", message.getId(), e);
+        } finally {
+            permits.release();
+        }
+    }
+
+
+    /**
+     * Returns a dispatcher factory to be used with {@link BuiltInMessageHandler.Builder#dispatchingWith(Function)},
+     * so each {@link Message} is routed in its own virtual thread.
+     *
+     * @param maxConcurrency The max. amount of {@link Message}s that can be in flight.
+     * @return A {@link Function} that creates a {@link VirtualThreadMessageHandler} for the given routing handler.
+     */
+    public static Function<MessageHandler, VirtualThreadMessageHandler> dispatcher(final int maxConcurrency) {
+        return handler -> Builder.create()
+                .delegatingTo(handler)
+                .withMaxConcurrency(maxConcurrency)
+                .build();
+    }
+
+
+    /**
+     * A builder for {@link VirtualThreadMessageHandler}.
+     */
+    public static final class Builder {
+
+        /**
+         * The {@link MessageHandler} to which handling is delegated.
+         */
+        private MessageHandler delegate;
+
+        /**
+         * The max. amount of {@link Message}s that can be in flight.
+         */
+        private int maxConcurrency;
+
+        /**
+         * The prefix of the name of the virtual threads.
+         */
+        private String threadName;
+
+
+        /**
+         * Private constructor.
+         * Use {@link Builder#create()} to get an instance of this builder.
+         */
+        private Builder() {
+            clear();
+        }
+
+
+        /**
+         * Configures the {@link MessageHandler} to which handling is delegated.
+         *
+         * @param delegate The delegate {@link MessageHandler}.
+         * @return {@code this} for method chaining.
+         */
+        public Builder delegatingTo(final MessageHandler delegate) {
+            this.delegate = delegate;
+            return this;
+        }
+
+        /**
+         * Configures the max. amount of {@link Message}s that can be in flight (defaults to 10000).
+         *
+         * @param maxConcurrency The max. amount of in-flight {@link Message}s.
+         * @return {@code this} for method chaining.
+         */
+        public Builder withMaxConcurrency(final int maxConcurrency) {
+            this.maxConcurrency = maxConcurrency;
+            return this;
+        }
+
+        /**
+         * Configures the prefix of the name of the virtual threads (defaults to {@code "message-handler"}).
+         *
+         * @param threadName The prefix of the name of the threads.
+         * @return {@code this} for method chaining.
+         */
+        public Builder withThreadName(final String threadName) {
+            this.threadName = threadName;
+            return this;
+        }
+
+        /**
+         * Clears this builder.
+         *
+         * @return {@code this} for method chaining.
+         */
+        public Builder clear() {
+            this.delegate = null;
+            this.maxConcurrency = 10000;
+            this.threadName = "message-handler";
+            return this;
+        }
+
+
+        /**
+         * Builds the configured {@link VirtualThreadMessageHandler}.
+         *
+         * @return The created {@link VirtualThreadMessageHandler} configured by this builder.
+         * @throws IllegalArgumentException If the configuration is invalid (e.g there is no delegate).
+         */
+        public VirtualThreadMessageHandler build() throws IllegalArgumentException {
+            return new VirtualThreadMessageHandler(delegate, maxConcurrency, threadName);
+        }
+
+
+        /**
+         * Creates an instance of this builder.
+         *
+         * @return A new instance of this builder.
+         */
+        public static Builder create() {
+            return new Builder();
+        }
+    }
+}
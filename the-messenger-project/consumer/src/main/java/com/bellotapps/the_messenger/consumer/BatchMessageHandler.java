@@ -0,0 +1,40 @@
+package com.bellotapps.the_messenger.consumer;
+
+import com.bellotapps.the_messenger.commons.Message;
+
+import java.util.List;
+
+/**
+ * A {@link MessageHandler} that can also handle several {@link Message}s at once
+ * (e.g to perform bulk inserts in a database).
+ * Routing handlers (e.g {@link TypedMessageHandler} or {@link CommandMessageHandler}) are batch aware:
+ * they split a batch into sub-batches for each of their {@link MessageHandler}s.
+ */
+public interface BatchMessageHandler extends MessageHandler {
+
+    /**
+     * Handles the given {@code messages}.
+     *
+     * @param messages The {@link Message}s to be handled, in the order they were received.
+     * @apiNote The {@code messages} list must not be modified.
+     */
+    void handleAll(final List<Message> messages);
+
+
+    /**
+     * Makes the given {@code handler} handle the given {@code messages}: at once if it is a
+     * {@link BatchMessageHandler}, or one by one otherwise.
+     *
+     * @param handler  The {@link MessageHandler} that will handle the {@code messages}.
+     * @param messages The {@link Message}s to be handled.
+     */
+    static void dispatch(final MessageHandler handler, final List<Message> messages) {
+        if (handler instanceof BatchMessageHandler) {
+            ((BatchMessageHandler) handler).handleAll(messages);
+            return;
+        }
+        for (final Message message : messages) {
+            handler.handle(message);
+        }
+    }
+}
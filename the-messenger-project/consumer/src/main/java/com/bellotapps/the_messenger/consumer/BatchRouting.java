@@ -0,0 +1,67 @@
+package com.bellotapps.the_messenger.consumer;
+
+import com.bellotapps.the_messenger.commons.Message;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Helper class to split batches of {@link Message}s among several {@link MessageHandler}s.
+ */
+final class BatchRouting {
+
+    /**
+     * Private constructor to avoid instantiation.
+     */
+    private BatchRouting() {
+    }
+
+
+    /**
+     * Groups the given {@code messages} by the {@link MessageHandler} the given {@code router} resolves for each
+     * of them (in a single pass), and dispatches each sub-batch to its {@link MessageHandler}
+     * (see {@link BatchMessageHandler#dispatch(MessageHandler, List)}).
+     * The order of the {@link Message}s is kept within each sub-batch,
+     * and sub-batches are dispatched in the order in which their {@link MessageHandler}s first appear.
+     *
+     * @param messages The {@link Message}s to be routed.
+     * @param router   A {@link Function} that resolves the {@link MessageHandler} of a {@link Message},
+     *                 or returns {@code null} if the {@link Message} must be discarded.
+     * @implNote When all the {@link Message}s are routed to the same {@link MessageHandler} (the usual case),
+     * the received list is dispatched as is, without copying it.
+     */
+    static void routeAll(final List<Message> messages, final Function<Message, MessageHandler> router) {
+        MessageHandler first = null;
+        Map<MessageHandler, List<Message>> batches = null;
+        final int size = messages.size();
+        for (int i = 0; i < size; i++) {
+            final Message message = messages.get(i);
+            final MessageHandler handler = router.apply(message);
+            if (batches == null) {
+                if (handler != null && (first == null || handler == first)) {
+                    first = handler;
+                    continue;
+                }
+                // The batch diverges (a different handler, or a discarded message),
+                // and all the previous messages were routed to the first handler.
+                batches = new LinkedHashMap<>();
+                if (i > 0) {
+                    batches.put(first, new ArrayList<>(messages.subList(0, i)));
+                }
+            }
+            if (handler != null) {
+                batches.computeIfAbsent(handler, ignored -> new ArrayList<>()).add(message);
+            }
+        }
+        if (batches == null) {
+            if (first != null) {
+                BatchMessageHandler.dispatch(first, messages);
+            }
+            return;
+        }
+        batches.forEach(BatchMessageHandler::dispatch);
+    }
+}
@@ -2,12 +2,16 @@ package com.bellotapps.the_messenger.consumer;
 
 import com.bellotapps.the_messenger.commons.Message;
 
-import java.util.Optional;
+import java.util.List;
+import java.util.function.Function;
 
 /**
  * A built in {@link MessageHandler} that can be easily configured.
+ * By default, {@link Message}s are routed in the calling thread,
+ * but a dispatcher can be configured (see {@link Builder#dispatchingWith(Function)}) to route them elsewhere
+ * (e.g in a pool of threads).
  */
-public class BuiltInMessageHandler implements MessageHandler {
+public class BuiltInMessageHandler implements BatchMessageHandler, AutoCloseable {
 
     /**
      * A {@link MessageHandler} for non typed {@link Message}s.
@@ -20,18 +24,34 @@ public class BuiltInMessageHandler implements MessageHandler {
      */
     private final MessageHandler typedMessageHandler;
 
+    /**
+     * The {@link MessageHandler} that routes {@link Message}s (i.e calls the {@link #route(Message)} method).
+     */
+    private final MessageHandler router;
+
+    /**
+     * The {@link MessageHandler} that receives the {@link Message}s handled by this handler,
+     * and that dispatches them to the {@link #router}.
+     */
+    private final MessageHandler dispatcher;
+
     /**
      * Constructor.
      *
      * @param nonTypedMessageHandler A {@link MessageHandler} for non typed {@link Message}s.
      * @param typedMessageHandler    A {@link TypedMessageHandler} for {@link Message}s that are typed.
      *                               A {@link TypedMessageHandler} is suggested to be used here.
+     * @param dispatcherFactory      A {@link Function} that takes the routing {@link MessageHandler}
+     *                               and returns the {@link MessageHandler} that dispatches {@link Message}s to it.
      */
     private BuiltInMessageHandler(
             final MessageHandler nonTypedMessageHandler,
-            final MessageHandler typedMessageHandler) {
+            final MessageHandler typedMessageHandler,
+            final Function<MessageHandler, ? extends MessageHandler> dispatcherFactory) {
         this.nonTypedMessageHandler = nonTypedMessageHandler;
         this.typedMessageHandler = typedMessageHandler;
+        this.router = this::route;
+        this.dispatcher = dispatcherFactory.apply(router);
     }
 
     /**
@@ -39,12 +59,59 @@ public class BuiltInMessageHandler implements MessageHandler {
      */
     @Override
     public void handle(final Message message) {
-        final Optional<String> messageType = message.type();
-        if (messageType.isPresent()) {
-            typedMessageHandler.handle(message);
+        dispatcher.handle(message);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @implNote If {@link Message}s are routed in the calling thread, the batch is split into typed and non typed
+     * sub-batches. Otherwise, the batch is handed to the dispatcher (one by one,
+     * unless it is a {@link BatchMessageHandler}).
+     */
+    @Override
+    public void handleAll(final List<Message> messages) {
+        if (dispatcher == router) {
+            BatchRouting.routeAll(messages, this::resolveHandler);
             return;
         }
-        nonTypedMessageHandler.handle(message);
+        BatchMessageHandler.dispatch(dispatcher, messages);
+    }
+
+    /**
+     * Closes the dispatcher, if it is {@link AutoCloseable} (e.g to stop its threads once in-flight messages
+     * are handled). Otherwise, it does nothing.
+     *
+     * @throws IllegalStateException If the dispatcher fails to close.
+     */
+    @Override
+    public void close() throws IllegalStateException {
+        if (dispatcher instanceof AutoCloseable) {
+            try {
+                ((AutoCloseable) dispatcher).close();
+            } catch (final Exception e) {
+                throw new IllegalStateException("Could not close the dispatcher", e);
+            }
+        }
+    }
+
+    /**
+     * Routes the given {@code message} to the {@link MessageHandler} of its kind.
+     *
+     * @param message The {@link Message} to be routed.
+     */
+    private void route(final Message message) {
+        resolveHandler(message).handle(message);
+    }
+
+    /**
+     * Resolves the {@link MessageHandler} that must handle the given {@code message}.
+     *
+     * @param message The {@link Message} to be handled.
+     * @return The {@link MessageHandler} for the given {@code message}.
+     */
+    private MessageHandler resolveHandler(final Message message) {
+        return message.typeOrNull() != null ? typedMessageHandler : nonTypedMessageHandler;
     }
 
     /**
@@ -62,6 +129,11 @@ public class BuiltInMessageHandler implements MessageHandler {
          */
         private MessageHandler typedMessageHandler;
 
+        /**
+         * A {@link Function} that creates the dispatcher from the routing {@link MessageHandler}.
+         */
+        private Function<MessageHandler, ? extends MessageHandler> dispatcherFactory;
+
         /**
          * Private constructor.
          * Use {@link Builder#create()} to get an instance of this builder.
@@ -69,6 +141,7 @@ public class BuiltInMessageHandler implements MessageHandler {
         private Builder() {
             this.nonTypedMessageHandler = DoNothingMessageHandler.getInstance();
             this.typedMessageHandler = DoNothingMessageHandler.getInstance();
+            this.dispatcherFactory = Function.identity();
         }
 
 
@@ -114,6 +187,25 @@ public class BuiltInMessageHandler implements MessageHandler {
                     .createForParent(this, Builder::withTypedMessageHandler);
         }
 
+        /**
+         * Sets how {@link Message}s are dispatched to the configured {@link MessageHandler}s
+         * (by default, they are routed in the calling thread).
+         * The given {@code dispatcherFactory} receives a {@link MessageHandler} that routes {@link Message}s,
+         * and returns the {@link MessageHandler} that will receive them and run that routing.
+         * For example, an {@link ExecutorMessageHandler} can be used to route in a pool of threads,
+         * or {@code VirtualThreadMessageHandler} (from the {@code consumer-virtual-threads} module)
+         * to route each {@link Message} in its own virtual thread.
+         *
+         * @param dispatcherFactory A {@link Function} that creates the dispatcher from the routing
+         *                          {@link MessageHandler}. If the dispatcher is {@link AutoCloseable},
+         *                          it is closed when the built {@link BuiltInMessageHandler} is closed.
+         * @return {@code this} for method chaining.
+         */
+        public Builder dispatchingWith(final Function<MessageHandler, ? extends MessageHandler> dispatcherFactory) {
+            this.dispatcherFactory = dispatcherFactory;
+            return this;
+        }
+
         /**
          * Clears this builder.
          *
@@ -122,6 +214,7 @@ public class BuiltInMessageHandler implements MessageHandler {
         public Builder clear() {
             this.nonTypedMessageHandler = DoNothingMessageHandler.getInstance();
             this.typedMessageHandler = DoNothingMessageHandler.getInstance();
+            this.dispatcherFactory = Function.identity();
             return this;
         }
 
@@ -132,7 +225,7 @@ public class BuiltInMessageHandler implements MessageHandler {
          * @return The created {@link BuiltInMessageHandler} configured by this builder.
          */
         public BuiltInMessageHandler build() {
-            return new BuiltInMessageHandler(nonTypedMessageHandler, typedMessageHandler);
+            return new BuiltInMessageHandler(nonTypedMessageHandler, typedMessageHandler, dispatcherFactory);
         }
 
 
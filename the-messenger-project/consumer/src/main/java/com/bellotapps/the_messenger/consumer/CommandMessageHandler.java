@@ -7,12 +7,14 @@ import org.slf4j.LoggerFactory;
 
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
  * A {@link MessageHandler} for command {@link Message}s.
+ * Batches are split by command in a single pass, and each sub-batch is forwarded to the handler of its command.
  */
-public class CommandMessageHandler implements MessageHandler {
+public class CommandMessageHandler implements BatchMessageHandler {
 
     /**
      * The {@link Logger}.
@@ -49,14 +51,38 @@ public class CommandMessageHandler implements MessageHandler {
      */
     @Override
     public void handle(final Message message) {
+        final MessageHandler handler = resolveHandler(message);
+        if (handler != null) {
+            handler.handle(message);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void handleAll(final List<Message> messages) {
+        BatchRouting.routeAll(messages, this::resolveHandler);
+    }
+
+    /**
+     * Resolves the {@link MessageHandler} that must handle the given {@code message}.
+     *
+     * @param message The {@link Message} to be handled.
+     * @return The {@link MessageHandler} for the given {@code message},
+     * or {@code null} if it must be discarded (i.e it is null or it is not a command).
+     */
+    private MessageHandler resolveHandler(final Message message) {
         if (message == null) {
             LOGGER.warn("CommandMessageHandler received a null message! Discarding it...");
-            return;
+            return null;
+        }
+        final String command = message.commandOrNull();
+        if (command == null) {
+            logNonCommandMessageReceived(message);
+            return null;
         }
-        final MessageHandler handler = message.command()
-                .map(this::getHandlerForCommand)
-                .orElse(CommandMessageHandler::logNonCommandMessageReceived);
-        handler.handle(message);
+        return getHandlerForCommand(command);
     }
 
     /**
@@ -75,8 +101,6 @@ public class CommandMessageHandler implements MessageHandler {
      * Logs that the given {@code message} is not a command.
      *
      * @param message The {@link Message} that is not a command.
-     * @apiNote This method can be used as a {@link MessageHandler} when written as a lambda.
-     * @see MessageHandler
      */
     private static void logNonCommandMessageReceived(final Message message) {
         LOGGER.warn(
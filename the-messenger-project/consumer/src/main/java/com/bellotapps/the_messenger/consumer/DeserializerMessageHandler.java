@@ -1,27 +1,54 @@
 package com.bellotapps.the_messenger.consumer;
 
 import com.bellotapps.the_messenger.commons.Message;
+import com.bellotapps.the_messenger.commons.headers.ContentType;
 import com.bellotapps.the_messenger.commons.headers.DefinedHeader;
 import com.bellotapps.the_messenger.commons.payload.PayloadDeserializationException;
 import com.bellotapps.the_messenger.commons.payload.PayloadDeserializer;
+import com.bellotapps.the_messenger.commons.payload.compression.DecompressingPayloadDeserializer;
+import com.bellotapps.the_messenger.commons.payload.compression.DeflatePayloadCompressor;
+import com.bellotapps.the_messenger.commons.payload.compression.GzipPayloadCompressor;
+import com.bellotapps.the_messenger.commons.payload.compression.PayloadCompressor;
+import org.apache.commons.lang3.Validate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
  * An abstract {@link MessageHandler} that deserializes the {@link Message}'s payload
  * according to a given {@link PayloadDeserializer}, and then performs the overridden action.
+ * Deserialization is performed with {@link Message#payloadAs(PayloadDeserializer)},
+ * so handlers sharing the same {@link PayloadDeserializer} instance parse a payload only once.
+ * Batches are deserialized as a whole, and then handed to {@link #andThenAll(List, List)},
+ * which can be overridden to process them in bulk.
+ * <p>
+ * Payloads with a {@link DefinedHeader#CONTENT_ENCODING} header are transparently decompressed
+ * with the {@link PayloadCompressor} of that content encoding (by default, gzip and deflate are supported).
  *
  * @param <T> The concrete type into which the payload is deserialized.
  */
-public abstract class DeserializerMessageHandler<T> implements MessageHandler {
+public abstract class DeserializerMessageHandler<T> implements BatchMessageHandler {
 
     /**
      * The {@link Logger}.
      */
     private static final Logger LOGGER = LoggerFactory.getLogger(DeserializerMessageHandler.class);
 
+    /**
+     * The {@link PayloadCompressor}s supported by default.
+     */
+    private static final List<PayloadCompressor> DEFAULT_COMPRESSORS = Arrays.asList(
+            GzipPayloadCompressor.getInstance(),
+            DeflatePayloadCompressor.getInstance()
+    );
+
 
     /**
      * The {@link PayloadDeserializer} to be used to perform the deserialization phase.
@@ -33,6 +60,19 @@ public abstract class DeserializerMessageHandler<T> implements MessageHandler {
      */
     private final MessageHandler defaultMessageHandler;
 
+    /**
+     * The content type handled by the {@link #payloadDeserializer} (interned if it is a well-known content type,
+     * so it is compared by reference with the content type of the {@link Message}s).
+     */
+    private final String expectedContentType;
+
+    /**
+     * The {@link DecompressingPayloadDeserializer}s that decorate the {@link #payloadDeserializer},
+     * indexed by the content encoding they can decompress (they are equal to those of the rest of the handlers
+     * with the same deserializer, so a compressed payload is decompressed and deserialized only once).
+     */
+    private final Map<String, PayloadDeserializer<T>> decompressingDeserializers;
+
     /**
      * Constructor.
      *
@@ -55,8 +95,59 @@ public abstract class DeserializerMessageHandler<T> implements MessageHandler {
     protected DeserializerMessageHandler(
             final PayloadDeserializer<T> payloadDeserializer,
             final MessageHandler defaultMessageHandler) {
+        this(payloadDeserializer, defaultMessageHandler, DEFAULT_COMPRESSORS);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param payloadDeserializer   The {@link PayloadDeserializer}
+     *                              to be used to perform the deserialization phase.
+     * @param defaultMessageHandler A {@link MessageHandler}
+     *                              to be invoked in case the deserialization phase fails.
+     * @param compressors           The {@link PayloadCompressor}s of the supported content encodings
+     *                              (payloads with any other content encoding are handled
+     *                              with the {@code defaultMessageHandler}).
+     * @throws IllegalArgumentException If the compressors are null.
+     * @implNote Decompressed payloads can take up to
+     * {@link DecompressingPayloadDeserializer#DEFAULT_MAX_DECOMPRESSED_SIZE} bytes.
+     */
+    protected DeserializerMessageHandler(
+            final PayloadDeserializer<T> payloadDeserializer,
+            final MessageHandler defaultMessageHandler,
+            final Collection<? extends PayloadCompressor> compressors) throws IllegalArgumentException {
+        this(payloadDeserializer, defaultMessageHandler, compressors,
+                DecompressingPayloadDeserializer.DEFAULT_MAX_DECOMPRESSED_SIZE);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param payloadDeserializer   The {@link PayloadDeserializer}
+     *                              to be used to perform the deserialization phase.
+     * @param defaultMessageHandler A {@link MessageHandler}
+     *                              to be invoked in case the deserialization phase fails.
+     * @param compressors           The {@link PayloadCompressor}s of the supported content encodings
+     *                              (payloads with any other content encoding are handled
+     *                              with the {@code defaultMessageHandler}).
+     * @param maxDecompressedSize   The max. size (in bytes) of a decompressed payload
+     *                              (payloads exceeding it are handled with the {@code defaultMessageHandler}).
+     * @throws IllegalArgumentException If the compressors are null, or if the max. size is not positive.
+     */
+    protected DeserializerMessageHandler(
+            final PayloadDeserializer<T> payloadDeserializer,
+            final MessageHandler defaultMessageHandler,
+            final Collection<? extends PayloadCompressor> compressors,
+            final int maxDecompressedSize) throws IllegalArgumentException {
+        Validate.isTrue(compressors != null, "The compressors must not be null");
         this.payloadDeserializer = payloadDeserializer;
         this.defaultMessageHandler = defaultMessageHandler;
+        this.expectedContentType = ContentType.canonicalize(payloadDeserializer.contentType());
+        this.decompressingDeserializers = new HashMap<>();
+        for (final PayloadCompressor compressor : compressors) {
+            decompressingDeserializers.put(compressor.contentEncoding(),
+                    new DecompressingPayloadDeserializer<>(payloadDeserializer, compressor, maxDecompressedSize));
+        }
     }
 
     @Override
@@ -64,6 +155,28 @@ public abstract class DeserializerMessageHandler<T> implements MessageHandler {
         deserialize(message).ifPresent(payload -> andThen(payload, message));
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * @implNote {@link Message}s whose payload can not be deserialized are handled with the default message
+     * handler, and they are not included in the batch handed to {@link #andThenAll(List, List)}.
+     */
+    @Override
+    public void handleAll(final List<Message> messages) {
+        final List<T> payloads = new ArrayList<>(messages.size());
+        final List<Message> deserializedMessages = new ArrayList<>(messages.size());
+        for (final Message message : messages) {
+            final Optional<T> payload = deserialize(message);
+            if (payload.isPresent()) {
+                payloads.add(payload.get());
+                deserializedMessages.add(message);
+            }
+        }
+        if (!payloads.isEmpty()) {
+            andThenAll(payloads, deserializedMessages);
+        }
+    }
+
     /**
      * Deserializes the payload of the given {@code message}.
      *
@@ -74,10 +187,10 @@ public abstract class DeserializerMessageHandler<T> implements MessageHandler {
      */
     private Optional<T> deserialize(final Message message) {
         // First check content type
-        final Optional<String> contentType = message.contentType();
-        if (contentType.isPresent()) {
+        final String contentType = message.contentTypeOrNull();
+        if (contentType != null) {
             // If present, check content types.
-            if (!contentType.get().equals(payloadDeserializer.contentType())) {
+            if (!contentType.equals(expectedContentType)) {
                 // Content types are not the same, so deserialization won't be performed.
                 LOGGER.warn(
                         "DeserializerHandler received a Message with a {} header value " +
@@ -94,9 +207,25 @@ public abstract class DeserializerMessageHandler<T> implements MessageHandler {
                     DefinedHeader.CONTENT_TYPE);
         }
 
-        final String payload = message.getPayload();
+        // Then check content encoding
+        final String contentEncoding = message.headerValueOrNull(DefinedHeader.CONTENT_ENCODING);
+        final PayloadDeserializer<T> deserializer = contentEncoding == null ?
+                payloadDeserializer :
+                decompressingDeserializers.get(contentEncoding);
+        if (deserializer == null) {
+            LOGGER.warn(
+                    "DeserializerHandler received a Message with an unsupported {} header value ({}). " +
+                            "Message will be handled with the default message handle, " +
+                            "and deserialization won't be performed",
+                    DefinedHeader.CONTENT_ENCODING, contentEncoding);
+            defaultMessageHandler.handle(message);
+            return Optional.empty();
+        }
+
         try {
-            return Optional.ofNullable(payloadDeserializer.deserialize(payload));
+            // The message caches the deserialized payload, so other handlers using the same deserializer
+            // in the chain won't parse it again.
+            return Optional.ofNullable(message.payloadAs(deserializer));
         } catch (final PayloadDeserializationException e) {
             defaultMessageHandler.handle(message);
             return Optional.empty();
@@ -111,4 +240,19 @@ public abstract class DeserializerMessageHandler<T> implements MessageHandler {
      *                processing is needed to be performed (e.g to send a reply).
      */
     protected abstract void andThen(final T payload, final Message message);
+
+    /**
+     * Performs an action with a batch of deserialized {@code payloads} and their {@code messages}.
+     *
+     * @param payloads The payloads of type {@code T} used to operate.
+     * @param messages The {@link Message}s that contain the {@code payloads}
+     *                 (i.e the {@code i}-th payload belongs to the {@code i}-th {@link Message}).
+     * @implSpec The default implementation calls {@link #andThen(Object, Message)} for each payload.
+     * Override it to operate with the batch at once (e.g to perform bulk inserts).
+     */
+    protected void andThenAll(final List<T> payloads, final List<Message> messages) {
+        for (int i = 0; i < payloads.size(); i++) {
+            andThen(payloads.get(i), messages.get(i));
+        }
+    }
 }
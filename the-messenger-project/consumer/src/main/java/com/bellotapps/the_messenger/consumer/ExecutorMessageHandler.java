@@ -0,0 +1,382 @@
+package com.bellotapps.the_messenger.consumer;
+
+import com.bellotapps.the_messenger.commons.Message;
+import org.apache.commons.lang3.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A {@link MessageHandler} that delegates handling to another {@link MessageHandler},
+ * running it in a dedicated bounded pool of threads.
+ * This isolates the delegate: a slow handler only fills its own queue, instead of stalling the calling thread
+ * (and so every other branch of the handlers tree).
+ * What happens when the queue is full is defined by a {@link QueueFullPolicy}.
+ * To isolate a type or a command, configure an instance with {@link TypedMessageHandler.Builder#handleTypeWith}
+ * or {@link CommandMessageHandler.Builder#handleCommandWith}, keeping a reference to close it.
+ * <p>
+ * Exceptions thrown by the delegate are logged, as there is no caller to propagate them to.
+ * The pool threads are daemon threads. Use {@link #close()} to stop the pool once the queued messages are handled.
+ */
+public class ExecutorMessageHandler implements MessageHandler, AutoCloseable {
+
+    /**
+     * The {@link Logger}.
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(ExecutorMessageHandler.class);
+
+    /**
+     * The {@link MessageHandler} to which handling is delegated.
+     */
+    private final MessageHandler delegate;
+
+    /**
+     * The {@link ThreadPoolExecutor} in which the {@link #delegate} runs.
+     */
+    private final ThreadPoolExecutor executor;
+
+
+    /**
+     * Private constructor.
+     * Use {@link Builder#create()} to get a builder of this handler.
+     *
+     * @param delegate        The {@link MessageHandler} to which handling is delegated.
+     * @param threads         The amount of threads of the pool.
+     * @param queueCapacity   The max. amount of {@link Message}s waiting to be handled.
+     * @param queueFullPolicy The {@link QueueFullPolicy} to apply when the queue is full.
+     * @param threadName      The prefix of the name of the pool threads.
+     * @throws IllegalArgumentException If any argument is invalid.
+     */
+    private ExecutorMessageHandler(
+            final MessageHandler delegate,
+            final int threads,
+            final int queueCapacity,
+            final QueueFullPolicy queueFullPolicy,
+            final String threadName) throws IllegalArgumentException {
+        Validate.isTrue(delegate != null, "The delegate message handler must not be null.");
+        Validate.isTrue(threads > 0, "The amount of threads must be positive.");
+        Validate.isTrue(queueCapacity > 0, "The queue capacity must be positive.");
+        Validate.isTrue(queueFullPolicy != null, "The queue full policy must not be null.");
+        Validate.isTrue(threadName != null, "The thread name must not be null.");
+        this.delegate = delegate;
+        this.executor = new ThreadPoolExecutor(
+                threads,
+                threads,
+                0L,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new DaemonThreadFactory(threadName),
+                queueFullPolicy.rejectedExecutionHandler
+        );
+    }
+
+
+    /**
+     * {@inheritDoc}
+     *
+     * @implNote The {@code message} is queued to be handled in the pool
+     * (or handled as specified by the {@link QueueFullPolicy} if the queue is full).
+     * @throws RejectedExecutionException If this handler is closed.
+     */
+    @Override
+    public void handle(final Message message) throws RejectedExecutionException {
+        if (message == null) {
+            LOGGER.warn("ExecutorMessageHandler received a null message! Will skip it!");
+            return;
+        }
+        executor.execute(new HandleTask(message));
+    }
+
+    /**
+     * Stops accepting {@link Message}s. Those already queued are still handled.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    /**
+     * Blocks until all queued {@link Message}s are handled after a {@link #close()},
+     * or the timeout occurs, or the current thread is interrupted, whichever happens first.
+     *
+     * @param timeout The max. time to wait.
+     * @param unit    The {@link TimeUnit} of the {@code timeout}.
+     * @return {@code true} if all the {@link Message}s were handled, or {@code false} if the timeout elapsed.
+     * @throws InterruptedException If interrupted while waiting.
+     */
+    public boolean awaitTermination(final long timeout, final TimeUnit unit) throws InterruptedException {
+        return executor.awaitTermination(timeout, unit);
+    }
+
+    /**
+     * Returns the amount of {@link Message}s waiting to be handled.
+     *
+     * @return The amount of queued {@link Message}s.
+     */
+    public int queuedMessages() {
+        return executor.getQueue().size();
+    }
+
+
+    /**
+     * The task of handling a {@link Message} with the {@link #delegate}.
+     */
+    private final class HandleTask implements Runnable {
+
+        /**
+         * The {@link Message} to be handled.
+         */
+        private final Message message;
+
+        /**
+         * Constructor.
+         *
+         * @param message The {@link Message} to be handled.
+         */
+        private HandleTask(final Message message) {
+            this.message = message;
+        }
+
+        @Override
+        public void run() {
+            try {
+                delegate.handle(message);
+            } catch (final RuntimeException e) {
+                LOGGER.error("Unexpected error while handling message with id {}", message.getId(), e);
+            }
+        }
+    }
+
+
+    /**
+     * Defines what to do with a {@link Message} when the queue of an {@link ExecutorMessageHandler} is full.
+     */
+    public enum QueueFullPolicy {
+        /**
+         * Blocks the calling thread until there is room in the queue (back-pressure to the consumer).
+         * If the handler is closed while waiting, the {@link Message} is rejected.
+         */
+        BLOCK((task, executor) -> {
+            if (executor.isShutdown()) {
+                throw new RejectedExecutionException("The message handler is closed");
+            }
+            try {
+                executor.getQueue().put(task);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RejectedExecutionException("Interrupted while waiting for room in the queue", e);
+            }
+            // If the handler was closed while waiting, the workers might have already drained the queue and exited,
+            // so the task is taken back (unless a worker already took it, in which case it is handled).
+            if (executor.isShutdown() && executor.remove(task)) {
+                throw new RejectedExecutionException("The message handler is closed");
+            }
+        }),
+        /**
+         * Discards the {@link Message} (logging it).
+         */
+        DROP((task, executor) -> {
+            if (executor.isShutdown()) {
+                throw new RejectedExecutionException("The message handler is closed");
+            }
+            LOGGER.warn("ExecutorMessageHandler queue is full. Dropping message with id {}",
+                    ((HandleTask) task).message.getId());
+        }),
+        /**
+         * Handles the {@link Message} in the calling thread.
+         */
+        CALLER_RUNS((task, executor) -> {
+            if (executor.isShutdown()) {
+                throw new RejectedExecutionException("The message handler is closed");
+            }
+            task.run();
+        });
+
+        /**
+         * The {@link RejectedExecutionHandler} that implements the policy.
+         */
+        private final RejectedExecutionHandler rejectedExecutionHandler;
+
+        /**
+         * Constructor.
+         *
+         * @param rejectedExecutionHandler The {@link RejectedExecutionHandler} that implements the policy.
+         */
+        QueueFullPolicy(final RejectedExecutionHandler rejectedExecutionHandler) {
+            this.rejectedExecutionHandler = rejectedExecutionHandler;
+        }
+    }
+
+
+    /**
+     * A {@link ThreadFactory} of numbered daemon threads.
+     */
+    private static final class DaemonThreadFactory implements ThreadFactory {
+
+        /**
+         * The prefix of the name of the threads.
+         */
+        private final String threadName;
+
+        /**
+         * The number of the next thread.
+         */
+        private final AtomicInteger nextThread;
+
+        /**
+         * Constructor.
+         *
+         * @param threadName The prefix of the name of the threads.
+         */
+        private DaemonThreadFactory(final String threadName) {
+            this.threadName = threadName;
+            this.nextThread = new AtomicInteger();
+        }
+
+        @Override
+        public Thread newThread(final Runnable runnable) {
+            final Thread thread = new Thread(runnable, threadName + "-" + nextThread.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
+
+    /**
+     * A builder for {@link ExecutorMessageHandler}.
+     */
+    public static final class Builder {
+
+        /**
+         * The {@link MessageHandler} to which handling is delegated.
+         */
+        private MessageHandler delegate;
+
+        /**
+         * The amount of threads of the pool.
+         */
+        private int threads;
+
+        /**
+         * The max. amount of {@link Message}s waiting to be handled.
+         */
+        private int queueCapacity;
+
+        /**
+         * The {@link QueueFullPolicy} to apply when the queue is full.
+         */
+        private QueueFullPolicy queueFullPolicy;
+
+        /**
+         * The prefix of the name of the pool threads.
+         */
+        private String threadName;
+
+
+        /**
+         * Private constructor.
+         * Use {@link Builder#create()} to get an instance of this builder.
+         */
+        private Builder() {
+            clear();
+        }
+
+
+        /**
+         * Configures the {@link MessageHandler} to which handling is delegated.
+         *
+         * @param delegate The delegate {@link MessageHandler}.
+         * @return {@code this} for method chaining.
+         */
+        public Builder delegatingTo(final MessageHandler delegate) {
+            this.delegate = delegate;
+            return this;
+        }
+
+        /**
+         * Configures the amount of threads of the pool (defaults to 1).
+         *
+         * @param threads The amount of threads.
+         * @return {@code this} for method chaining.
+         */
+        public Builder withThreads(final int threads) {
+            this.threads = threads;
+            return this;
+        }
+
+        /**
+         * Configures the max. amount of {@link Message}s waiting to be handled (defaults to 1024).
+         *
+         * @param queueCapacity The queue capacity.
+         * @return {@code this} for method chaining.
+         */
+        public Builder withQueueCapacity(final int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+            return this;
+        }
+
+        /**
+         * Configures what to do when the queue is full (defaults to {@link QueueFullPolicy#BLOCK}).
+         *
+         * @param queueFullPolicy The {@link QueueFullPolicy}.
+         * @return {@code this} for method chaining.
+         */
+        public Builder onQueueFull(final QueueFullPolicy queueFullPolicy) {
+            this.queueFullPolicy = queueFullPolicy;
+            return this;
+        }
+
+        /**
+         * Configures the prefix of the name of the pool threads (defaults to {@code "message-handler"}).
+         *
+         * @param threadName The prefix of the name of the threads.
+         * @return {@code this} for method chaining.
+         */
+        public Builder withThreadName(final String threadName) {
+            this.threadName = threadName;
+            return this;
+        }
+
+        /**
+         * Clears this builder.
+         *
+         * @return {@code this} for method chaining.
+         */
+        public Builder clear() {
+            this.delegate = null;
+            this.threads = 1;
+            this.queueCapacity = 1024;
+            this.queueFullPolicy = QueueFullPolicy.BLOCK;
+            this.threadName = "message-handler";
+            return this;
+        }
+
+
+        /**
+         * Builds the configured {@link ExecutorMessageHandler}.
+         *
+         * @return The created {@link ExecutorMessageHandler} configured by this builder.
+         * @throws IllegalArgumentException If the configuration is invalid (e.g there is no delegate).
+         */
+        public ExecutorMessageHandler build() throws IllegalArgumentException {
+            return new ExecutorMessageHandler(delegate, threads, queueCapacity, queueFullPolicy, threadName);
+        }
+
+
+        /**
+         * Creates an instance of this builder.
+         *
+         * @return A new instance of this builder.
+         */
+        public static Builder create() {
+            return new Builder();
+        }
+    }
+}
@@ -0,0 +1,268 @@
+package com.bellotapps.the_messenger.consumer;
+
+import org.apache.commons.lang3.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A timer that expires large amounts of timeouts with low precision (the duration of a tick)
+ * and constant cost per operation, using a hashed wheel: a circular array of buckets that is traversed
+ * one bucket per tick by a single worker thread.
+ * <p>
+ * Scheduling only enqueues the timeout in a lock-free queue, which the worker drains into the wheel on each tick,
+ * and cancelling only flags it (the worker unlinks it when it traverses its bucket),
+ * so callers never contend on locks.
+ *
+ * @implNote Expired tasks run in the worker thread, so they must be short.
+ */
+final class HashedWheelTimer {
+
+    /**
+     * The {@link Logger}.
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(HashedWheelTimer.class);
+
+    /**
+     * The duration of a tick, in nanoseconds.
+     */
+    private final long tickNanos;
+
+    /**
+     * The buckets of the wheel (each one is the head of a linked list of {@link Timeout}s).
+     * Only accessed by the {@link #worker}.
+     */
+    private final Timeout[] wheel;
+
+    /**
+     * The mask to map a tick into its bucket (the wheel size is a power of two).
+     */
+    private final int mask;
+
+    /**
+     * The {@link Timeout}s scheduled since the last tick.
+     */
+    private final Queue<Timeout> newTimeouts;
+
+    /**
+     * Indicates whether the timer was stopped.
+     */
+    private final AtomicBoolean stopped;
+
+    /**
+     * The time at which the timer started (ticks are measured from it).
+     */
+    private final long startTime;
+
+    /**
+     * The worker thread.
+     */
+    private final Thread worker;
+
+
+    /**
+     * Constructor. Starts the worker thread.
+     *
+     * @param tickNanos  The duration of a tick, in nanoseconds.
+     * @param wheelSize  The amount of buckets of the wheel (rounded up to a power of two).
+     * @param threadName The name of the worker thread.
+     * @throws IllegalArgumentException If any argument is invalid.
+     */
+    HashedWheelTimer(final long tickNanos, final int wheelSize, final String threadName)
+            throws IllegalArgumentException {
+        Validate.isTrue(tickNanos > 0, "The tick duration must be positive");
+        Validate.isTrue(wheelSize > 0 && wheelSize <= 1 << 30, "The wheel size must be positive and at most 2^30");
+        final int size = wheelSize == 1 ? 1 : Integer.highestOneBit(wheelSize - 1) << 1;
+        this.tickNanos = tickNanos;
+        this.wheel = new Timeout[size];
+        this.mask = size - 1;
+        this.newTimeouts = new ConcurrentLinkedQueue<>();
+        this.stopped = new AtomicBoolean(false);
+        this.startTime = System.nanoTime();
+        this.worker = new Thread(this::run, threadName);
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+
+    /**
+     * Schedules the given {@code task} to be run after the given delay.
+     *
+     * @param task       The task to be run.
+     * @param delayNanos The delay, in nanoseconds.
+     * @return The scheduled {@link Timeout}.
+     * @throws IllegalStateException If the timer was stopped.
+     */
+    Timeout schedule(final Runnable task, final long delayNanos) throws IllegalStateException {
+        if (stopped.get()) {
+            throw new IllegalStateException("The timer was stopped");
+        }
+        final Timeout timeout = new Timeout(task, System.nanoTime() + Math.max(delayNanos, 0));
+        newTimeouts.add(timeout);
+        return timeout;
+    }
+
+    /**
+     * Stops the timer. Pending timeouts will never expire.
+     */
+    void stop() {
+        if (stopped.compareAndSet(false, true)) {
+            LockSupport.unpark(worker);
+        }
+    }
+
+
+    /**
+     * The worker loop: waits for each tick, transfers the new timeouts into the wheel and expires the current bucket.
+     */
+    private void run() {
+        long tick = 0;
+        while (!stopped.get()) {
+            final long tickDeadline = startTime + (tick + 1) * tickNanos;
+            long now;
+            while ((now = System.nanoTime()) - tickDeadline < 0 && !stopped.get()) {
+                LockSupport.parkNanos(this, tickDeadline - now);
+            }
+            transferNewTimeouts(tick);
+            expireBucket((int) (tick & mask), now);
+            tick++;
+        }
+    }
+
+    /**
+     * Places the {@link Timeout}s scheduled since the last tick in their buckets.
+     *
+     * @param tick The current tick.
+     */
+    private void transferNewTimeouts(final long tick) {
+        Timeout timeout;
+        while ((timeout = newTimeouts.poll()) != null) {
+            if (timeout.isCancelled()) {
+                continue;
+            }
+            final long expirationTick = (timeout.deadline - startTime + tickNanos - 1) / tickNanos;
+            final long bucketTick = Math.max(expirationTick, tick); // Late timeouts expire in the current tick.
+            timeout.remainingRounds = (bucketTick - tick) / wheel.length;
+            final int bucket = (int) (bucketTick & mask);
+            timeout.next = wheel[bucket];
+            wheel[bucket] = timeout;
+        }
+    }
+
+    /**
+     * Expires the due {@link Timeout}s of the given bucket, unlinking them (and the cancelled ones).
+     *
+     * @param bucket The bucket to be traversed.
+     * @param now    The current time.
+     */
+    private void expireBucket(final int bucket, final long now) {
+        Timeout previous = null;
+        Timeout timeout = wheel[bucket];
+        while (timeout != null) {
+            final Timeout next = timeout.next;
+            final boolean due = timeout.remainingRounds <= 0 && timeout.deadline - now <= 0;
+            if (timeout.isCancelled() || due) {
+                if (previous == null) {
+                    wheel[bucket] = next;
+                } else {
+                    previous.next = next;
+                }
+                timeout.next = null;
+                if (due) {
+                    timeout.expire();
+                }
+            } else {
+                timeout.remainingRounds--;
+                previous = timeout;
+            }
+            timeout = next;
+        }
+    }
+
+
+    /**
+     * A task scheduled in a {@link HashedWheelTimer}.
+     */
+    static final class Timeout {
+
+        /**
+         * The task to be run when this timeout expires.
+         */
+        private final Runnable task;
+
+        /**
+         * The time at which this timeout expires.
+         */
+        private final long deadline;
+
+        /**
+         * Atomically updates the {@link #done} field (avoiding an atomic object per timeout).
+         */
+        private static final AtomicIntegerFieldUpdater<Timeout> DONE =
+                AtomicIntegerFieldUpdater.newUpdater(Timeout.class, "done");
+
+        /**
+         * Indicates whether this timeout was cancelled or expired ({@code 1}) or not ({@code 0}).
+         */
+        private volatile int done;
+
+        /**
+         * The amount of wheel rounds left before this timeout expires (only accessed by the worker).
+         */
+        private long remainingRounds;
+
+        /**
+         * The next timeout of the bucket (only accessed by the worker).
+         */
+        private Timeout next;
+
+
+        /**
+         * Constructor.
+         *
+         * @param task     The task to be run when this timeout expires.
+         * @param deadline The time at which this timeout expires.
+         */
+        private Timeout(final Runnable task, final long deadline) {
+            this.task = task;
+            this.deadline = deadline;
+            this.done = 0;
+        }
+
+
+        /**
+         * Cancels this timeout, so its task is not run.
+         *
+         * @return {@code true} if it was cancelled, or {@code false} if it had already expired or been cancelled.
+         */
+        boolean cancel() {
+            return DONE.compareAndSet(this, 0, 1);
+        }
+
+        /**
+         * @return {@code true} if this timeout was cancelled (or expired), or {@code false} otherwise.
+         */
+        private boolean isCancelled() {
+            return done != 0;
+        }
+
+        /**
+         * Runs the task, unless this timeout was cancelled.
+         */
+        private void expire() {
+            if (!DONE.compareAndSet(this, 0, 1)) {
+                return;
+            }
+            try {
+                task.run();
+            } catch (final RuntimeException e) {
+                LOGGER.error("Unexpected error while running an expired timeout", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,316 @@
+package com.bellotapps.the_messenger.consumer;
+
+import com.bellotapps.the_messenger.commons.Message;
+import com.bellotapps.the_messenger.commons.headers.DefinedHeader;
+import org.apache.commons.lang3.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * A {@link MessageHandler} that handles {@link Message}s in parallel while keeping the order of those that share
+ * a key (e.g the aggregate they refer to). The key of each {@link Message} is hashed to one of several lanes,
+ * each one being a single threaded {@link ExecutorMessageHandler}, so {@link Message}s with the same key are handled
+ * one after the other, in the order they were received, while different keys scale across threads.
+ * <p>
+ * {@link Message}s without key are all handled in the same lane (so they are ordered among themselves).
+ * Only {@link ExecutorMessageHandler.QueueFullPolicy#BLOCK} and {@link ExecutorMessageHandler.QueueFullPolicy#DROP}
+ * can be used, as handling in the calling thread would break the order.
+ */
+public class KeyOrderedMessageHandler implements MessageHandler, AutoCloseable {
+
+    /**
+     * The {@link Logger}.
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(KeyOrderedMessageHandler.class);
+
+    /**
+     * The {@link Function} that extracts the key of a {@link Message} (it might return {@code null}).
+     */
+    private final Function<Message, String> keyExtractor;
+
+    /**
+     * The lanes in which {@link Message}s are handled.
+     */
+    private final ExecutorMessageHandler[] lanes;
+
+
+    /**
+     * Private constructor.
+     * Use {@link Builder#create()} to get a builder of this handler.
+     *
+     * @param delegate        The {@link MessageHandler} to which handling is delegated.
+     * @param keyExtractor    The {@link Function} that extracts the key of a {@link Message}.
+     * @param lanes           The amount of lanes.
+     * @param queueCapacity   The max. amount of {@link Message}s waiting to be handled in each lane.
+     * @param queueFullPolicy The {@link ExecutorMessageHandler.QueueFullPolicy} to apply when a lane is full.
+     * @param threadName      The prefix of the name of the lanes threads.
+     * @throws IllegalArgumentException If any argument is invalid.
+     */
+    private KeyOrderedMessageHandler(
+            final MessageHandler delegate,
+            final Function<Message, String> keyExtractor,
+            final int lanes,
+            final int queueCapacity,
+            final ExecutorMessageHandler.QueueFullPolicy queueFullPolicy,
+            final String threadName) throws IllegalArgumentException {
+        Validate.isTrue(delegate != null, "The delegate message handler must not be null.");
+        Validate.isTrue(keyExtractor != null, "The key extractor must not be null.");
+        Validate.isTrue(lanes > 0, "The amount of lanes must be positive.");
+        Validate.isTrue(queueFullPolicy != ExecutorMessageHandler.QueueFullPolicy.CALLER_RUNS,
+                "The caller runs policy would break the order of messages.");
+        this.keyExtractor = keyExtractor;
+        this.lanes = new ExecutorMessageHandler[lanes];
+        for (int i = 0; i < lanes; i++) {
+            this.lanes[i] = ExecutorMessageHandler.Builder.create()
+                    .delegatingTo(delegate)
+                    .withThreads(1)
+                    .withQueueCapacity(queueCapacity)
+                    .onQueueFull(queueFullPolicy)
+                    .withThreadName(threadName + "-" + i)
+                    .build();
+        }
+    }
+
+
+    /**
+     * {@inheritDoc}
+     *
+     * @implNote The {@code message} is queued in the lane of its key.
+     */
+    @Override
+    public void handle(final Message message) {
+        if (message == null) {
+            LOGGER.warn("KeyOrderedMessageHandler received a null message! Will skip it!");
+            return;
+        }
+        lanes[laneOf(keyExtractor.apply(message))].handle(message);
+    }
+
+    /**
+     * Stops accepting {@link Message}s. Those already queued are still handled.
+     */
+    @Override
+    public void close() {
+        for (final ExecutorMessageHandler lane : lanes) {
+            lane.close();
+        }
+    }
+
+    /**
+     * Blocks until all queued {@link Message}s are handled after a {@link #close()},
+     * or the timeout occurs, or the current thread is interrupted, whichever happens first.
+     *
+     * @param timeout The max. time to wait.
+     * @param unit    The {@link TimeUnit} of the {@code timeout}.
+     * @return {@code true} if all the {@link Message}s were handled, or {@code false} if the timeout elapsed.
+     * @throws InterruptedException If interrupted while waiting.
+     */
+    public boolean awaitTermination(final long timeout, final TimeUnit unit) throws InterruptedException {
+        final long deadline = System.nanoTime() + unit.toNanos(timeout);
+        for (final ExecutorMessageHandler lane : lanes) {
+            if (!lane.awaitTermination(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+
+    /**
+     * Returns the lane of the given {@code key}.
+     *
+     * @param key The key (might be {@code null}).
+     * @return The position of the lane in the {@link #lanes} array.
+     */
+    private int laneOf(final String key) {
+        if (key == null) {
+            return 0;
+        }
+        final int hash = key.hashCode();
+        // Spread the higher bits, as keys usually differ in their last characters.
+        return ((hash ^ (hash >>> 16)) & Integer.MAX_VALUE) % lanes.length;
+    }
+
+
+    /**
+     * A builder for {@link KeyOrderedMessageHandler}.
+     */
+    public static final class Builder {
+
+        /**
+         * The {@link MessageHandler} to which handling is delegated.
+         */
+        private MessageHandler delegate;
+
+        /**
+         * The {@link Function} that extracts the key of a {@link Message}.
+         */
+        private Function<Message, String> keyExtractor;
+
+        /**
+         * The amount of lanes.
+         */
+        private int lanes;
+
+        /**
+         * The max. amount of {@link Message}s waiting to be handled in each lane.
+         */
+        private int queueCapacity;
+
+        /**
+         * The {@link ExecutorMessageHandler.QueueFullPolicy} to apply when a lane is full.
+         */
+        private ExecutorMessageHandler.QueueFullPolicy queueFullPolicy;
+
+        /**
+         * The prefix of the name of the lanes threads.
+         */
+        private String threadName;
+
+
+        /**
+         * Private constructor.
+         * Use {@link Builder#create()} to get an instance of this builder.
+         */
+        private Builder() {
+            clear();
+        }
+
+
+        /**
+         * Configures the {@link MessageHandler} to which handling is delegated.
+         *
+         * @param delegate The delegate {@link MessageHandler}.
+         * @return {@code this} for method chaining.
+         */
+        public Builder delegatingTo(final MessageHandler delegate) {
+            this.delegate = delegate;
+            return this;
+        }
+
+        /**
+         * Configures the {@link Function} that extracts the key of a {@link Message}.
+         *
+         * @param keyExtractor The key extractor (it might return {@code null} for {@link Message}s without key).
+         * @return {@code this} for method chaining.
+         */
+        public Builder keyedBy(final Function<Message, String> keyExtractor) {
+            this.keyExtractor = keyExtractor;
+            return this;
+        }
+
+        /**
+         * Configures the value of the given {@code header} as the key of a {@link Message}.
+         *
+         * @param header The name of the header holding the key.
+         * @return {@code this} for method chaining.
+         */
+        public Builder keyedByHeader(final String header) {
+            Validate.isTrue(header != null, "The header must not be null.");
+            return keyedBy(message -> message.getHeaders().get(header));
+        }
+
+        /**
+         * Configures the value of the given {@link DefinedHeader} as the key of a {@link Message}
+         * (e.g {@link DefinedHeader#REPLIES_TO}).
+         *
+         * @param header The {@link DefinedHeader} holding the key.
+         * @return {@code this} for method chaining.
+         */
+        public Builder keyedByHeader(final DefinedHeader header) {
+            Validate.isTrue(header != null, "The header must not be null.");
+            return keyedBy(message -> message.headerValueOrNull(header));
+        }
+
+        /**
+         * Configures the amount of lanes (defaults to the amount of available processors).
+         *
+         * @param lanes The amount of lanes.
+         * @return {@code this} for method chaining.
+         */
+        public Builder withLanes(final int lanes) {
+            this.lanes = lanes;
+            return this;
+        }
+
+        /**
+         * Configures the max. amount of {@link Message}s waiting to be handled in each lane (defaults to 1024).
+         *
+         * @param queueCapacity The queue capacity of each lane.
+         * @return {@code this} for method chaining.
+         */
+        public Builder withQueueCapacity(final int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+            return this;
+        }
+
+        /**
+         * Configures what to do when a lane is full (defaults to {@link ExecutorMessageHandler.QueueFullPolicy#BLOCK}).
+         *
+         * @param queueFullPolicy The {@link ExecutorMessageHandler.QueueFullPolicy}
+         *                        ({@link ExecutorMessageHandler.QueueFullPolicy#CALLER_RUNS} is not allowed).
+         * @return {@code this} for method chaining.
+         */
+        public Builder onQueueFull(final ExecutorMessageHandler.QueueFullPolicy queueFullPolicy) {
+            this.queueFullPolicy = queueFullPolicy;
+            return this;
+        }
+
+        /**
+         * Configures the prefix of the name of the lanes threads (defaults to {@code "message-lane"}).
+         *
+         * @param threadName The prefix of the name of the threads.
+         * @return {@code this} for method chaining.
+         */
+        public Builder withThreadName(final String threadName) {
+            this.threadName = threadName;
+            return this;
+        }
+
+        /**
+         * Clears this builder.
+         *
+         * @return {@code this} for method chaining.
+         */
+        public Builder clear() {
+            this.delegate = null;
+            this.keyExtractor = null;
+            this.lanes = Runtime.getRuntime().availableProcessors();
+            this.queueCapacity = 1024;
+            this.queueFullPolicy = ExecutorMessageHandler.QueueFullPolicy.BLOCK;
+            this.threadName = "message-lane";
+            return this;
+        }
+
+
+        /**
+         * Builds the configured {@link KeyOrderedMessageHandler}.
+         *
+         * @return The created {@link KeyOrderedMessageHandler} configured by this builder.
+         * @throws IllegalArgumentException If the configuration is invalid (e.g there is no key extractor).
+         */
+        public KeyOrderedMessageHandler build() throws IllegalArgumentException {
+            return new KeyOrderedMessageHandler(
+                    delegate,
+                    keyExtractor,
+                    lanes,
+                    queueCapacity,
+                    queueFullPolicy,
+                    threadName
+            );
+        }
+
+
+        /**
+         * Creates an instance of this builder.
+         *
+         * @return A new instance of this builder.
+         */
+        public static Builder create() {
+            return new Builder();
+        }
+    }
+}
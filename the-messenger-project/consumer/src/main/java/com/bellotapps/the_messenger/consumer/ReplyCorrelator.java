@@ -0,0 +1,391 @@
+package com.bellotapps.the_messenger.consumer;
+
+import com.bellotapps.the_messenger.commons.Message;
+import com.bellotapps.the_messenger.commons.headers.DefinedHeader;
+import org.apache.commons.lang3.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * A {@link MessageHandler} that matches replies with the requests that are waiting for them.
+ * The id of each request {@link Message} is registered before sending it, getting a {@link CompletableFuture}
+ * that is completed with the reply (i.e the {@link Message} whose {@link DefinedHeader#REPLIES_TO} header
+ * has that id) when it is handled by this correlator, or completed exceptionally with a {@link TimeoutException}
+ * if the reply does not arrive in time. Requests that are no longer awaited can be cancelled
+ * (with {@link #cancel(String)}, or by cancelling their {@link CompletableFuture}),
+ * and a request stops being pending as soon as its {@link CompletableFuture} is completed in any way.
+ * <p>
+ * Pending requests are kept in a {@link ConcurrentHashMap}, and timeouts are tracked by a hashed wheel timer,
+ * so registering and matching are lock-free and cheap even with hundreds of thousands of pending requests.
+ * Timeouts have the precision of a tick of the timer.
+ * <p>
+ * This handler is meant to be configured as the handler of reply {@link Message}s
+ * (e.g with {@link TypedMessageHandler.Builder#handleReplyMessageWith(MessageHandler)}).
+ * Replies that match no pending request (e.g because it already timed out) are handled by an
+ * unmatched reply handler.
+ *
+ * @apiNote Futures are completed in the thread that handles the reply, or in the timer thread when they time out,
+ * so dependent actions that take long should be run asynchronously.
+ */
+public class ReplyCorrelator implements MessageHandler, AutoCloseable {
+
+    /**
+     * The {@link Logger}.
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReplyCorrelator.class);
+
+    /**
+     * The pending requests, by id.
+     */
+    private final ConcurrentMap<String, PendingReply> pendingReplies;
+
+    /**
+     * The {@link HashedWheelTimer} that expires the pending requests.
+     */
+    private final HashedWheelTimer timer;
+
+    /**
+     * The default time to wait for a reply, in nanoseconds.
+     */
+    private final long defaultTimeoutNanos;
+
+    /**
+     * The {@link MessageHandler} for replies that match no pending request.
+     */
+    private final MessageHandler unmatchedReplyHandler;
+
+
+    /**
+     * Private constructor.
+     * Use {@link Builder#create()} to get a builder of this correlator.
+     *
+     * @param defaultTimeout        The default time to wait for a reply.
+     * @param tickDuration          The duration of a tick of the timer (i.e the precision of the timeouts).
+     * @param wheelSize             The amount of buckets of the timer.
+     * @param unmatchedReplyHandler The {@link MessageHandler} for replies that match no pending request.
+     * @throws IllegalArgumentException If any argument is invalid.
+     */
+    private ReplyCorrelator(
+            final Duration defaultTimeout,
+            final Duration tickDuration,
+            final int wheelSize,
+            final MessageHandler unmatchedReplyHandler) throws IllegalArgumentException {
+        Validate.isTrue(defaultTimeout != null && !defaultTimeout.isNegative(),
+                "The default timeout must not be null nor negative.");
+        Validate.isTrue(tickDuration != null && !tickDuration.isNegative() && !tickDuration.isZero(),
+                "The tick duration must be positive.");
+        Validate.isTrue(unmatchedReplyHandler != null, "The unmatched reply handler must not be null.");
+        this.pendingReplies = new ConcurrentHashMap<>();
+        this.timer = new HashedWheelTimer(tickDuration.toNanos(), wheelSize, "reply-correlator-timer");
+        this.defaultTimeoutNanos = defaultTimeout.toNanos();
+        this.unmatchedReplyHandler = unmatchedReplyHandler;
+    }
+
+
+    /**
+     * Registers the given request {@code message}, waiting for its reply the default timeout.
+     *
+     * @param message The request {@link Message} (to be sent after registering it).
+     * @return A {@link CompletableFuture} that is completed with the reply.
+     * @throws IllegalArgumentException If the message is null, or if its id is already registered.
+     * @throws IllegalStateException    If this correlator is closed.
+     */
+    public CompletableFuture<Message> register(final Message message)
+            throws IllegalArgumentException, IllegalStateException {
+        Validate.isTrue(message != null, "The message must not be null.");
+        return register(message.getId());
+    }
+
+    /**
+     * Registers the given request {@code messageId}, waiting for its reply the default timeout.
+     *
+     * @param messageId The id of the request {@link Message} (to be sent after registering it).
+     * @return A {@link CompletableFuture} that is completed with the reply.
+     * @throws IllegalArgumentException If the id is null, or if it is already registered.
+     * @throws IllegalStateException    If this correlator is closed.
+     */
+    public CompletableFuture<Message> register(final String messageId)
+            throws IllegalArgumentException, IllegalStateException {
+        return register(messageId, defaultTimeoutNanos);
+    }
+
+    /**
+     * Registers the given request {@code messageId}, waiting for its reply the given {@code timeout}.
+     *
+     * @param messageId The id of the request {@link Message} (to be sent after registering it).
+     * @param timeout   The time to wait for the reply.
+     * @return A {@link CompletableFuture} that is completed with the reply.
+     * @throws IllegalArgumentException If any argument is invalid, or if the id is already registered.
+     * @throws IllegalStateException    If this correlator is closed.
+     */
+    public CompletableFuture<Message> register(final String messageId, final Duration timeout)
+            throws IllegalArgumentException, IllegalStateException {
+        Validate.isTrue(timeout != null && !timeout.isNegative(), "The timeout must not be null nor negative.");
+        return register(messageId, timeout.toNanos());
+    }
+
+    /**
+     * Cancels the request with the given {@code messageId}, so it stops waiting for its reply.
+     *
+     * @param messageId The id of the request {@link Message}.
+     * @return {@code true} if the request was cancelled,
+     * or {@code false} if it was not pending (e.g it was not registered, or it was already completed).
+     */
+    public boolean cancel(final String messageId) {
+        final PendingReply pendingReply = messageId == null ? null : pendingReplies.get(messageId);
+        // Cancelling the future removes the request (see register).
+        return pendingReply != null && pendingReply.future.cancel(false);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @implNote Completes the {@link CompletableFuture} of the request the given {@code message} replies to.
+     */
+    @Override
+    public void handle(final Message message) {
+        if (message == null) {
+            LOGGER.warn("ReplyCorrelator received a null message! Will skip it!");
+            return;
+        }
+        final String repliesTo = message.repliesToOrNull();
+        final PendingReply pendingReply = repliesTo == null ? null : pendingReplies.remove(repliesTo);
+        if (pendingReply == null) {
+            unmatchedReplyHandler.handle(message);
+            return;
+        }
+        pendingReply.future.complete(message);
+    }
+
+    /**
+     * Returns the amount of requests waiting for their replies.
+     *
+     * @return The amount of pending requests.
+     */
+    public int pendingReplies() {
+        return pendingReplies.size();
+    }
+
+    /**
+     * Stops the timer and completes all the pending requests exceptionally with an {@link IllegalStateException}.
+     */
+    @Override
+    public void close() {
+        timer.stop();
+        pendingReplies.values().forEach(pendingReply -> {
+            if (pendingReplies.remove(pendingReply.messageId, pendingReply)) {
+                pendingReply.future.completeExceptionally(new IllegalStateException("The reply correlator was closed"));
+            }
+        });
+    }
+
+
+    /**
+     * Registers the given request {@code messageId}.
+     *
+     * @param messageId    The id of the request {@link Message}.
+     * @param timeoutNanos The time to wait for the reply, in nanoseconds.
+     * @return A {@link CompletableFuture} that is completed with the reply.
+     * @throws IllegalArgumentException If the id is null, or if it is already registered.
+     * @throws IllegalStateException    If this correlator is closed.
+     */
+    private CompletableFuture<Message> register(final String messageId, final long timeoutNanos)
+            throws IllegalArgumentException, IllegalStateException {
+        Validate.isTrue(messageId != null, "The message id must not be null.");
+        final PendingReply pendingReply = new PendingReply(messageId);
+        if (pendingReplies.putIfAbsent(messageId, pendingReply) != null) {
+            throw new IllegalArgumentException("There is already a pending request with id " + messageId);
+        }
+        try {
+            // The timeout is scheduled after the request is visible, so an early expiration always finds it.
+            // If the reply arrives before the timeout is set, the timeout just finds the future already completed.
+            pendingReply.timeout = timer.schedule(pendingReply, timeoutNanos);
+        } catch (final IllegalStateException e) {
+            pendingReplies.remove(messageId, pendingReply);
+            throw e;
+        }
+        // However the future is completed (a reply, a timeout, or by the caller), the request stops being pending.
+        pendingReply.future.whenComplete((reply, failure) -> pendingReply.release());
+        return pendingReply.future;
+    }
+
+
+    /**
+     * A request waiting for its reply. It is also the task that expires it.
+     */
+    private final class PendingReply implements Runnable {
+
+        /**
+         * The id of the request {@link Message}.
+         */
+        private final String messageId;
+
+        /**
+         * The {@link CompletableFuture} to be completed with the reply.
+         */
+        private final CompletableFuture<Message> future;
+
+        /**
+         * The {@link HashedWheelTimer.Timeout} that expires this request (set right after registering it).
+         */
+        private volatile HashedWheelTimer.Timeout timeout;
+
+
+        /**
+         * Constructor.
+         *
+         * @param messageId The id of the request {@link Message}.
+         */
+        private PendingReply(final String messageId) {
+            this.messageId = messageId;
+            this.future = new CompletableFuture<>();
+        }
+
+
+        /**
+         * Stops waiting for the reply, removing this request from the pending ones and cancelling its timeout.
+         */
+        private void release() {
+            pendingReplies.remove(messageId, this);
+            final HashedWheelTimer.Timeout timeout = this.timeout;
+            if (timeout != null) {
+                timeout.cancel();
+            }
+        }
+
+        /**
+         * Expires this request.
+         */
+        @Override
+        public void run() {
+            if (pendingReplies.remove(messageId, this)) {
+                future.completeExceptionally(new TimeoutException("No reply was received for message " + messageId));
+            }
+        }
+    }
+
+
+    /**
+     * A builder for {@link ReplyCorrelator}.
+     */
+    public static final class Builder {
+
+        /**
+         * The default time to wait for a reply.
+         */
+        private Duration defaultTimeout;
+
+        /**
+         * The duration of a tick of the timer.
+         */
+        private Duration tickDuration;
+
+        /**
+         * The amount of buckets of the timer.
+         */
+        private int wheelSize;
+
+        /**
+         * The {@link MessageHandler} for replies that match no pending request.
+         */
+        private MessageHandler unmatchedReplyHandler;
+
+
+        /**
+         * Private constructor.
+         * Use {@link Builder#create()} to get an instance of this builder.
+         */
+        private Builder() {
+            clear();
+        }
+
+
+        /**
+         * Configures the default time to wait for a reply (defaults to 30 seconds).
+         *
+         * @param defaultTimeout The default timeout.
+         * @return {@code this} for method chaining.
+         */
+        public Builder withDefaultTimeout(final Duration defaultTimeout) {
+            this.defaultTimeout = defaultTimeout;
+            return this;
+        }
+
+        /**
+         * Configures the duration of a tick of the timer, which is the precision of the timeouts
+         * (defaults to 100 milliseconds).
+         *
+         * @param tickDuration The duration of a tick.
+         * @return {@code this} for method chaining.
+         */
+        public Builder withTickDuration(final Duration tickDuration) {
+            this.tickDuration = tickDuration;
+            return this;
+        }
+
+        /**
+         * Configures the amount of buckets of the timer, rounded up to a power of two (defaults to 512).
+         * Timeouts longer than a whole turn of the wheel ({@code wheelSize * tickDuration}) are still supported,
+         * but they are visited once per turn.
+         *
+         * @param wheelSize The amount of buckets.
+         * @return {@code this} for method chaining.
+         */
+        public Builder withWheelSize(final int wheelSize) {
+            this.wheelSize = wheelSize;
+            return this;
+        }
+
+        /**
+         * Configures the {@link MessageHandler} for replies that match no pending request
+         * (defaults to a {@link DoNothingMessageHandler}).
+         *
+         * @param unmatchedReplyHandler The {@link MessageHandler} for unmatched replies.
+         * @return {@code this} for method chaining.
+         */
+        public Builder handleUnmatchedRepliesWith(final MessageHandler unmatchedReplyHandler) {
+            this.unmatchedReplyHandler = unmatchedReplyHandler;
+            return this;
+        }
+
+        /**
+         * Clears this builder.
+         *
+         * @return {@code this} for method chaining.
+         */
+        public Builder clear() {
+            this.defaultTimeout = Duration.ofSeconds(30);
+            this.tickDuration = Duration.ofMillis(100);
+            this.wheelSize = 512;
+            this.unmatchedReplyHandler = DoNothingMessageHandler.getInstance();
+            return this;
+        }
+
+
+        /**
+         * Builds the configured {@link ReplyCorrelator}.
+         *
+         * @return The created {@link ReplyCorrelator} configured by this builder.
+         * @throws IllegalArgumentException If the configuration is invalid.
+         */
+        public ReplyCorrelator build() throws IllegalArgumentException {
+            return new ReplyCorrelator(defaultTimeout, tickDuration, wheelSize, unmatchedReplyHandler);
+        }
+
+
+        /**
+         * Creates an instance of this builder.
+         *
+         * @return A new instance of this builder.
+         */
+        public static Builder create() {
+            return new Builder();
+        }
+    }
+}
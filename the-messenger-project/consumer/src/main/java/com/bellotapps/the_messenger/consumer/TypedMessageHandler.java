@@ -7,13 +7,16 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.Collections;
+import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
  * A {@link MessageHandler} for {@link Message}s that have type.
+ * Batches are split by type in a single pass, and each sub-batch is forwarded to the handler of its type.
  */
-public class TypedMessageHandler implements MessageHandler {
+public class TypedMessageHandler implements BatchMessageHandler {
 
     /**
      * The {@link Logger}.
@@ -28,6 +31,12 @@ public class TypedMessageHandler implements MessageHandler {
      * The {@link MessageHandler} for types not contained in the {@link #typedMessageHandlers} {@link Map}.
      */
     private final MessageHandler defaultMessageHandler;
+    /**
+     * A {@link Map} containing the {@link MessageHandler} for each well-known type
+     * (resolved at construction from the {@link #typedMessageHandlers} and the {@link #defaultMessageHandler}),
+     * so well-known types are dispatched without looking up strings.
+     */
+    private final Map<MessageType, MessageHandler> wellKnownTypeHandlers;
 
     /**
      * Constructor.
@@ -41,8 +50,13 @@ public class TypedMessageHandler implements MessageHandler {
             final MessageHandler defaultMessageHandler) {
         Validate.isTrue(typedMessageHandlers != null, "The message handlers map must not be null.");
         Validate.isTrue(defaultMessageHandler != null, "The default message handler must not be null.");
-        this.typedMessageHandlers = Collections.unmodifiableMap(typedMessageHandlers);
+        // Copied, so the handlers can not change after the well-known types are resolved.
+        this.typedMessageHandlers = Collections.unmodifiableMap(new HashMap<>(typedMessageHandlers));
         this.defaultMessageHandler = defaultMessageHandler;
+        this.wellKnownTypeHandlers = new EnumMap<>(MessageType.class);
+        for (final MessageType type : MessageType.values()) {
+            this.wellKnownTypeHandlers.put(type, getHandlerForType(type.serialize()));
+        }
     }
 
     /**
@@ -50,14 +64,42 @@ public class TypedMessageHandler implements MessageHandler {
      */
     @Override
     public void handle(final Message message) {
+        final MessageHandler handler = resolveHandler(message);
+        if (handler != null) {
+            handler.handle(message);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void handleAll(final List<Message> messages) {
+        BatchRouting.routeAll(messages, this::resolveHandler);
+    }
+
+    /**
+     * Resolves the {@link MessageHandler} that must handle the given {@code message}.
+     *
+     * @param message The {@link Message} to be handled.
+     * @return The {@link MessageHandler} for the given {@code message},
+     * or {@code null} if it must be discarded (i.e it is null or it is not typed).
+     */
+    private MessageHandler resolveHandler(final Message message) {
         if (message == null) {
             LOGGER.warn("TypedMessageHandler received a null message! Will skip it!");
-            return;
+            return null;
+        }
+        final MessageType wellKnownType = message.wellKnownTypeOrNull();
+        if (wellKnownType != null) {
+            return wellKnownTypeHandlers.get(wellKnownType);
+        }
+        final String type = message.typeOrNull();
+        if (type == null) {
+            logNonTypedMessageReceived(message);
+            return null;
         }
-        final MessageHandler handler = message.type()
-                .map(this::getHandlerForType)
-                .orElse(TypedMessageHandler::logNonTypedMessageReceived);
-        handler.handle(message);
+        return getHandlerForType(type);
     }
 
     /**
@@ -76,8 +118,6 @@ public class TypedMessageHandler implements MessageHandler {
      * Logs that the given {@code message} is not typed.
      *
      * @param message The non typed {@link Message}.
-     * @apiNote This method can be used as a {@link MessageHandler} when written as a lambda.
-     * @see MessageHandler
      */
     private static void logNonTypedMessageReceived(final Message message) {
         LOGGER.warn(
@@ -0,0 +1,205 @@
+package com.bellotapps.the_messenger.consumer;
+
+import com.bellotapps.the_messenger.commons.Message;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests for the {@link ExecutorMessageHandler}.
+ */
+public class ExecutorMessageHandlerTest {
+
+    /**
+     * The max. time to wait for asynchronous actions, in seconds.
+     */
+    private static final long TIMEOUT_SECONDS = 10;
+
+
+    /**
+     * Tests that closing the handler while callers are blocked on a full queue never loses a {@link Message}:
+     * each one is either handled or rejected.
+     *
+     * @throws InterruptedException Never.
+     */
+    @Test
+    public void testCloseWhileBlockedOnFullQueueHandlesOrRejectsEveryMessage() throws InterruptedException {
+        for (int round = 0; round < 50; round++) {
+            final CountDownLatch gate = new CountDownLatch(1);
+            final AtomicInteger handled = new AtomicInteger();
+            final ExecutorMessageHandler handler = ExecutorMessageHandler.Builder.create()
+                    .delegatingTo(message -> {
+                        awaitQuietly(gate);
+                        handled.incrementAndGet();
+                    })
+                    .withQueueCapacity(1)
+                    .onQueueFull(ExecutorMessageHandler.QueueFullPolicy.BLOCK)
+                    .build();
+            // One message is being handled (waiting for the gate), and another one fills the queue.
+            handler.handle(TestMessage.withId("running"));
+            handler.handle(TestMessage.withId("queued"));
+
+            final AtomicInteger rejected = new AtomicInteger();
+            final List<Thread> producers = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                final Message message = TestMessage.withId("blocked-" + i);
+                final Thread producer = new Thread(() -> {
+                    try {
+                        handler.handle(message);
+                    } catch (final RejectedExecutionException e) {
+                        rejected.incrementAndGet();
+                    }
+                });
+                producer.start();
+                producers.add(producer);
+            }
+            awaitBlocked(producers);
+
+            handler.close();
+            gate.countDown();
+            for (final Thread producer : producers) {
+                producer.join(TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS));
+                Assert.assertFalse("A producer is still blocked after closing", producer.isAlive());
+            }
+            Assert.assertTrue(handler.awaitTermination(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+            Assert.assertEquals("Messages were lost", 2 + producers.size(), handled.get() + rejected.get());
+        }
+    }
+
+    /**
+     * Tests that the {@link ExecutorMessageHandler.QueueFullPolicy#BLOCK} policy blocks the caller
+     * until there is room in the queue.
+     *
+     * @throws InterruptedException Never.
+     */
+    @Test
+    public void testBlockPolicyAppliesBackPressure() throws InterruptedException {
+        final CountDownLatch gate = new CountDownLatch(1);
+        final AtomicInteger handled = new AtomicInteger();
+        final ExecutorMessageHandler handler = ExecutorMessageHandler.Builder.create()
+                .delegatingTo(message -> {
+                    awaitQuietly(gate);
+                    handled.incrementAndGet();
+                })
+                .withQueueCapacity(1)
+                .onQueueFull(ExecutorMessageHandler.QueueFullPolicy.BLOCK)
+                .build();
+        handler.handle(TestMessage.withId("running"));
+        handler.handle(TestMessage.withId("queued"));
+        final Thread producer = new Thread(() -> handler.handle(TestMessage.withId("blocked")));
+        producer.start();
+        awaitBlocked(producer);
+        Assert.assertEquals(1, handler.queuedMessages());
+
+        gate.countDown();
+        producer.join(TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS));
+        Assert.assertFalse(producer.isAlive());
+        handler.close();
+        Assert.assertTrue(handler.awaitTermination(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        Assert.assertEquals(3, handled.get());
+    }
+
+    /**
+     * Tests that the {@link ExecutorMessageHandler.QueueFullPolicy#DROP} policy discards {@link Message}s
+     * when the queue is full, without blocking the caller.
+     *
+     * @throws InterruptedException Never.
+     */
+    @Test
+    public void testDropPolicyDiscardsMessagesWhenFull() throws InterruptedException {
+        final CountDownLatch gate = new CountDownLatch(1);
+        final AtomicInteger handled = new AtomicInteger();
+        final ExecutorMessageHandler handler = ExecutorMessageHandler.Builder.create()
+                .delegatingTo(message -> {
+                    awaitQuietly(gate);
+                    handled.incrementAndGet();
+                })
+                .withQueueCapacity(1)
+                .onQueueFull(ExecutorMessageHandler.QueueFullPolicy.DROP)
+                .build();
+        handler.handle(TestMessage.withId("running"));
+        handler.handle(TestMessage.withId("queued"));
+        handler.handle(TestMessage.withId("dropped"));
+
+        gate.countDown();
+        handler.close();
+        Assert.assertTrue(handler.awaitTermination(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        Assert.assertEquals(2, handled.get());
+    }
+
+    /**
+     * Tests that closing the handler still handles the queued {@link Message}s, but rejects new ones.
+     *
+     * @throws InterruptedException Never.
+     */
+    @Test
+    public void testCloseHandlesQueuedMessagesAndRejectsNewOnes() throws InterruptedException {
+        final CountDownLatch gate = new CountDownLatch(1);
+        final AtomicInteger handled = new AtomicInteger();
+        final ExecutorMessageHandler handler = ExecutorMessageHandler.Builder.create()
+                .delegatingTo(message -> {
+                    awaitQuietly(gate);
+                    handled.incrementAndGet();
+                })
+                .build();
+        for (int i = 0; i < 10; i++) {
+            handler.handle(TestMessage.withId("message-" + i));
+        }
+        handler.close();
+        try {
+            handler.handle(TestMessage.withId("late"));
+            Assert.fail("A message was accepted after closing the handler");
+        } catch (final RejectedExecutionException e) {
+            // Expected
+        }
+        gate.countDown();
+        Assert.assertTrue(handler.awaitTermination(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        Assert.assertEquals(10, handled.get());
+    }
+
+
+    /**
+     * Waits until the given {@code threads} are blocked.
+     *
+     * @param threads The threads.
+     * @throws InterruptedException If interrupted while waiting.
+     */
+    static void awaitBlocked(final List<Thread> threads) throws InterruptedException {
+        for (final Thread thread : threads) {
+            awaitBlocked(thread);
+        }
+    }
+
+    /**
+     * Waits until the given {@code thread} is blocked.
+     *
+     * @param thread The thread.
+     * @throws InterruptedException If interrupted while waiting.
+     */
+    static void awaitBlocked(final Thread thread) throws InterruptedException {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT_SECONDS);
+        while (thread.getState() != Thread.State.WAITING) {
+            Assert.assertTrue("The thread did not block", System.nanoTime() < deadline);
+            Thread.sleep(1);
+        }
+    }
+
+    /**
+     * Waits for the given {@code latch}, restoring the interrupted status if interrupted.
+     *
+     * @param latch The {@link CountDownLatch}.
+     */
+    static void awaitQuietly(final CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
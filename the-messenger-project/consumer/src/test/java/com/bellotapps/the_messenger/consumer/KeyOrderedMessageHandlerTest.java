@@ -0,0 +1,150 @@
+package com.bellotapps.the_messenger.consumer;
+
+import com.bellotapps.the_messenger.commons.Message;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Tests for the {@link KeyOrderedMessageHandler}.
+ */
+public class KeyOrderedMessageHandlerTest {
+
+    /**
+     * The header holding the key of the {@link Message}s.
+     */
+    private static final String KEY_HEADER = "Key";
+
+    /**
+     * The max. time to wait for asynchronous actions, in seconds.
+     */
+    private static final long TIMEOUT_SECONDS = 10;
+
+
+    /**
+     * Tests that {@link Message}s with the same key are handled in the order they were received,
+     * even when they are received from several threads, each one sending its own keys.
+     *
+     * @throws InterruptedException Never.
+     */
+    @Test
+    public void testMessagesWithTheSameKeyAreHandledInOrder() throws InterruptedException {
+        final int keys = 16;
+        final int messagesPerKey = 500;
+        final Map<String, List<String>> handled = new ConcurrentHashMap<>();
+        final KeyOrderedMessageHandler handler = KeyOrderedMessageHandler.Builder.create()
+                .delegatingTo(message -> handled
+                        .computeIfAbsent(message.getHeaders().get(KEY_HEADER),
+                                key -> Collections.synchronizedList(new ArrayList<>()))
+                        .add(message.getId()))
+                .keyedByHeader(KEY_HEADER)
+                .withLanes(4)
+                .withQueueCapacity(8)
+                .build();
+
+        final List<Thread> producers = new ArrayList<>();
+        for (int producer = 0; producer < 4; producer++) {
+            final int firstKey = producer;
+            final Thread thread = new Thread(() -> {
+                for (int i = 0; i < messagesPerKey; i++) {
+                    for (int key = firstKey; key < keys; key += 4) {
+                        handler.handle(TestMessage.withHeader(String.valueOf(i), KEY_HEADER, "key-" + key));
+                    }
+                }
+            });
+            thread.start();
+            producers.add(thread);
+        }
+        for (final Thread producer : producers) {
+            producer.join(TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS));
+        }
+        handler.close();
+        Assert.assertTrue(handler.awaitTermination(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+
+        final List<String> expected = IntStream.range(0, messagesPerKey)
+                .mapToObj(String::valueOf)
+                .collect(Collectors.toList());
+        Assert.assertEquals(keys, handled.size());
+        for (int key = 0; key < keys; key++) {
+            Assert.assertEquals("Messages of key-" + key + " were reordered", expected, handled.get("key-" + key));
+        }
+    }
+
+    /**
+     * Tests that {@link Message}s without key are handled in the order they were received.
+     *
+     * @throws InterruptedException Never.
+     */
+    @Test
+    public void testMessagesWithoutKeyAreHandledInOrder() throws InterruptedException {
+        final List<String> handled = Collections.synchronizedList(new ArrayList<>());
+        final KeyOrderedMessageHandler handler = KeyOrderedMessageHandler.Builder.create()
+                .delegatingTo(message -> handled.add(message.getId()))
+                .keyedByHeader(KEY_HEADER)
+                .withLanes(4)
+                .build();
+        final List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            expected.add(String.valueOf(i));
+            handler.handle(TestMessage.withId(String.valueOf(i)));
+        }
+        handler.close();
+        Assert.assertTrue(handler.awaitTermination(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        Assert.assertEquals(expected, handled);
+    }
+
+    /**
+     * Tests that a slow {@link Message} does not stall those with keys in other lanes.
+     *
+     * @throws InterruptedException Never.
+     */
+    @Test
+    public void testSlowKeyDoesNotStallOtherLanes() throws InterruptedException {
+        final CountDownLatch gate = new CountDownLatch(1);
+        final CountDownLatch otherHandled = new CountDownLatch(1);
+        final KeyOrderedMessageHandler handler = KeyOrderedMessageHandler.Builder.create()
+                .delegatingTo(message -> {
+                    if ("slow".equals(message.getHeaders().get(KEY_HEADER))) {
+                        ExecutorMessageHandlerTest.awaitQuietly(gate);
+                    } else {
+                        otherHandled.countDown();
+                    }
+                })
+                .keyedByHeader(KEY_HEADER)
+                .withLanes(2)
+                .build();
+        handler.handle(TestMessage.withHeader("slow", KEY_HEADER, "slow"));
+        // At least one of these keys is hashed to the lane that is not blocked
+        for (int key = 0; key < 16; key++) {
+            handler.handle(TestMessage.withHeader("other-" + key, KEY_HEADER, "key-" + key));
+        }
+        Assert.assertTrue("Other lanes were stalled by the slow message",
+                otherHandled.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        gate.countDown();
+        handler.close();
+        Assert.assertTrue(handler.awaitTermination(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+    }
+
+    /**
+     * Tests that the {@link ExecutorMessageHandler.QueueFullPolicy#CALLER_RUNS} policy is not allowed,
+     * as it would break the order.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testCallerRunsPolicyIsNotAllowed() {
+        KeyOrderedMessageHandler.Builder.create()
+                .delegatingTo(message -> {
+                })
+                .keyedByHeader(KEY_HEADER)
+                .onQueueFull(ExecutorMessageHandler.QueueFullPolicy.CALLER_RUNS)
+                .build();
+    }
+}
@@ -0,0 +1,190 @@
+package com.bellotapps.the_messenger.consumer;
+
+import com.bellotapps.the_messenger.commons.Message;
+import com.bellotapps.the_messenger.commons.headers.DefinedHeader;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Tests for the {@link ReplyCorrelator}.
+ */
+public class ReplyCorrelatorTest {
+
+    /**
+     * The max. time to wait for asynchronous actions, in seconds.
+     */
+    private static final long TIMEOUT_SECONDS = 10;
+
+
+    /**
+     * Tests that a reply completes the {@link CompletableFuture} of the request it replies to.
+     *
+     * @throws Exception Never.
+     */
+    @Test
+    public void testReplyCompletesTheRequest() throws Exception {
+        try (final ReplyCorrelator correlator = ReplyCorrelator.Builder.create().build()) {
+            final CompletableFuture<Message> future = correlator.register("request");
+            Assert.assertEquals(1, correlator.pendingReplies());
+
+            final Message reply = replyTo("request");
+            correlator.handle(reply);
+            Assert.assertSame(reply, future.get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+            Assert.assertEquals(0, correlator.pendingReplies());
+        }
+    }
+
+    /**
+     * Tests that a request whose reply does not arrive in time is completed with a {@link TimeoutException},
+     * and that a late reply is handled as unmatched.
+     *
+     * @throws Exception Never.
+     */
+    @Test
+    public void testRequestTimesOut() throws Exception {
+        final List<Message> unmatched = Collections.synchronizedList(new ArrayList<>());
+        try (final ReplyCorrelator correlator = ReplyCorrelator.Builder.create()
+                .withDefaultTimeout(Duration.ofMillis(50))
+                .withTickDuration(Duration.ofMillis(10))
+                .handleUnmatchedRepliesWith(unmatched::add)
+                .build()) {
+            final long start = System.nanoTime();
+            final CompletableFuture<Message> future = correlator.register("request");
+            assertFailsWith(TimeoutException.class, future);
+            Assert.assertTrue("The request timed out too early",
+                    System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(50));
+            Assert.assertEquals(0, correlator.pendingReplies());
+
+            final Message lateReply = replyTo("request");
+            correlator.handle(lateReply);
+            Assert.assertEquals(Collections.singletonList(lateReply), unmatched);
+        }
+    }
+
+    /**
+     * Tests that a request can be registered with its own timeout, instead of the default one.
+     *
+     * @throws Exception Never.
+     */
+    @Test
+    public void testRequestTimesOutWithItsOwnTimeout() throws Exception {
+        try (final ReplyCorrelator correlator = ReplyCorrelator.Builder.create()
+                .withTickDuration(Duration.ofMillis(10))
+                .build()) {
+            final CompletableFuture<Message> shortLived = correlator.register("short", Duration.ofMillis(30));
+            final CompletableFuture<Message> longLived = correlator.register("long");
+            assertFailsWith(TimeoutException.class, shortLived);
+            Assert.assertFalse(longLived.isDone());
+            Assert.assertEquals(1, correlator.pendingReplies());
+        }
+    }
+
+    /**
+     * Tests that a cancelled request is no longer pending, and that its reply is handled as unmatched.
+     *
+     * @throws Exception Never.
+     */
+    @Test
+    public void testCancelledRequestIsNoLongerPending() throws Exception {
+        final List<Message> unmatched = Collections.synchronizedList(new ArrayList<>());
+        try (final ReplyCorrelator correlator = ReplyCorrelator.Builder.create()
+                .handleUnmatchedRepliesWith(unmatched::add)
+                .build()) {
+            final CompletableFuture<Message> future = correlator.register("request");
+            Assert.assertTrue(correlator.cancel("request"));
+            Assert.assertTrue(future.isCancelled());
+            Assert.assertEquals(0, correlator.pendingReplies());
+            Assert.assertFalse("A request was cancelled twice", correlator.cancel("request"));
+
+            final Message reply = replyTo("request");
+            correlator.handle(reply);
+            Assert.assertEquals(Collections.singletonList(reply), unmatched);
+        }
+    }
+
+    /**
+     * Tests that cancelling the {@link CompletableFuture} of a request (instead of the request itself)
+     * also stops waiting for the reply, and allows registering the id again.
+     */
+    @Test
+    public void testCancellingTheFutureReleasesTheRequest() {
+        try (final ReplyCorrelator correlator = ReplyCorrelator.Builder.create().build()) {
+            Assert.assertTrue(correlator.register("request").cancel(false));
+            Assert.assertEquals(0, correlator.pendingReplies());
+            Assert.assertFalse(correlator.cancel("request"));
+            Assert.assertFalse(correlator.register("request").isDone());
+        }
+    }
+
+    /**
+     * Tests that an id can not be registered twice while it is pending.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testDuplicatedRequestIsRejected() {
+        try (final ReplyCorrelator correlator = ReplyCorrelator.Builder.create().build()) {
+            correlator.register("request");
+            correlator.register("request");
+        }
+    }
+
+    /**
+     * Tests that closing the correlator completes the pending requests with an {@link IllegalStateException},
+     * and rejects new ones.
+     *
+     * @throws Exception Never.
+     */
+    @Test
+    public void testCloseCompletesPendingRequests() throws Exception {
+        final ReplyCorrelator correlator = ReplyCorrelator.Builder.create().build();
+        final CompletableFuture<Message> future = correlator.register("request");
+        correlator.close();
+        assertFailsWith(IllegalStateException.class, future);
+        Assert.assertEquals(0, correlator.pendingReplies());
+        try {
+            correlator.register("other");
+            Assert.fail("A request was registered after closing the correlator");
+        } catch (final IllegalStateException e) {
+            // Expected
+        }
+    }
+
+
+    /**
+     * Creates a reply to the request with the given {@code requestId}.
+     *
+     * @param requestId The id of the request.
+     * @return The reply {@link Message}.
+     */
+    private static Message replyTo(final String requestId) {
+        return TestMessage.withHeader("reply-" + requestId, DefinedHeader.REPLIES_TO.serialize(), requestId);
+    }
+
+    /**
+     * Asserts that the given {@code future} is completed exceptionally with the given type of failure.
+     *
+     * @param failureType The expected type of failure.
+     * @param future      The {@link CompletableFuture}.
+     * @throws Exception If the {@code future} is not completed in time, or it is cancelled.
+     */
+    private static void assertFailsWith(final Class<? extends Throwable> failureType,
+                                        final CompletableFuture<Message> future) throws Exception {
+        try {
+            future.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            Assert.fail("The future was completed normally");
+        } catch (final ExecutionException e) {
+            Assert.assertTrue("Unexpected failure " + e.getCause(), failureType.isInstance(e.getCause()));
+        } catch (final CancellationException e) {
+            throw new AssertionError("The future was cancelled", e);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.bellotapps.the_messenger.consumer;
+
+import com.bellotapps.the_messenger.commons.AbstractMessage;
+import com.bellotapps.the_messenger.commons.Message;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A {@link Message} to be used in tests.
+ */
+final class TestMessage extends AbstractMessage {
+
+    /**
+     * Constructor.
+     *
+     * @param id      The message's id.
+     * @param headers The message headers.
+     * @param payload The message payload.
+     */
+    private TestMessage(final String id, final Map<String, String> headers, final String payload) {
+        super(id, "test-sender", Instant.now(), headers, payload);
+    }
+
+
+    /**
+     * Creates a {@link Message} with the given {@code id}, without headers nor payload.
+     *
+     * @param id The message's id.
+     * @return The created {@link Message}.
+     */
+    static Message withId(final String id) {
+        return new TestMessage(id, Collections.emptyMap(), null);
+    }
+
+    /**
+     * Creates a {@link Message} with the given {@code id} and a single header.
+     *
+     * @param id    The message's id.
+     * @param name  The name of the header.
+     * @param value The value of the header.
+     * @return The created {@link Message}.
+     */
+    static Message withHeader(final String id, final String name, final String value) {
+        final Map<String, String> headers = new HashMap<>();
+        headers.put(name, value);
+        return new TestMessage(id, headers, null);
+    }
+}
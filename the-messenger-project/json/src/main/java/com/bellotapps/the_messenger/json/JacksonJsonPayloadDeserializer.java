@@ -1,47 +1,119 @@
 package com.bellotapps.the_messenger.json;
 
+import com.bellotapps.the_messenger.commons.payload.BytesPayloadDeserializer;
 import com.bellotapps.the_messenger.commons.payload.PayloadDeserializationException;
 import com.bellotapps.the_messenger.commons.payload.PayloadDeserializer;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
 import org.apache.commons.lang3.Validate;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.Optional;
 
 /**
- * A {@link PayloadDeserializer} that delegates deserialization to a Jackson's {@link ObjectMapper}.
+ * A {@link PayloadDeserializer} that delegates deserialization to a Jackson's {@link ObjectReader},
+ * created once from an {@link ObjectMapper} for the type to instantiate.
+ * It is also a {@link BytesPayloadDeserializer}, which parses UTF-8 bytes directly (without decoding them first).
+ *
+ * @implNote The {@link ObjectReader} is bound to the target type when this deserializer is created,
+ * so the root deserializer is resolved once instead of on each call.
  */
-public class JacksonJsonPayloadDeserializer<T> implements PayloadDeserializer<T>, JsonContentTypeHandler {
+public class JacksonJsonPayloadDeserializer<T>
+        implements PayloadDeserializer<T>, BytesPayloadDeserializer<T>, JsonContentTypeHandler {
 
     /**
-     * The {@link ObjectMapper} to which the deserialization is delegated to.
+     * The {@link ObjectReader} to which the deserialization is delegated to.
      */
-    private final ObjectMapper objectMapper;
+    private final ObjectReader objectReader;
 
     /**
-     * {@link Class} to be instantiated when deserializing.
+     * The raw {@link Class} to be instantiated when deserializing (used to report errors).
      */
-    private final Class<T> classToInstantiate;
+    private final Class<?> classToInstantiate;
 
     /**
      * Constructor.
      *
-     * @param objectMapper       The {@link ObjectMapper} to which dethe serialization is delegated to.
+     * @param objectMapper       The {@link ObjectMapper} from which the {@link ObjectReader} is created.
      * @param classToInstantiate {@link Class} to be instantiated when deserializing.
      */
     public JacksonJsonPayloadDeserializer(final ObjectMapper objectMapper, final Class<T> classToInstantiate) {
         Validate.isTrue(objectMapper != null, "The object mapper must not be null");
         Validate.isTrue(classToInstantiate != null, "The class to instantiate must not be null");
-        this.objectMapper = objectMapper;
+        this.objectReader = objectMapper.readerFor(classToInstantiate);
         this.classToInstantiate = classToInstantiate;
     }
 
+    /**
+     * Constructor.
+     *
+     * @param objectMapper The {@link ObjectMapper} from which the {@link ObjectReader} is created.
+     * @param typeToRead   The (possibly generic) {@link JavaType} to be instantiated when deserializing.
+     * @apiNote The caller must ensure that {@code typeToRead} represents {@code T}.
+     */
+    public JacksonJsonPayloadDeserializer(final ObjectMapper objectMapper, final JavaType typeToRead) {
+        Validate.isTrue(objectMapper != null, "The object mapper must not be null");
+        Validate.isTrue(typeToRead != null, "The type to read must not be null");
+        this.objectReader = objectMapper.readerFor(typeToRead);
+        this.classToInstantiate = typeToRead.getRawClass();
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param objectMapper The {@link ObjectMapper} from which the {@link ObjectReader} is created.
+     * @param typeToRead   A {@link TypeReference} to the (possibly generic) type to be instantiated
+     *                     when deserializing.
+     */
+    public JacksonJsonPayloadDeserializer(final ObjectMapper objectMapper, final TypeReference<T> typeToRead) {
+        this(objectMapper, typeOf(objectMapper, typeToRead));
+    }
+
     @Override
     public T deserialize(final String string) throws PayloadDeserializationException {
         try {
-            return objectMapper.readValue(Optional.ofNullable(string).orElse("null"), classToInstantiate);
+            return objectReader.readValue(Optional.ofNullable(string).orElse("null"));
         } catch (final IOException e) {
             throw new PayloadDeserializationException(string, classToInstantiate, e);
         }
     }
+
+    @Override
+    public T deserializeBytes(final ByteBuffer bytes) throws PayloadDeserializationException {
+        try {
+            if (bytes.hasArray()) {
+                return objectReader.readValue(
+                        bytes.array(),
+                        bytes.arrayOffset() + bytes.position(),
+                        bytes.remaining()
+                );
+            }
+            return objectReader.readValue(new ByteBufferBackedInputStream(bytes.duplicate()));
+        } catch (final IOException e) {
+            throw new PayloadDeserializationException(
+                    StandardCharsets.UTF_8.decode(bytes.duplicate()).toString(),
+                    classToInstantiate,
+                    e
+            );
+        }
+    }
+
+
+    /**
+     * Resolves the {@link JavaType} referenced by the given {@code typeReference}.
+     *
+     * @param objectMapper  The {@link ObjectMapper} whose type factory is used.
+     * @param typeReference The {@link TypeReference} to be resolved.
+     * @return The resolved {@link JavaType}.
+     */
+    private static JavaType typeOf(final ObjectMapper objectMapper, final TypeReference<?> typeReference) {
+        Validate.isTrue(objectMapper != null, "The object mapper must not be null");
+        Validate.isTrue(typeReference != null, "The type reference must not be null");
+        return objectMapper.getTypeFactory().constructType(typeReference);
+    }
 }
@@ -1,45 +1,112 @@
 package com.bellotapps.the_messenger.json;
 
+import com.bellotapps.the_messenger.commons.payload.BytesPayloadSerializer;
 import com.bellotapps.the_messenger.commons.payload.PayloadSerializationException;
 import com.bellotapps.the_messenger.commons.payload.PayloadSerializer;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import org.apache.commons.lang3.Validate;
 
+import java.lang.reflect.Modifier;
+
 /**
- * A {@link PayloadSerializer} that delegates serialization to a Jackson's {@link ObjectMapper}.
+ * A {@link PayloadSerializer} that delegates serialization to a Jackson's {@link ObjectWriter},
+ * created once from an {@link ObjectMapper}.
+ * It is also a {@link BytesPayloadSerializer}, which writes UTF-8 bytes directly.
+ *
+ * @implNote When the type to serialize is known to be the runtime type of the objects (i.e it is a final class,
+ * or it was explicitly given as a {@link JavaType} or {@link TypeReference}), the {@link ObjectWriter}
+ * is bound to it, so the root serializer is resolved once instead of on each call.
+ * Otherwise, the runtime type is used (as {@link ObjectMapper#writeValueAsString(Object)} does),
+ * so subclasses are serialized with all their properties.
  */
-public class JacksonJsonPayloadSerializer<T> implements PayloadSerializer<T>, JsonContentTypeHandler {
+public class JacksonJsonPayloadSerializer<T>
+        implements PayloadSerializer<T>, BytesPayloadSerializer<T>, JsonContentTypeHandler {
 
     /**
-     * The {@link ObjectMapper} to which the serialization is delegated to.
+     * The {@link ObjectWriter} to which the serialization is delegated to.
      */
-    private final ObjectMapper objectMapper;
+    private final ObjectWriter objectWriter;
 
     /**
-     * The class that was tried to be serialized.
+     * The raw class that was tried to be serialized (used to report errors).
      */
-    private final Class<T> classToSerialize;
+    private final Class<?> classToSerialize;
 
     /**
      * Constructor.
      *
-     * @param objectMapper     The {@link ObjectMapper} to which the serialization is delegated to.
+     * @param objectMapper     The {@link ObjectMapper} from which the {@link ObjectWriter} is created.
      * @param classToSerialize The class that was tried to be serialized.
      */
     public JacksonJsonPayloadSerializer(final ObjectMapper objectMapper, final Class<T> classToSerialize) {
         Validate.isTrue(objectMapper != null, "The object mapper must not be null");
         Validate.isTrue(classToSerialize != null, "The class to serialize must not be null");
-        this.objectMapper = objectMapper;
+        this.objectWriter = Modifier.isFinal(classToSerialize.getModifiers()) ?
+                objectMapper.writerFor(classToSerialize) :
+                objectMapper.writer();
         this.classToSerialize = classToSerialize;
     }
 
+    /**
+     * Constructor.
+     *
+     * @param objectMapper    The {@link ObjectMapper} from which the {@link ObjectWriter} is created.
+     * @param typeToSerialize The (possibly generic) {@link JavaType} of the objects to be serialized.
+     * @apiNote The caller must ensure that {@code typeToSerialize} represents {@code T}.
+     * Objects are serialized as {@code typeToSerialize} (i.e properties only defined in subclasses are ignored).
+     */
+    public JacksonJsonPayloadSerializer(final ObjectMapper objectMapper, final JavaType typeToSerialize) {
+        Validate.isTrue(objectMapper != null, "The object mapper must not be null");
+        Validate.isTrue(typeToSerialize != null, "The type to serialize must not be null");
+        this.objectWriter = objectMapper.writerFor(typeToSerialize);
+        this.classToSerialize = typeToSerialize.getRawClass();
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param objectMapper    The {@link ObjectMapper} from which the {@link ObjectWriter} is created.
+     * @param typeToSerialize A {@link TypeReference} to the (possibly generic) type of the objects to be serialized.
+     * @apiNote Objects are serialized as {@code typeToSerialize}
+     * (i.e properties only defined in subclasses are ignored).
+     */
+    public JacksonJsonPayloadSerializer(final ObjectMapper objectMapper, final TypeReference<T> typeToSerialize) {
+        this(objectMapper, typeOf(objectMapper, typeToSerialize));
+    }
+
     @Override
     public String serialize(final T object) throws PayloadSerializationException {
         try {
-            return objectMapper.writeValueAsString(object);
+            return objectWriter.writeValueAsString(object);
         } catch (final JsonProcessingException e) {
             throw new PayloadSerializationException(classToSerialize, e);
         }
     }
+
+    @Override
+    public byte[] serializeToBytes(final T object) throws PayloadSerializationException {
+        try {
+            return objectWriter.writeValueAsBytes(object);
+        } catch (final JsonProcessingException e) {
+            throw new PayloadSerializationException(classToSerialize, e);
+        }
+    }
+
+
+    /**
+     * Resolves the {@link JavaType} referenced by the given {@code typeReference}.
+     *
+     * @param objectMapper  The {@link ObjectMapper} whose type factory is used.
+     * @param typeReference The {@link TypeReference} to be resolved.
+     * @return The resolved {@link JavaType}.
+     */
+    private static JavaType typeOf(final ObjectMapper objectMapper, final TypeReference<?> typeReference) {
+        Validate.isTrue(objectMapper != null, "The object mapper must not be null");
+        Validate.isTrue(typeReference != null, "The type reference must not be null");
+        return objectMapper.getTypeFactory().constructType(typeReference);
+    }
 }
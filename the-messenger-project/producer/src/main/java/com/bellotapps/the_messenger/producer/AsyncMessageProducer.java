@@ -0,0 +1,26 @@
+package com.bellotapps.the_messenger.producer;
+
+import com.bellotapps.the_messenger.commons.Message;
+
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Defines behaviour for objects that can send {@link Message}s asynchronously,
+ * allowing several sends to be in flight at the same time.
+ *
+ * @see ExecutorAsyncMessageProducer
+ */
+public interface AsyncMessageProducer {
+
+    /**
+     * Sends the given {@code message} to the given {@code recipient} asynchronously.
+     *
+     * @param message   The {@link Message} to be sent.
+     * @param recipient The destination of the given {@code message}.
+     * @return A {@link CompletionStage} that is completed with a {@link SendResult} when the message is sent,
+     * or exceptionally if it could not be sent.
+     * @throws IllegalArgumentException If the given {@code message} or {@code recipient} are null.
+     */
+    CompletionStage<SendResult> sendAsync(final Message message, final String recipient)
+            throws IllegalArgumentException;
+}
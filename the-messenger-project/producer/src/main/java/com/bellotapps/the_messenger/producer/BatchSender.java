@@ -0,0 +1,23 @@
+package com.bellotapps.the_messenger.producer;
+
+import com.bellotapps.the_messenger.commons.Message;
+
+import java.util.List;
+
+/**
+ * Defines behaviour for objects that can send several {@link Message}s to the same recipient at once
+ * (e.g transports that support batch writes).
+ *
+ * @see BatchingMessageProducer
+ */
+@FunctionalInterface
+public interface BatchSender {
+
+    /**
+     * Sends the given {@code messages} to the given {@code recipient}, in order.
+     *
+     * @param messages  The {@link Message}s to be sent (never empty).
+     * @param recipient The destination of the given {@code messages}.
+     */
+    void accept(final List<Message> messages, final String recipient);
+}
@@ -0,0 +1,750 @@
+package com.bellotapps.the_messenger.producer;
+
+import com.bellotapps.the_messenger.commons.Message;
+import org.apache.commons.lang3.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.ToIntFunction;
+
+/**
+ * A {@link MessageProducer} that accumulates {@link Message}s per recipient, and sends them in batches
+ * through a {@link BatchSender}. A recipient's batch is sent when it reaches a max. amount of messages,
+ * a max. amount of bytes, or when its first message has been waiting for the linger time.
+ * The amount of buffered messages is bounded: when it is reached, sending blocks until a batch is sent.
+ * <p>
+ * Batches are sent without holding any lock, so a slow {@link BatchSender} does not block the threads that keep
+ * buffering {@link Message}s. A full batch is sent by the thread whose {@link Message} filled it, and a batch whose
+ * linger time expires is sent by a scheduler thread. If a recipient's batch is being sent when the next one is
+ * ready, the thread sending the former also sends the latter, so {@link Message}s to the same recipient are always
+ * sent in the order they were received.
+ * <p>
+ * Failures are reported per {@link Message}: the stages returned by {@link #sendAsync(Message, String)}
+ * are completed exceptionally, and the failures of {@link Message}s sent with {@link #send(Message, String)}
+ * are logged.
+ * Use {@link Builder#create()} to get a builder of this producer.
+ */
+public class BatchingMessageProducer implements MessageProducer, AsyncMessageProducer, AutoCloseable {
+
+    /**
+     * The {@link Logger}.
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(BatchingMessageProducer.class);
+
+    /**
+     * The {@link BatchSender} to which batches are sent.
+     */
+    private final BatchSender batchSender;
+
+    /**
+     * The max. amount of {@link Message}s of a batch.
+     */
+    private final int maxBatchMessages;
+
+    /**
+     * The max. amount of bytes of a batch (as estimated by the {@link #sizeEstimator}).
+     */
+    private final long maxBatchBytes;
+
+    /**
+     * The max. amount of nanoseconds a {@link Message} waits in a batch before it is sent.
+     */
+    private final long lingerNanos;
+
+    /**
+     * A function that estimates the amount of bytes of a {@link Message}.
+     */
+    private final ToIntFunction<Message> sizeEstimator;
+
+    /**
+     * The permits of {@link Message}s that can be buffered.
+     */
+    private final Semaphore bufferPermits;
+
+    /**
+     * The {@link ScheduledExecutorService} in which linger timeouts are scheduled.
+     */
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * Indicates whether the {@link #scheduler} was created by this producer (and so it must be shut down with it).
+     */
+    private final boolean ownsScheduler;
+
+    /**
+     * The buffered {@link Message}s of each recipient
+     * (a recipient is removed once its buffered {@link Message}s are sent, so the map does not grow unbounded).
+     */
+    private final ConcurrentMap<String, RecipientBuffer> buffers;
+
+    /**
+     * Lock that makes closing this producer exclusive with adding {@link Message}s to the buffers
+     * (its read lock is held while adding, and its write lock while marking this producer as closed),
+     * so no {@link Message} can be buffered after the final flush.
+     */
+    private final ReadWriteLock closeLock;
+
+    /**
+     * Indicates whether this producer is closed.
+     */
+    private volatile boolean closed;
+
+
+    /**
+     * Private constructor.
+     * Use {@link Builder#create()} to get a builder of this producer.
+     *
+     * @param batchSender         The {@link BatchSender} to which batches are sent.
+     * @param maxBatchMessages    The max. amount of {@link Message}s of a batch.
+     * @param maxBatchBytes       The max. amount of bytes of a batch.
+     * @param linger              The max. time a {@link Message} waits in a batch before it is sent.
+     * @param maxBufferedMessages The max. amount of {@link Message}s that can be buffered.
+     * @param sizeEstimator       A function that estimates the amount of bytes of a {@link Message}.
+     * @param scheduler           The {@link ScheduledExecutorService} in which linger timeouts are scheduled,
+     *                            or {@code null} to create one.
+     * @throws IllegalArgumentException If any argument is invalid.
+     */
+    private BatchingMessageProducer(
+            final BatchSender batchSender,
+            final int maxBatchMessages,
+            final long maxBatchBytes,
+            final Duration linger,
+            final int maxBufferedMessages,
+            final ToIntFunction<Message> sizeEstimator,
+            final ScheduledExecutorService scheduler) throws IllegalArgumentException {
+        Validate.isTrue(batchSender != null, "The batch sender must not be null");
+        Validate.isTrue(maxBatchMessages > 0, "The max. amount of messages of a batch must be positive");
+        Validate.isTrue(maxBatchBytes > 0, "The max. amount of bytes of a batch must be positive");
+        Validate.isTrue(linger != null && !linger.isNegative(), "The linger time must not be null nor negative");
+        Validate.isTrue(maxBufferedMessages > 0, "The max. amount of buffered messages must be positive");
+        Validate.isTrue(sizeEstimator != null, "The size estimator must not be null");
+        this.batchSender = batchSender;
+        this.maxBatchMessages = maxBatchMessages;
+        this.maxBatchBytes = maxBatchBytes;
+        this.lingerNanos = linger.toNanos();
+        this.sizeEstimator = sizeEstimator;
+        this.bufferPermits = new Semaphore(maxBufferedMessages);
+        this.ownsScheduler = scheduler == null;
+        this.scheduler = ownsScheduler ? Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "batching-message-producer-linger");
+            thread.setDaemon(true);
+            return thread;
+        }) : scheduler;
+        this.buffers = new ConcurrentHashMap<>();
+        this.closeLock = new ReentrantReadWriteLock();
+        this.closed = false;
+    }
+
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws IllegalStateException If this producer is closed,
+     *                               or if the calling thread is interrupted while waiting for buffer space
+     *                               (in which case the interrupted status is restored).
+     * @implNote If this message completes a batch, the batch is sent in the calling thread.
+     * If the batch can not be sent, the failure is logged (use {@link #sendAsync(Message, String)}
+     * to handle the failures).
+     */
+    @Override
+    public void send(final Message message, final String recipient)
+            throws IllegalArgumentException, IllegalStateException {
+        buffer(message, recipient, null);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @implNote If this message completes a batch, the batch is sent in the calling thread.
+     * The returned stage is completed when the batch of the message is sent (in the thread that sends it),
+     * or exceptionally if the batch can not be sent, if this producer is closed,
+     * or if the calling thread is interrupted while waiting for buffer space
+     * (in which case the interrupted status is restored).
+     */
+    @Override
+    public CompletionStage<SendResult> sendAsync(final Message message, final String recipient)
+            throws IllegalArgumentException {
+        final CompletableFuture<SendResult> result = new CompletableFuture<>();
+        try {
+            buffer(message, recipient, result);
+        } catch (final IllegalStateException e) {
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    /**
+     * Sends all the buffered {@link Message}s, waiting until they are sent.
+     */
+    public void flush() {
+        buffers.values().forEach(RecipientBuffer::flush);
+    }
+
+    /**
+     * Closes this producer, sending all the buffered {@link Message}s.
+     * Afterwards, no more {@link Message}s can be sent with it.
+     *
+     * @implNote Waits for the {@link Message}s that are being added to the buffers, so they are sent too.
+     */
+    @Override
+    public void close() {
+        closeLock.writeLock().lock();
+        try {
+            closed = true;
+        } finally {
+            closeLock.writeLock().unlock();
+        }
+        flush();
+        if (ownsScheduler) {
+            scheduler.shutdownNow();
+        }
+    }
+
+
+    /**
+     * Adds the given {@code message} to the buffer of the given {@code recipient},
+     * sending the batch if the message completes it.
+     *
+     * @param message   The {@link Message} to be sent.
+     * @param recipient The destination of the given {@code message}.
+     * @param result    The {@link CompletableFuture} to be completed when the {@code message} is sent,
+     *                  or {@code null} if failures must be logged.
+     * @throws IllegalArgumentException If the given {@code message} or {@code recipient} are null.
+     * @throws IllegalStateException    If this producer is closed,
+     *                                  or if the calling thread is interrupted while waiting for buffer space.
+     */
+    private void buffer(final Message message, final String recipient, final CompletableFuture<SendResult> result)
+            throws IllegalArgumentException, IllegalStateException {
+        Validate.isTrue(message != null, "The message must not be null");
+        Validate.isTrue(recipient != null, "The recipient must not be null");
+        if (closed) {
+            throw new IllegalStateException("The producer is closed");
+        }
+        try {
+            bufferPermits.acquire();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for buffer space", e);
+        }
+        RecipientBuffer buffer;
+        AddResult added;
+        closeLock.readLock().lock();
+        try {
+            // Checked again, as the producer might have been closed while waiting for buffer space.
+            if (closed) {
+                bufferPermits.release();
+                throw new IllegalStateException("The producer is closed");
+            }
+            // Retried if the buffer is removed right after getting it.
+            do {
+                buffer = buffers.computeIfAbsent(recipient, RecipientBuffer::new);
+                added = buffer.add(message, result);
+            } while (added == AddResult.REMOVED);
+        } finally {
+            closeLock.readLock().unlock();
+        }
+        // Sent after releasing the lock, so closing this producer does not wait for the send.
+        if (added == AddResult.MUST_SEND) {
+            buffer.sendPendingBatches();
+        }
+    }
+
+    /**
+     * Default size estimator, that uses the length of the payload.
+     *
+     * @param message The {@link Message} whose size is estimated.
+     * @return The estimated size.
+     */
+    private static int estimatePayloadSize(final Message message) {
+        final String payload = message.getPayload();
+        return payload == null ? 0 : payload.length();
+    }
+
+
+    /**
+     * The outcome of adding a {@link Message} to a {@link RecipientBuffer}.
+     */
+    private enum AddResult {
+        /**
+         * The {@link Message} was buffered, and there is nothing to be sent by the caller.
+         */
+        BUFFERED,
+        /**
+         * The {@link Message} completed a batch, which must be sent by the caller
+         * (see {@link RecipientBuffer#sendPendingBatches()}).
+         */
+        MUST_SEND,
+        /**
+         * The buffer was removed, so the {@link Message} must be added to a new one.
+         */
+        REMOVED,
+    }
+
+
+    /**
+     * The buffered {@link Message}s of a recipient.
+     * Batches are taken under the monitor of the buffer and queued, and then sent without holding it,
+     * by a single thread at a time (the one that takes a batch when no other one is being sent).
+     */
+    private final class RecipientBuffer {
+
+        /**
+         * The recipient of the buffered {@link Message}s.
+         */
+        private final String recipient;
+
+        /**
+         * The {@link Message}s of the current batch.
+         */
+        private List<Message> messages;
+
+        /**
+         * The {@link CompletableFuture}s of the {@link #messages} (with {@code null} for those whose
+         * failures must be logged).
+         */
+        private List<CompletableFuture<SendResult>> results;
+
+        /**
+         * The estimated amount of bytes of the current batch.
+         */
+        private long bytes;
+
+        /**
+         * The amount of batches taken from this buffer (i.e the number of the current batch, used to discard linger
+         * timeouts of batches that were already taken).
+         */
+        private long generation;
+
+        /**
+         * The batches that were taken, waiting to be sent (in order).
+         */
+        private final Queue<Batch> pendingBatches;
+
+        /**
+         * The amount of batches that were sent (or failed to be sent).
+         */
+        private long sentBatches;
+
+        /**
+         * Indicates whether a thread is sending the {@link #pendingBatches}.
+         */
+        private boolean sending;
+
+        /**
+         * Indicates whether this buffer was removed from the {@link #buffers} (so it does not accept messages).
+         */
+        private boolean removed;
+
+
+        /**
+         * Constructor.
+         *
+         * @param recipient The recipient of the buffered {@link Message}s.
+         */
+        private RecipientBuffer(final String recipient) {
+            this.recipient = recipient;
+            this.messages = new ArrayList<>();
+            this.results = new ArrayList<>();
+            this.bytes = 0;
+            this.generation = 0;
+            this.pendingBatches = new ArrayDeque<>();
+            this.sentBatches = 0;
+            this.sending = false;
+            this.removed = false;
+        }
+
+
+        /**
+         * Adds the given {@code message} to the current batch, taking it if it is full.
+         *
+         * @param message The {@link Message} to be added.
+         * @param result  The {@link CompletableFuture} to be completed when the {@code message} is sent
+         *                (or {@code null}).
+         * @return The {@link AddResult}.
+         */
+        private synchronized AddResult add(final Message message, final CompletableFuture<SendResult> result) {
+            if (removed) {
+                return AddResult.REMOVED;
+            }
+            messages.add(message);
+            results.add(result);
+            bytes += sizeEstimator.applyAsInt(message);
+            if (messages.size() >= maxBatchMessages || bytes >= maxBatchBytes) {
+                return takeBatch() ? AddResult.MUST_SEND : AddResult.BUFFERED;
+            }
+            if (messages.size() == 1) {
+                final long batch = generation;
+                try {
+                    scheduler.schedule(() -> lingerExpired(batch), lingerNanos, TimeUnit.NANOSECONDS);
+                } catch (final RejectedExecutionException e) {
+                    // The scheduler was shut down, so there will be no one to send this batch later.
+                    return takeBatch() ? AddResult.MUST_SEND : AddResult.BUFFERED;
+                }
+            }
+            return AddResult.BUFFERED;
+        }
+
+        /**
+         * Sends the current batch and waits until all the taken batches are sent.
+         */
+        private void flush() {
+            final boolean mustSend;
+            final long batches;
+            synchronized (this) {
+                mustSend = !messages.isEmpty() && takeBatch();
+                batches = generation;
+            }
+            if (mustSend) {
+                sendPendingBatches();
+                return;
+            }
+            awaitSent(batches);
+        }
+
+        /**
+         * Sends the given {@code batch} if it was not already taken.
+         *
+         * @param batch The number of the batch whose linger time expired.
+         */
+        private void lingerExpired(final long batch) {
+            synchronized (this) {
+                if (batch != generation || messages.isEmpty() || !takeBatch()) {
+                    return;
+                }
+            }
+            sendPendingBatches();
+        }
+
+        /**
+         * Moves the current batch to the {@link #pendingBatches} and starts a new one.
+         * Must be called while holding the monitor of this buffer.
+         *
+         * @return {@code true} if the caller must send the pending batches,
+         * or {@code false} if another thread is already sending them.
+         */
+        private boolean takeBatch() {
+            pendingBatches.add(new Batch(recipient, messages, results));
+            final int capacity = Math.min(messages.size(), maxBatchMessages);
+            this.messages = new ArrayList<>(capacity);
+            this.results = new ArrayList<>(capacity);
+            this.bytes = 0;
+            this.generation++;
+            if (sending) {
+                return false;
+            }
+            this.sending = true;
+            return true;
+        }
+
+        /**
+         * Sends the {@link #pendingBatches} (without holding the monitor of this buffer) until there are no more,
+         * removing this buffer if it is empty afterwards (the next {@link Message} to the recipient creates a new one).
+         * Must only be called by the thread that got {@code true} from {@link #takeBatch()}.
+         */
+        private void sendPendingBatches() {
+            Batch batch;
+            synchronized (this) {
+                batch = pendingBatches.poll();
+            }
+            while (batch != null) {
+                batch.send();
+                synchronized (this) {
+                    sentBatches++;
+                    batch = pendingBatches.poll();
+                    if (batch == null) {
+                        this.sending = false;
+                        // Removed once its batches are sent, so the batches of a new buffer can not overtake them.
+                        if (messages.isEmpty()) {
+                            this.removed = true;
+                            buffers.remove(recipient, this);
+                        }
+                    }
+                    notifyAll();
+                }
+            }
+        }
+
+        /**
+         * Waits until the given amount of batches are sent.
+         *
+         * @param batches The amount of batches.
+         */
+        private synchronized void awaitSent(final long batches) {
+            boolean interrupted = false;
+            while (sentBatches < batches) {
+                try {
+                    wait();
+                } catch (final InterruptedException e) {
+                    // Keep waiting, so the buffered messages are sent when closing, but restore the status later.
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+
+    /**
+     * A batch of {@link Message}s taken from a {@link RecipientBuffer}.
+     */
+    private final class Batch {
+
+        /**
+         * The recipient of the {@link Message}s.
+         */
+        private final String recipient;
+
+        /**
+         * The {@link Message}s.
+         */
+        private final List<Message> messages;
+
+        /**
+         * The {@link CompletableFuture}s of the {@link #messages} (or {@code null} for those whose failures
+         * must be logged).
+         */
+        private final List<CompletableFuture<SendResult>> results;
+
+
+        /**
+         * Constructor.
+         *
+         * @param recipient The recipient of the {@link Message}s.
+         * @param messages  The {@link Message}s.
+         * @param results   The {@link CompletableFuture}s of the {@code messages}.
+         */
+        private Batch(
+                final String recipient,
+                final List<Message> messages,
+                final List<CompletableFuture<SendResult>> results) {
+            this.recipient = recipient;
+            this.messages = messages;
+            this.results = results;
+        }
+
+
+        /**
+         * Sends this batch through the {@link #batchSender}, reporting the outcome to each {@link Message}.
+         */
+        private void send() {
+            Throwable failure = null;
+            try {
+                batchSender.accept(messages, recipient);
+            } catch (final Throwable e) {
+                failure = e;
+            } finally {
+                bufferPermits.release(messages.size());
+            }
+            int unobservedFailures = 0;
+            for (int i = 0; i < messages.size(); i++) {
+                final CompletableFuture<SendResult> result = results.get(i);
+                if (result == null) {
+                    unobservedFailures++;
+                } else if (failure == null) {
+                    result.complete(new SendResult(messages.get(i), recipient));
+                } else {
+                    result.completeExceptionally(failure);
+                }
+            }
+            if (failure != null && unobservedFailures > 0) {
+                LOGGER.error("Could not send {} messages to {}", unobservedFailures, recipient, failure);
+            }
+        }
+    }
+
+
+    /**
+     * A builder of {@link BatchingMessageProducer}s.
+     */
+    public static final class Builder {
+
+        /**
+         * The {@link BatchSender} to which batches are sent.
+         */
+        private BatchSender batchSender;
+
+        /**
+         * The max. amount of {@link Message}s of a batch.
+         */
+        private int maxBatchMessages;
+
+        /**
+         * The max. amount of bytes of a batch.
+         */
+        private long maxBatchBytes;
+
+        /**
+         * The max. time a {@link Message} waits in a batch before it is sent.
+         */
+        private Duration linger;
+
+        /**
+         * The max. amount of {@link Message}s that can be buffered.
+         */
+        private int maxBufferedMessages;
+
+        /**
+         * A function that estimates the amount of bytes of a {@link Message}.
+         */
+        private ToIntFunction<Message> sizeEstimator;
+
+        /**
+         * The {@link ScheduledExecutorService} in which linger timeouts are scheduled
+         * ({@code null} means that the producer creates its own).
+         */
+        private ScheduledExecutorService scheduler;
+
+
+        /**
+         * Private constructor.
+         * Use {@link Builder#create()} to get an instance of this builder.
+         */
+        private Builder() {
+            clear();
+        }
+
+
+        /**
+         * Configures the {@link BatchSender} to which batches are sent.
+         *
+         * @param batchSender The {@link BatchSender}.
+         * @return {@code this} for method chaining.
+         */
+        public Builder sendingWith(final BatchSender batchSender) {
+            this.batchSender = batchSender;
+            return this;
+        }
+
+        /**
+         * Configures the max. amount of {@link Message}s of a batch (defaults to 100).
+         *
+         * @param maxBatchMessages The max. amount of {@link Message}s.
+         * @return {@code this} for method chaining.
+         */
+        public Builder maxBatchMessages(final int maxBatchMessages) {
+            this.maxBatchMessages = maxBatchMessages;
+            return this;
+        }
+
+        /**
+         * Configures the max. amount of bytes of a batch (defaults to 1 MiB).
+         *
+         * @param maxBatchBytes The max. amount of bytes.
+         * @return {@code this} for method chaining.
+         */
+        public Builder maxBatchBytes(final long maxBatchBytes) {
+            this.maxBatchBytes = maxBatchBytes;
+            return this;
+        }
+
+        /**
+         * Configures the max. time a {@link Message} waits in a batch before it is sent (defaults to 10 ms).
+         *
+         * @param linger The linger time.
+         * @return {@code this} for method chaining.
+         */
+        public Builder linger(final Duration linger) {
+            this.linger = linger;
+            return this;
+        }
+
+        /**
+         * Configures the max. amount of {@link Message}s that can be buffered among all recipients
+         * (defaults to 10000). When reached, senders block until a batch is sent.
+         *
+         * @param maxBufferedMessages The max. amount of buffered {@link Message}s.
+         * @return {@code this} for method chaining.
+         */
+        public Builder maxBufferedMessages(final int maxBufferedMessages) {
+            this.maxBufferedMessages = maxBufferedMessages;
+            return this;
+        }
+
+        /**
+         * Configures the function that estimates the amount of bytes of a {@link Message}
+         * (defaults to the length of the payload).
+         *
+         * @param sizeEstimator The size estimator.
+         * @return {@code this} for method chaining.
+         */
+        public Builder estimatingSizeWith(final ToIntFunction<Message> sizeEstimator) {
+            this.sizeEstimator = sizeEstimator;
+            return this;
+        }
+
+        /**
+         * Configures the {@link ScheduledExecutorService} in which linger timeouts are scheduled
+         * (by default, the producer creates a single daemon thread, which is shut down when it is closed).
+         *
+         * @param scheduler The {@link ScheduledExecutorService} (it is not shut down by the producer).
+         * @return {@code this} for method chaining.
+         */
+        public Builder schedulingWith(final ScheduledExecutorService scheduler) {
+            this.scheduler = scheduler;
+            return this;
+        }
+
+        /**
+         * Clears this builder.
+         *
+         * @return {@code this} for method chaining.
+         */
+        public Builder clear() {
+            this.batchSender = null;
+            this.maxBatchMessages = 100;
+            this.maxBatchBytes = 1024 * 1024;
+            this.linger = Duration.ofMillis(10);
+            this.maxBufferedMessages = 10000;
+            this.sizeEstimator = BatchingMessageProducer::estimatePayloadSize;
+            this.scheduler = null;
+            return this;
+        }
+
+
+        /**
+         * Builds the configured {@link BatchingMessageProducer}.
+         *
+         * @return The created {@link BatchingMessageProducer} configured by this builder.
+         * @throws IllegalArgumentException If the configuration is invalid (e.g there is no {@link BatchSender}).
+         */
+        public BatchingMessageProducer build() throws IllegalArgumentException {
+            return new BatchingMessageProducer(
+                    batchSender,
+                    maxBatchMessages,
+                    maxBatchBytes,
+                    linger,
+                    maxBufferedMessages,
+                    sizeEstimator,
+                    scheduler
+            );
+        }
+
+
+        /**
+         * Creates an instance of this builder.
+         *
+         * @return A new instance of this builder.
+         */
+        public static Builder create() {
+            return new Builder();
+        }
+    }
+}
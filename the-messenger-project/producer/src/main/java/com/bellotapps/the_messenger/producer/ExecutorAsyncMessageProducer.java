@@ -0,0 +1,113 @@
+package com.bellotapps.the_messenger.producer;
+
+import com.bellotapps.the_messenger.commons.Message;
+import org.apache.commons.lang3.Validate;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+/**
+ * An {@link AsyncMessageProducer} that runs the sends of a (blocking) {@link MessageProducer}
+ * in an {@link Executor}, bounding the amount of sends that can be in flight at the same time.
+ * When all the permits are taken, {@link #sendAsync(Message, String)} blocks until a send finishes,
+ * which provides back-pressure to callers producing faster than messages can be sent.
+ */
+public class ExecutorAsyncMessageProducer implements AsyncMessageProducer {
+
+    /**
+     * The {@link MessageProducer} to which the sending operation is delegated.
+     */
+    private final MessageProducer messageProducer;
+
+    /**
+     * The {@link Executor} in which the sends are performed.
+     */
+    private final Executor executor;
+
+    /**
+     * The permits of sends that can be in flight.
+     */
+    private final Semaphore inFlightPermits;
+
+
+    /**
+     * Constructor.
+     *
+     * @param messageProducer The {@link MessageProducer} to which the sending operation is delegated.
+     * @param executor        The {@link Executor} in which the sends are performed.
+     * @param maxInFlight     The max. amount of sends that can be in flight at the same time.
+     * @throws IllegalArgumentException If any argument is invalid.
+     */
+    public ExecutorAsyncMessageProducer(
+            final MessageProducer messageProducer,
+            final Executor executor,
+            final int maxInFlight) throws IllegalArgumentException {
+        Validate.isTrue(messageProducer != null, "The message producer must not be null");
+        Validate.isTrue(executor != null, "The executor must not be null");
+        Validate.isTrue(maxInFlight > 0, "The max. amount of in flight sends must be positive");
+        this.messageProducer = messageProducer;
+        this.executor = executor;
+        this.inFlightPermits = new Semaphore(maxInFlight);
+    }
+
+
+    /**
+     * {@inheritDoc}
+     *
+     * @implNote This method blocks while there are no permits available.
+     * If the calling thread is interrupted while waiting, the returned stage is completed exceptionally
+     * with the {@link InterruptedException}, and the interrupted status is restored.
+     */
+    @Override
+    public CompletionStage<SendResult> sendAsync(final Message message, final String recipient)
+            throws IllegalArgumentException {
+        Validate.isTrue(message != null, "The message must not be null");
+        Validate.isTrue(recipient != null, "The recipient must not be null");
+        final CompletableFuture<SendResult> result = new CompletableFuture<>();
+        try {
+            inFlightPermits.acquire();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            result.completeExceptionally(e);
+            return result;
+        }
+        try {
+            executor.execute(() -> send(message, recipient, result));
+        } catch (final RejectedExecutionException e) {
+            inFlightPermits.release();
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the amount of sends that can still be started without blocking.
+     *
+     * @return The amount of available permits.
+     */
+    public int availablePermits() {
+        return inFlightPermits.availablePermits();
+    }
+
+
+    /**
+     * Sends the given {@code message} with the {@link #messageProducer}, completing the given {@code result}.
+     *
+     * @param message   The {@link Message} to be sent.
+     * @param recipient The destination of the given {@code message}.
+     * @param result    The {@link CompletableFuture} to be completed.
+     */
+    private void send(final Message message, final String recipient, final CompletableFuture<SendResult> result) {
+        try {
+            messageProducer.send(message, recipient);
+            inFlightPermits.release();
+            result.complete(new SendResult(message, recipient));
+        } catch (final Throwable e) {
+            inFlightPermits.release();
+            result.completeExceptionally(e);
+        }
+    }
+}
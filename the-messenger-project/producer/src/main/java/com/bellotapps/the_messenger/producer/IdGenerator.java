@@ -0,0 +1,18 @@
+package com.bellotapps.the_messenger.producer;
+
+import com.bellotapps.the_messenger.commons.Message;
+
+/**
+ * Defines behaviour for an object that can generate ids for {@link Message}s.
+ * Implementations must be thread safe, as a single generator is usually shared by all the producing threads.
+ */
+@FunctionalInterface
+public interface IdGenerator {
+
+    /**
+     * Generates a new id.
+     *
+     * @return The generated id (which must not have been returned before by this generator).
+     */
+    String generateId();
+}
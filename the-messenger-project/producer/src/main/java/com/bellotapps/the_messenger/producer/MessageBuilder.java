@@ -2,44 +2,77 @@ package com.bellotapps.the_messenger.producer;
 
 import com.bellotapps.the_messenger.commons.AbstractMessage;
 import com.bellotapps.the_messenger.commons.Message;
+import com.bellotapps.the_messenger.commons.headers.CompactHeaderMap;
 import com.bellotapps.the_messenger.commons.headers.ContentType;
 import com.bellotapps.the_messenger.commons.headers.DefinedHeader;
 import com.bellotapps.the_messenger.commons.headers.MessageType;
 import com.bellotapps.the_messenger.commons.headers.ToStringSerializable;
 import com.bellotapps.the_messenger.commons.payload.PayloadSerializer;
+import com.bellotapps.the_messenger.producer.basic_id_generators.RandomUuidIdGenerator;
 import com.bellotapps.the_messenger.producer.basic_payload_serializers.ToStringPayloadSerializer;
+import com.bellotapps.the_messenger.producer.basic_timestamp_sources.SystemTimestampSource;
 import org.apache.commons.lang3.StringUtils;
 
 import java.time.Instant;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.UUID;
 import java.util.function.Supplier;
 
 /**
  * A builder of {@link Message}s.
+ * <p>
+ * Builders acquired from a {@link MessageBuilderPool} are reused: once {@link #build()} returns, the built
+ * {@link Message} owns its headers and payload, and the builder is reset and handed out again by the pool.
+ * <p>
+ * Unless a fixed id is set with {@link #withId(String)}, the id is generated each time {@link #build()} is executed,
+ * so building twice with the same builder creates two {@link Message}s with different ids.
+ * By default, random {@link java.util.UUID}s are used (see {@link #withRandomId()});
+ * other {@link IdGenerator}s (e.g a time ordered one) can be opted into with {@link #withIdGeneratedBy(IdGenerator)}.
  *
  * @param <T> The type of payload.
  */
 public final class MessageBuilder<T> {
 
     /**
-     * The id of the {@link Message}.
+     * The {@link MessageCreator} used in case no other is set, which creates {@link DefaultMessage}s.
+     */
+    private static final MessageCreator DEFAULT_MESSAGE_CREATOR = new DefaultMessageCreator();
+
+    /**
+     * The fixed id of the {@link Message} (used when there is no {@link #idGenerator}).
      */
     private String id;
+    /**
+     * The {@link IdGenerator} of the id of the {@link Message}, used when building it.
+     */
+    private IdGenerator idGenerator;
     /**
      * The sender of the {@link Message}.
      */
     private String sender;
     /**
-     * The timestamp of the {@link Message}.
+     * The fixed timestamp of the {@link Message}
+     * (used when there is neither a {@link #timestampSource} nor a {@link #timestampSupplier}).
+     */
+    private Instant timestamp;
+    /**
+     * The {@link TimestampSource} of the timestamp of the {@link Message}, evaluated when building it.
+     */
+    private TimestampSource timestampSource;
+    /**
+     * The {@link Supplier} of the timestamp of the {@link Message}, evaluated when building it.
      */
     private Supplier<Instant> timestampSupplier;
     /**
      * The headers of the {@link Message}.
      */
     private final Map<String, String> headers;
+    /**
+     * The headers describing the serialized payload, reported by the {@link #payloadSerializer} when building
+     * (kept apart from the {@link #headers}, so building does not modify them).
+     */
+    private final Map<String, String> payloadHeaders;
     /**
      * The payload of the {@link Message}, which will be serialized using the {@link #payloadSerializer}.
      */
@@ -53,6 +86,15 @@ public final class MessageBuilder<T> {
      * The {@link MessageCreator} to be used to instantiate the {@link Message} to be built.
      */
     private MessageCreator messageCreator;
+    /**
+     * Indicates whether this builder belongs to a {@link MessageBuilderPool}.
+     */
+    boolean pooled;
+    /**
+     * Indicates whether this builder was handed out by its {@link MessageBuilderPool} and was not built yet
+     * (only accessed by the thread that owns the pool's builder).
+     */
+    boolean acquired;
 
 
     /**
@@ -60,10 +102,8 @@ public final class MessageBuilder<T> {
      */
     public MessageBuilder() {
         this.headers = new HashMap<>();
-        withRandomId();
-        atBuildTime();
-        withMessageCreator(DefaultMessage::new);
-        usingToStringToSerialize();
+        this.payloadHeaders = new HashMap<>();
+        reset();
     }
 
 
@@ -75,17 +115,33 @@ public final class MessageBuilder<T> {
      */
     public MessageBuilder<T> withId(final String id) {
         this.id = id;
+        this.idGenerator = null;
         return this;
     }
 
     /**
-     * Sets a random id to the {@link Message} to be built.
+     * Sets a random id to the {@link Message} to be built (the default).
+     * The id is generated by the {@link #build()} method, so each built {@link Message} gets a different one.
      *
      * @return {@code this} for method chaining.
-     * @implNote This methods uses {@link UUID#randomUUID()} for random id generation.
+     * @implNote This methods uses a {@link RandomUuidIdGenerator} for random id generation.
      */
     public MessageBuilder<T> withRandomId() {
-        return withId(UUID.randomUUID().toString());
+        return withIdGeneratedBy(RandomUuidIdGenerator.getInstance());
+    }
+
+    /**
+     * Sets an {@link IdGenerator} to be used to generate the id of the {@link Message} to be built.
+     * The {@link IdGenerator#generateId()} method will be executed when the {@link #build()} method is executed,
+     * so no id is generated if it is replaced afterwards (e.g with {@link #withId(String)}).
+     *
+     * @param idGenerator The {@link IdGenerator} to be used.
+     * @return {@code this} for method chaining.
+     */
+    public MessageBuilder<T> withIdGeneratedBy(final IdGenerator idGenerator) {
+        this.id = null;
+        this.idGenerator = idGenerator;
+        return this;
     }
 
     /**
@@ -115,18 +171,39 @@ public final class MessageBuilder<T> {
      * @return {@code this} for method chaining.
      */
     public MessageBuilder<T> at(final Instant timestamp) {
-        return atSupplied(() -> timestamp);
+        this.timestamp = timestamp;
+        this.timestampSource = null;
+        this.timestampSupplier = null;
+        return this;
     }
 
     /**
-     * Makes the builder use {@link Instant#now()} as a {@link Supplier} of {@link Instant}.
+     * Makes the builder use the {@link SystemTimestampSource} as a {@link TimestampSource}.
      * This means that the {@link Message} will have as a timestamp the moment it is created
-     * by the {@link #build()} method.
+     * by the {@link #build()} method (with millisecond precision).
      *
      * @return {@code this} for method chaining.
      */
     public MessageBuilder<T> atBuildTime() {
-        return atSupplied(Instant::now);
+        return atTimestampFrom(SystemTimestampSource.getInstance());
+    }
+
+    /**
+     * Sets a {@link TimestampSource} to be used to generate the timestamp of the {@link Message} to be built.
+     * The {@link TimestampSource#currentTimeMillis()} method will be executed when the {@link #build()} method is
+     * executed, and the timestamp is handed to the {@link MessageCreator} in milliseconds,
+     * so no {@link Instant} is created.
+     *
+     * @param timestampSource The {@link TimestampSource} to be used
+     *                        (e.g a {@link com.bellotapps.the_messenger.producer.basic_timestamp_sources
+     *                        .CachedTimestampSource} for high-rate producers).
+     * @return {@code this} for method chaining.
+     */
+    public MessageBuilder<T> atTimestampFrom(final TimestampSource timestampSource) {
+        this.timestamp = null;
+        this.timestampSource = timestampSource;
+        this.timestampSupplier = null;
+        return this;
     }
 
     /**
@@ -137,6 +214,8 @@ public final class MessageBuilder<T> {
      * @return {@code this} for method chaining.
      */
     public MessageBuilder<T> atSupplied(final Supplier<Instant> timestampSupplier) {
+        this.timestamp = null;
+        this.timestampSource = null;
         this.timestampSupplier = timestampSupplier;
         return this;
     }
@@ -165,6 +244,21 @@ public final class MessageBuilder<T> {
         return this;
     }
 
+    /**
+     * Adds the headers that the given {@code repliedMessage} requested to be copied into its replies
+     * (i.e those listed in its {@link DefinedHeader#COPY_HEADERS} header).
+     *
+     * @param repliedMessage The {@link Message} being replied.
+     * @return {@code this} for method chaining.
+     * @apiNote This operation overrides already set headers.
+     * @implNote The headers are copied straight into this builder with the
+     * {@link Message#copyHeadersProjection()} of the {@code repliedMessage}, without intermediate collections.
+     */
+    public MessageBuilder<T> withHeadersCopiedFrom(final Message repliedMessage) {
+        repliedMessage.copyHeadersProjection().copy(repliedMessage.getHeaders(), this.headers);
+        return this;
+    }
+
     /**
      * Adds a header to the {@link Message} to be built.
      *
@@ -446,9 +540,10 @@ public final class MessageBuilder<T> {
      * Sets a {@link ToStringPayloadSerializer} to be used as a {@link PayloadSerializer}.
      *
      * @return {@code this} for method chaining.
+     * @implNote The shared {@link ToStringPayloadSerializer#getInstance()} is used.
      */
     public MessageBuilder<T> usingToStringToSerialize() {
-        return withSerializer(new ToStringPayloadSerializer<>());
+        return withSerializer(ToStringPayloadSerializer.getInstance());
     }
 
     /**
@@ -469,7 +564,10 @@ public final class MessageBuilder<T> {
      */
     public MessageBuilder<T> clear() {
         this.id = null;
+        this.idGenerator = null;
         this.sender = null;
+        this.timestamp = null;
+        this.timestampSource = null;
         this.timestampSupplier = null;
         this.headers.clear();
         this.payload = null;
@@ -480,21 +578,66 @@ public final class MessageBuilder<T> {
     }
 
 
+    /**
+     * Resets this builder to its initial configuration (i.e the one set by the constructor).
+     */
+    void reset() {
+        clear();
+        withRandomId();
+        atBuildTime();
+        withMessageCreator(DEFAULT_MESSAGE_CREATOR);
+        usingToStringToSerialize();
+    }
+
+
     /**
      * Creates an instance of {@link Message} according to this builder configuration.
      * Future modifications to this builder won't affect the returned {@link Message}.
      *
      * @return An instance of {@link Message}.
      * @throws IllegalArgumentException If any argument is invalid.
+     * @apiNote If this builder was acquired from a {@link MessageBuilderPool}, it must not be used after this method
+     * returns, as it goes back to the pool (if building fails, it can still be fixed and built again).
      */
     public Message build() throws IllegalArgumentException {
-        return messageCreator.createMessage(
-                id,
-                sender,
-                timestampSupplier.get(),
-                headers,
-                payloadSerializer.serialize(payload)
-        );
+        final String messageId = idGenerator == null ? id : idGenerator.generateId();
+        payloadHeaders.clear();
+        final String serializedPayload = payloadSerializer.serialize(payload, payloadHeaders);
+        final Map<String, String> messageHeaders = payloadHeaders.isEmpty() ?
+                CompactHeaderMap.copyOf(headers) :
+                mergedHeaders();
+        final Message message = timestampSource != null ?
+                messageCreator.createMessage(
+                        messageId,
+                        sender,
+                        timestampSource.currentTimeMillis(),
+                        messageHeaders,
+                        serializedPayload
+                ) :
+                messageCreator.createMessage(
+                        messageId,
+                        sender,
+                        timestampSupplier == null ? timestamp : timestampSupplier.get(),
+                        messageHeaders,
+                        serializedPayload
+                );
+        if (pooled) {
+            // The message already owns a copy of the headers, so the builder can go back to the pool.
+            this.payload = null;
+            this.acquired = false;
+        }
+        return message;
+    }
+
+    /**
+     * Merges the {@link #headers} with the {@link #payloadHeaders}, without modifying them.
+     *
+     * @return The headers of the {@link Message} to be built.
+     */
+    private Map<String, String> mergedHeaders() {
+        final Map<String, String> merged = new HashMap<>(headers);
+        merged.putAll(payloadHeaders);
+        return CompactHeaderMap.copyOf(merged);
     }
 
 
@@ -525,6 +668,28 @@ public final class MessageBuilder<T> {
                 final Map<String, String> headers,
                 final String payload
         );
+
+        /**
+         * Creates a {@link Message}, receiving the timestamp in milliseconds since the epoch.
+         *
+         * @param id              The id for the {@link Message}.
+         * @param sender          The sender for the {@link Message}.
+         * @param timestampMillis The timestamp for the {@link Message}, in milliseconds since the epoch.
+         * @param headers         The headers for the {@link Message}.
+         * @param payload         The payload for the {@link Message}.
+         * @return The created {@link Message}.
+         * @implSpec The default implementation converts the timestamp into an {@link Instant}, and calls
+         * {@link #createMessage(String, String, Instant, Map, String)}. Override it if the {@link Message}
+         * can be created from the milliseconds.
+         */
+        default Message createMessage(
+                final String id,
+                final String sender,
+                final long timestampMillis,
+                final Map<String, String> headers,
+                final String payload) {
+            return createMessage(id, sender, Instant.ofEpochMilli(timestampMillis), headers, payload);
+        }
     }
 
     /**
@@ -551,5 +716,52 @@ public final class MessageBuilder<T> {
                 final String payload) throws IllegalArgumentException {
             super(id, sender, timestamp, headers, payload);
         }
+
+        /**
+         * Constructor.
+         *
+         * @param id              The message's id.
+         * @param sender          An identification of the sender.
+         *                        This allows the recipient to know who has sent the message.
+         * @param timestampMillis The timestamp of the message, in milliseconds since the epoch.
+         * @param headers         The message headers.
+         * @param payload         The message payload.
+         * @throws IllegalArgumentException If any argument is invalid.
+         */
+        private DefaultMessage(
+                final String id,
+                final String sender,
+                final long timestampMillis,
+                final Map<String, String> headers,
+                final String payload) throws IllegalArgumentException {
+            super(id, sender, timestampMillis, headers, payload);
+        }
+    }
+
+    /**
+     * The {@link MessageCreator} of {@link DefaultMessage}s, which creates them from the timestamp in milliseconds
+     * when possible.
+     */
+    private static final class DefaultMessageCreator implements MessageCreator {
+
+        @Override
+        public Message createMessage(
+                final String id,
+                final String sender,
+                final Instant timestamp,
+                final Map<String, String> headers,
+                final String payload) {
+            return new DefaultMessage(id, sender, timestamp, headers, payload);
+        }
+
+        @Override
+        public Message createMessage(
+                final String id,
+                final String sender,
+                final long timestampMillis,
+                final Map<String, String> headers,
+                final String payload) {
+            return new DefaultMessage(id, sender, timestampMillis, headers, payload);
+        }
     }
 }
@@ -52,7 +52,7 @@ public interface MessageBuilderFactory<T> {
      */
     default MessageBuilder<T> replyMessage(final Message repliedMessage) {
         return this.replyMessage(repliedMessage.getId())
-                .withHeaders(repliedMessage.copyHeadersKeysAndValues());
+                .withHeadersCopiedFrom(repliedMessage);
     }
 
     /**
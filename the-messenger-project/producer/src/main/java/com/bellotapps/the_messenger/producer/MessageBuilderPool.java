@@ -0,0 +1,50 @@
+package com.bellotapps.the_messenger.producer;
+
+import com.bellotapps.the_messenger.commons.Message;
+
+/**
+ * A pool of {@link MessageBuilder}s that keeps one reusable builder per thread,
+ * so producing {@link Message}s in steady state does not allocate a new builder (and its headers map) each time.
+ * <p>
+ * A builder acquired from this pool is owned by the caller until {@link MessageBuilder#build()} returns.
+ * If the builder of the current thread is still owned (e.g a builder is acquired while another one is being
+ * configured, or a builder was abandoned without building it), a new one is created and takes its place,
+ * so a builder is never handed out twice at the same time.
+ *
+ * @param <T> The type of payload of the pooled {@link MessageBuilder}s.
+ * @apiNote Builders must be built in the thread that acquired them.
+ */
+public final class MessageBuilderPool<T> {
+
+    /**
+     * The reusable builder of each thread.
+     */
+    private final ThreadLocal<MessageBuilder<T>> builders;
+
+
+    /**
+     * Constructor.
+     */
+    public MessageBuilderPool() {
+        this.builders = new ThreadLocal<>();
+    }
+
+
+    /**
+     * Acquires the {@link MessageBuilder} of the current thread, reset to its initial configuration.
+     *
+     * @return A {@link MessageBuilder} owned by the caller until it is built.
+     */
+    public MessageBuilder<T> acquire() {
+        MessageBuilder<T> builder = builders.get();
+        if (builder == null || builder.acquired) {
+            builder = new MessageBuilder<>();
+            builder.pooled = true;
+            builders.set(builder);
+        } else {
+            builder.reset();
+        }
+        builder.acquired = true;
+        return builder;
+    }
+}
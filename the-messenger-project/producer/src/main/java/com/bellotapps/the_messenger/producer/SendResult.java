@@ -0,0 +1,46 @@
+package com.bellotapps.the_messenger.producer;
+
+import com.bellotapps.the_messenger.commons.Message;
+
+/**
+ * The result of a successful asynchronous send (see {@link AsyncMessageProducer}).
+ */
+public final class SendResult {
+
+    /**
+     * The sent {@link Message}.
+     */
+    private final Message message;
+
+    /**
+     * The recipient to which the {@link Message} was sent.
+     */
+    private final String recipient;
+
+
+    /**
+     * Constructor.
+     *
+     * @param message   The sent {@link Message}.
+     * @param recipient The recipient to which the {@link Message} was sent.
+     */
+    public SendResult(final Message message, final String recipient) {
+        this.message = message;
+        this.recipient = recipient;
+    }
+
+
+    /**
+     * @return The sent {@link Message}.
+     */
+    public Message getMessage() {
+        return message;
+    }
+
+    /**
+     * @return The recipient to which the {@link Message} was sent.
+     */
+    public String getRecipient() {
+        return recipient;
+    }
+}
@@ -0,0 +1,34 @@
+package com.bellotapps.the_messenger.producer;
+
+import com.bellotapps.the_messenger.commons.Message;
+
+import java.time.Instant;
+import java.util.function.Supplier;
+
+/**
+ * Defines behaviour for an object that provides the timestamps of the {@link Message}s being built,
+ * in milliseconds since the epoch (the precision with which timestamps are transported).
+ * It is also a {@link Supplier} of {@link Instant}, so it can be used wherever a timestamp supplier is expected,
+ * but {@link MessageBuilder#atTimestampFrom(TimestampSource)} avoids creating an {@link Instant} per message.
+ * Implementations must be thread safe.
+ */
+@FunctionalInterface
+public interface TimestampSource extends Supplier<Instant> {
+
+    /**
+     * Returns the current time.
+     *
+     * @return The current time, in milliseconds since the epoch.
+     */
+    long currentTimeMillis();
+
+    /**
+     * {@inheritDoc}
+     *
+     * @implSpec Returns the {@link #currentTimeMillis()} as an {@link Instant}.
+     */
+    @Override
+    default Instant get() {
+        return Instant.ofEpochMilli(currentTimeMillis());
+    }
+}
@@ -2,12 +2,25 @@ package com.bellotapps.the_messenger.producer.basic_factories;
 
 import com.bellotapps.the_messenger.commons.Message;
 import com.bellotapps.the_messenger.commons.payload.PayloadSerializer;
+import com.bellotapps.the_messenger.producer.IdGenerator;
 import com.bellotapps.the_messenger.producer.MessageBuilder;
 import com.bellotapps.the_messenger.producer.MessageBuilderFactory;
+import com.bellotapps.the_messenger.producer.MessageBuilderPool;
+import com.bellotapps.the_messenger.producer.TimestampSource;
+import com.bellotapps.the_messenger.producer.basic_id_generators.RandomUuidIdGenerator;
+import com.bellotapps.the_messenger.producer.basic_timestamp_sources.SystemTimestampSource;
 
 /**
  * An implementation of {@link MessageBuilderFactory} that allows creating {@link MessageBuilder}s
- * with a sender, a {@link PayloadSerializer}, and a {@link MessageBuilder.MessageCreator} preconfigured.
+ * with a sender, a {@link PayloadSerializer}, a {@link MessageBuilder.MessageCreator},
+ * an {@link IdGenerator} and a {@link TimestampSource} preconfigured.
+ * Unless another {@link IdGenerator} is given (e.g a
+ * {@link com.bellotapps.the_messenger.producer.basic_id_generators.TimeOrderedUuidIdGenerator}),
+ * ids are random {@link java.util.UUID}s, generated each time a {@link Message} is built.
+ * <p>
+ * If created to reuse builders, {@link #create()} hands out the builder of the current thread
+ * from a {@link MessageBuilderPool} (see its documentation for the reuse semantics),
+ * so only the built {@link Message}s are allocated in steady state.
  *
  * @param <T> The type of payload to be set in the {@link Message}s built with the created {@link MessageBuilder}s.
  */
@@ -25,6 +38,18 @@ public class GenericMessageBuilderFactory<T> implements MessageBuilderFactory<T>
      * The {@link MessageBuilder.MessageCreator} to be configured to the created {@link MessageBuilder}s.
      */
     private final MessageBuilder.MessageCreator messageCreator;
+    /**
+     * The {@link IdGenerator} to be configured to the created {@link MessageBuilder}s.
+     */
+    private final IdGenerator idGenerator;
+    /**
+     * The {@link TimestampSource} to be configured to the created {@link MessageBuilder}s.
+     */
+    private final TimestampSource timestampSource;
+    /**
+     * The {@link MessageBuilderPool} from which builders are acquired, or {@code null} if they are not reused.
+     */
+    private final MessageBuilderPool<T> builderPool;
 
 
     /**
@@ -39,15 +64,68 @@ public class GenericMessageBuilderFactory<T> implements MessageBuilderFactory<T>
             final String sender,
             final PayloadSerializer<T> serializer,
             final MessageBuilder.MessageCreator messageCreator) {
+        this(sender, serializer, messageCreator, false);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param sender         The sender to be configured to the created {@link MessageBuilder}s.
+     * @param serializer     The {@link PayloadSerializer} to be configured to the created {@link MessageBuilder}s.
+     * @param messageCreator The {@link MessageBuilder.MessageCreator}
+     *                       to be configured to the created {@link MessageBuilder}s.
+     * @param reuseBuilders  Whether {@link MessageBuilder}s must be reused (one per thread) instead of created.
+     */
+    public GenericMessageBuilderFactory(
+            final String sender,
+            final PayloadSerializer<T> serializer,
+            final MessageBuilder.MessageCreator messageCreator,
+            final boolean reuseBuilders) {
+        this(
+                sender,
+                serializer,
+                messageCreator,
+                RandomUuidIdGenerator.getInstance(),
+                SystemTimestampSource.getInstance(),
+                reuseBuilders
+        );
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param sender          The sender to be configured to the created {@link MessageBuilder}s.
+     * @param serializer      The {@link PayloadSerializer} to be configured to the created {@link MessageBuilder}s.
+     * @param messageCreator  The {@link MessageBuilder.MessageCreator}
+     *                        to be configured to the created {@link MessageBuilder}s.
+     * @param idGenerator     The {@link IdGenerator} to be configured to the created {@link MessageBuilder}s.
+     * @param timestampSource The {@link TimestampSource} to be configured to the created {@link MessageBuilder}s.
+     * @param reuseBuilders   Whether {@link MessageBuilder}s must be reused (one per thread) instead of created.
+     */
+    public GenericMessageBuilderFactory(
+            final String sender,
+            final PayloadSerializer<T> serializer,
+            final MessageBuilder.MessageCreator messageCreator,
+            final IdGenerator idGenerator,
+            final TimestampSource timestampSource,
+            final boolean reuseBuilders) {
         this.sender = sender;
         this.serializer = serializer;
         this.messageCreator = messageCreator;
+        this.idGenerator = idGenerator;
+        this.timestampSource = timestampSource;
+        this.builderPool = reuseBuilders ? new MessageBuilderPool<>() : null;
     }
 
 
     @Override
     public MessageBuilder<T> create() {
-        return MessageBuilderFactory.super.create()
+        final MessageBuilder<T> builder = builderPool == null ?
+                MessageBuilderFactory.super.create() :
+                builderPool.acquire();
+        return builder
+                .withIdGeneratedBy(idGenerator)
+                .atTimestampFrom(timestampSource)
                 .from(sender)
                 .withSerializer(serializer)
                 .contentType(serializer.contentType())
@@ -29,7 +29,22 @@ public class StringPayloadMessageBuilderFactory extends GenericMessageBuilderFac
     public StringPayloadMessageBuilderFactory(
             final String sender,
             final MessageBuilder.MessageCreator messageCreator) {
-        super(sender, new PlainPayloadSerializer(), messageCreator);
+        this(sender, messageCreator, false);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param sender         The sender to be configured to the created {@link MessageBuilder}s.
+     * @param messageCreator The {@link MessageBuilder.MessageCreator}
+     *                       to be configured to the created {@link MessageBuilder}s.
+     * @param reuseBuilders  Whether {@link MessageBuilder}s must be reused (one per thread) instead of created.
+     */
+    public StringPayloadMessageBuilderFactory(
+            final String sender,
+            final MessageBuilder.MessageCreator messageCreator,
+            final boolean reuseBuilders) {
+        super(sender, new PlainPayloadSerializer(), messageCreator, reuseBuilders);
         this.sender = sender;
         this.messageCreator = messageCreator;
     }
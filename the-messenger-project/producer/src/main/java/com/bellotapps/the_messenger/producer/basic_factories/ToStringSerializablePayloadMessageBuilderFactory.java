@@ -30,7 +30,22 @@ public class ToStringSerializablePayloadMessageBuilderFactory extends GenericMes
     public ToStringSerializablePayloadMessageBuilderFactory(
             final String sender,
             final MessageBuilder.MessageCreator messageCreator) {
-        super(sender, new ToStringSerializablePayloadSerializer(), messageCreator);
+        this(sender, messageCreator, false);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param sender         The sender to be configured to the created {@link MessageBuilder}s.
+     * @param messageCreator The {@link MessageBuilder.MessageCreator}
+     *                       to be configured to the created {@link MessageBuilder}s.
+     * @param reuseBuilders  Whether {@link MessageBuilder}s must be reused (one per thread) instead of created.
+     */
+    public ToStringSerializablePayloadMessageBuilderFactory(
+            final String sender,
+            final MessageBuilder.MessageCreator messageCreator,
+            final boolean reuseBuilders) {
+        super(sender, new ToStringSerializablePayloadSerializer(), messageCreator, reuseBuilders);
         this.sender = sender;
         this.messageCreator = messageCreator;
     }
@@ -0,0 +1,41 @@
+package com.bellotapps.the_messenger.producer.basic_id_generators;
+
+import com.bellotapps.the_messenger.producer.IdGenerator;
+
+import java.util.UUID;
+
+/**
+ * An {@link IdGenerator} that generates random (version 4) {@link UUID}s, using {@link UUID#randomUUID()}.
+ * This is the generator used by default by the {@link com.bellotapps.the_messenger.producer.MessageBuilder}.
+ *
+ * @apiNote {@link UUID#randomUUID()} uses a shared {@link java.security.SecureRandom}, which contends under load
+ * (and might block waiting for entropy), so prefer a {@link TimeOrderedUuidIdGenerator} for hot paths.
+ */
+public final class RandomUuidIdGenerator implements IdGenerator {
+
+    /**
+     * The unique instance of a {@link RandomUuidIdGenerator}.
+     */
+    private static final RandomUuidIdGenerator SINGLETON = new RandomUuidIdGenerator();
+
+    /**
+     * Private constructor.
+     * Use {@link #getInstance()} to get an instance of the {@link RandomUuidIdGenerator}.
+     */
+    private RandomUuidIdGenerator() {
+    }
+
+    @Override
+    public String generateId() {
+        return UUID.randomUUID().toString();
+    }
+
+    /**
+     * Returns the singleton.
+     *
+     * @return The unique instance of a {@link RandomUuidIdGenerator}.
+     */
+    public static RandomUuidIdGenerator getInstance() {
+        return SINGLETON;
+    }
+}
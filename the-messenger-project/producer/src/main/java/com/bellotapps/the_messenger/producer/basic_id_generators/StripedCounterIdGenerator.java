@@ -0,0 +1,106 @@
+package com.bellotapps.the_messenger.producer.basic_id_generators;
+
+import com.bellotapps.the_messenger.producer.IdGenerator;
+import org.apache.commons.lang3.Validate;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An {@link IdGenerator} that generates ids made of a prefix and a counter (in hexadecimal).
+ * <p>
+ * Each thread reserves blocks of consecutive values from a shared counter (a stripe), and then generates ids
+ * from its block without touching shared state, so the shared counter is only updated once per block.
+ * Ids are unique for a given generator, but not ordered across threads.
+ * The prefix must identify the generator among all the producers (e.g the instance name),
+ * or it can be left random.
+ */
+public final class StripedCounterIdGenerator implements IdGenerator {
+
+    /**
+     * The default amount of values reserved by a thread at once.
+     */
+    private static final int DEFAULT_BLOCK_SIZE = 1024;
+
+    /**
+     * The prefix of the generated ids.
+     */
+    private final String prefix;
+
+    /**
+     * The amount of values reserved by a thread at once.
+     */
+    private final int blockSize;
+
+    /**
+     * The first value of the next block to be reserved.
+     */
+    private final AtomicLong nextBlock;
+
+    /**
+     * The {@link Stripe} of each thread.
+     */
+    private final ThreadLocal<Stripe> stripes;
+
+
+    /**
+     * Constructor, using a random prefix.
+     */
+    public StripedCounterIdGenerator() {
+        this(Long.toHexString(UUID.randomUUID().getMostSignificantBits()) + "-");
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param prefix The prefix of the generated ids.
+     * @throws IllegalArgumentException If the prefix is null.
+     */
+    public StripedCounterIdGenerator(final String prefix) throws IllegalArgumentException {
+        this(prefix, DEFAULT_BLOCK_SIZE);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param prefix    The prefix of the generated ids.
+     * @param blockSize The amount of values reserved by a thread at once.
+     * @throws IllegalArgumentException If any argument is invalid.
+     */
+    public StripedCounterIdGenerator(final String prefix, final int blockSize) throws IllegalArgumentException {
+        Validate.isTrue(prefix != null, "The prefix must not be null.");
+        Validate.isTrue(blockSize > 0, "The block size must be positive.");
+        this.prefix = prefix;
+        this.blockSize = blockSize;
+        this.nextBlock = new AtomicLong();
+        this.stripes = ThreadLocal.withInitial(Stripe::new);
+    }
+
+
+    @Override
+    public String generateId() {
+        final Stripe stripe = stripes.get();
+        if (stripe.next == stripe.end) {
+            stripe.next = nextBlock.getAndAdd(blockSize);
+            stripe.end = stripe.next + blockSize;
+        }
+        return prefix + Long.toHexString(stripe.next++);
+    }
+
+
+    /**
+     * The block of values reserved by a thread.
+     */
+    private static final class Stripe {
+
+        /**
+         * The next value to be used.
+         */
+        private long next;
+
+        /**
+         * The end (exclusive) of the block.
+         */
+        private long end;
+    }
+}
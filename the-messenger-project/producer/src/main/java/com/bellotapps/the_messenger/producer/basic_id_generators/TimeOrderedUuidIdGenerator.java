@@ -0,0 +1,88 @@
+package com.bellotapps.the_messenger.producer.basic_id_generators;
+
+import com.bellotapps.the_messenger.producer.IdGenerator;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * An {@link IdGenerator} that generates time ordered (version 7) {@link UUID}s: the first 48 bits hold the
+ * milliseconds since the epoch, followed by a 12 bits sequence and 62 random bits.
+ * <p>
+ * Randomness is taken from {@link ThreadLocalRandom}, and the sequence is kept per thread,
+ * so generating ids involves no shared state. Ids generated by the same thread are strictly increasing
+ * (if more than 4096 ids are generated in the same millisecond, the timestamp is moved forward),
+ * and ids generated by different threads are ordered by their millisecond.
+ * The ids keep the format of {@link UUID#toString()}, so they can replace random {@link UUID}s.
+ */
+public final class TimeOrderedUuidIdGenerator implements IdGenerator {
+
+    /**
+     * The unique instance of a {@link TimeOrderedUuidIdGenerator}.
+     */
+    private static final TimeOrderedUuidIdGenerator SINGLETON = new TimeOrderedUuidIdGenerator();
+
+    /**
+     * The max. value of the sequence.
+     */
+    private static final int MAX_SEQUENCE = 0xFFF;
+
+    /**
+     * The {@link Sequence} of each thread.
+     */
+    private static final ThreadLocal<Sequence> SEQUENCES = ThreadLocal.withInitial(Sequence::new);
+
+    /**
+     * Private constructor.
+     * Use {@link #getInstance()} to get an instance of the {@link TimeOrderedUuidIdGenerator}.
+     */
+    private TimeOrderedUuidIdGenerator() {
+    }
+
+    @Override
+    public String generateId() {
+        final Sequence sequence = SEQUENCES.get();
+        final long now = System.currentTimeMillis();
+        if (now > sequence.millis) {
+            sequence.millis = now;
+            // Start at a random point of the lower half, so there is room to increment it.
+            sequence.value = ThreadLocalRandom.current().nextInt(MAX_SEQUENCE >>> 1);
+        } else if (sequence.value < MAX_SEQUENCE) {
+            sequence.value++;
+        } else {
+            // The sequence is exhausted (or the clock went backwards), so move to the next millisecond.
+            sequence.millis++;
+            sequence.value = 0;
+        }
+        final long mostSignificantBits = (sequence.millis << 16) | 0x7000L | sequence.value;
+        final long leastSignificantBits = (ThreadLocalRandom.current().nextLong() & 0x3FFFFFFFFFFFFFFFL)
+                | 0x8000000000000000L;
+        return new UUID(mostSignificantBits, leastSignificantBits).toString();
+    }
+
+    /**
+     * Returns the singleton.
+     *
+     * @return The unique instance of a {@link TimeOrderedUuidIdGenerator}.
+     */
+    public static TimeOrderedUuidIdGenerator getInstance() {
+        return SINGLETON;
+    }
+
+
+    /**
+     * The timestamp and sequence of the last id generated by a thread.
+     */
+    private static final class Sequence {
+
+        /**
+         * The milliseconds of the last generated id.
+         */
+        private long millis;
+
+        /**
+         * The sequence of the last generated id within its millisecond.
+         */
+        private int value;
+    }
+}
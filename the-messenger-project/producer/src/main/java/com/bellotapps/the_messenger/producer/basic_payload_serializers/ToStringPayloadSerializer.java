@@ -13,8 +13,24 @@ import java.util.Objects;
  */
 public class ToStringPayloadSerializer<T> implements PayloadSerializer<T>, PlainContentTypeHandler {
 
+    /**
+     * A shared instance of a {@link ToStringPayloadSerializer} (it is stateless, so it can serialize any type).
+     */
+    private static final ToStringPayloadSerializer<?> SHARED = new ToStringPayloadSerializer<>();
+
     @Override
     public String serialize(final T object) throws PayloadSerializationException {
         return Objects.toString(object);
     }
+
+    /**
+     * Returns a shared instance, to avoid creating a serializer for each use.
+     *
+     * @param <T> Concrete type of object to be serialized.
+     * @return The shared instance of a {@link ToStringPayloadSerializer}.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> ToStringPayloadSerializer<T> getInstance() {
+        return (ToStringPayloadSerializer<T>) SHARED;
+    }
 }
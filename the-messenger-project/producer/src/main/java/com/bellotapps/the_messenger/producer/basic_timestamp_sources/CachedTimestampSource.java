@@ -0,0 +1,92 @@
+package com.bellotapps.the_messenger.producer.basic_timestamp_sources;
+
+import com.bellotapps.the_messenger.producer.TimestampSource;
+import org.apache.commons.lang3.Validate;
+
+import java.time.Duration;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A coarse {@link TimestampSource} that caches the system clock, which is read by a background (daemon) thread
+ * once per tick. Reading the time is then just a volatile read instead of a clock call per message,
+ * at the cost of returning times that can be up to a tick old.
+ * <p>
+ * Times returned by this source never go backwards. {@link #close()} stops the background thread,
+ * after which the last cached time keeps being returned.
+ */
+public final class CachedTimestampSource implements TimestampSource, AutoCloseable {
+
+    /**
+     * The duration of a tick, in nanoseconds.
+     */
+    private final long tickNanos;
+
+    /**
+     * The thread that updates the cached time.
+     */
+    private final Thread ticker;
+
+    /**
+     * The cached time, in milliseconds since the epoch.
+     */
+    private volatile long currentTimeMillis;
+
+    /**
+     * Indicates whether this source was closed.
+     */
+    private volatile boolean closed;
+
+
+    /**
+     * Constructor, using a tick of one millisecond.
+     */
+    public CachedTimestampSource() {
+        this(Duration.ofMillis(1));
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param tick How often the cached time is updated.
+     * @throws IllegalArgumentException If the tick is null or not positive.
+     */
+    public CachedTimestampSource(final Duration tick) throws IllegalArgumentException {
+        Validate.isTrue(tick != null && !tick.isNegative() && !tick.isZero(), "The tick must be positive.");
+        this.tickNanos = tick.toNanos();
+        this.currentTimeMillis = System.currentTimeMillis();
+        this.closed = false;
+        this.ticker = new Thread(this::tick, "cached-timestamp-source");
+        this.ticker.setDaemon(true);
+        this.ticker.start();
+    }
+
+
+    @Override
+    public long currentTimeMillis() {
+        return currentTimeMillis;
+    }
+
+    /**
+     * Stops updating the cached time.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        LockSupport.unpark(ticker);
+    }
+
+
+    /**
+     * The ticker loop: updates the cached time once per tick, until this source is closed.
+     */
+    private void tick() {
+        while (!closed) {
+            LockSupport.parkNanos(this, tickNanos);
+            final long now = System.currentTimeMillis();
+            // Only the ticker writes the cached time, so it can be kept monotonic without atomic operations.
+            if (now > currentTimeMillis) {
+                currentTimeMillis = now;
+            }
+        }
+    }
+}
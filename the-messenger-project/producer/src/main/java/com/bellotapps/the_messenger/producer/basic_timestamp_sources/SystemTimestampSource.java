@@ -0,0 +1,35 @@
+package com.bellotapps.the_messenger.producer.basic_timestamp_sources;
+
+import com.bellotapps.the_messenger.producer.TimestampSource;
+
+/**
+ * A {@link TimestampSource} that reads the system clock each time, using {@link System#currentTimeMillis()}.
+ */
+public final class SystemTimestampSource implements TimestampSource {
+
+    /**
+     * The unique instance of a {@link SystemTimestampSource}.
+     */
+    private static final SystemTimestampSource SINGLETON = new SystemTimestampSource();
+
+    /**
+     * Private constructor.
+     * Use {@link #getInstance()} to get an instance of the {@link SystemTimestampSource}.
+     */
+    private SystemTimestampSource() {
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+
+    /**
+     * Returns the singleton.
+     *
+     * @return The unique instance of a {@link SystemTimestampSource}.
+     */
+    public static SystemTimestampSource getInstance() {
+        return SINGLETON;
+    }
+}
@@ -0,0 +1,406 @@
+package com.bellotapps.the_messenger.producer;
+
+import com.bellotapps.the_messenger.commons.Message;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Tests for the {@link BatchingMessageProducer}.
+ */
+public class BatchingMessageProducerTest {
+
+    /**
+     * The max. time to wait for asynchronous actions, in seconds.
+     */
+    private static final long TIMEOUT_SECONDS = 10;
+
+    /**
+     * A linger time that is never reached in a test.
+     */
+    private static final Duration NO_LINGER = Duration.ofHours(1);
+
+
+    /**
+     * Tests that a batch is sent in the calling thread as soon as it is full.
+     */
+    @Test
+    public void testFullBatchIsSentImmediately() {
+        final RecordingBatchSender batchSender = new RecordingBatchSender();
+        try (final BatchingMessageProducer producer = BatchingMessageProducer.Builder.create()
+                .sendingWith(batchSender)
+                .maxBatchMessages(3)
+                .linger(NO_LINGER)
+                .build()) {
+            producer.send(message("1"), "recipient");
+            producer.send(message("2"), "recipient");
+            Assert.assertTrue(batchSender.batches.isEmpty());
+            producer.send(message("3"), "recipient");
+            Assert.assertEquals(Collections.singletonList(Arrays.asList("1", "2", "3")), batchSender.payloads());
+        }
+    }
+
+    /**
+     * Tests that an incomplete batch is sent once its first {@link Message} has been waiting for the linger time.
+     *
+     * @throws Exception Never.
+     */
+    @Test
+    public void testIncompleteBatchIsSentAfterLinger() throws Exception {
+        final RecordingBatchSender batchSender = new RecordingBatchSender();
+        try (final BatchingMessageProducer producer = BatchingMessageProducer.Builder.create()
+                .sendingWith(batchSender)
+                .maxBatchMessages(100)
+                .linger(Duration.ofMillis(50))
+                .build()) {
+            final long start = System.nanoTime();
+            final CompletableFuture<SendResult> first = producer.sendAsync(message("1"), "recipient")
+                    .toCompletableFuture();
+            final CompletableFuture<SendResult> second = producer.sendAsync(message("2"), "recipient")
+                    .toCompletableFuture();
+            final SendResult result = first.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            Assert.assertTrue("The batch was sent before the linger time",
+                    System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(50));
+            Assert.assertEquals("1", result.getMessage().getPayload());
+            Assert.assertEquals("recipient", result.getRecipient());
+            Assert.assertTrue(second.isDone());
+            Assert.assertEquals(Collections.singletonList(Arrays.asList("1", "2")), batchSender.payloads());
+        }
+    }
+
+    /**
+     * Tests that {@link Message}s to the same recipient are sent in order,
+     * even when batches are taken by several threads.
+     *
+     * @throws InterruptedException Never.
+     */
+    @Test
+    public void testMessagesToTheSameRecipientAreSentInOrder() throws InterruptedException {
+        final RecordingBatchSender batchSender = new RecordingBatchSender();
+        final BatchingMessageProducer producer = BatchingMessageProducer.Builder.create()
+                .sendingWith(batchSender)
+                .maxBatchMessages(7)
+                .linger(Duration.ofMillis(1))
+                .maxBufferedMessages(64)
+                .build();
+        final int threads = 4;
+        final int messagesPerThread = 5000;
+        final List<Thread> producers = new ArrayList<>();
+        for (int thread = 0; thread < threads; thread++) {
+            final int producerNumber = thread;
+            final Thread producerThread = new Thread(() -> {
+                for (int i = 0; i < messagesPerThread; i++) {
+                    producer.send(message(producerNumber + ":" + i), "recipient");
+                }
+            });
+            producerThread.start();
+            producers.add(producerThread);
+        }
+        for (final Thread producerThread : producers) {
+            producerThread.join(TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS));
+        }
+        producer.close();
+
+        final int[] last = new int[threads];
+        Arrays.fill(last, -1);
+        final List<String> sent = batchSender.payloads().stream()
+                .flatMap(List::stream)
+                .collect(Collectors.toList());
+        Assert.assertEquals(threads * messagesPerThread, sent.size());
+        for (final String payload : sent) {
+            final String[] parts = payload.split(":");
+            final int producerNumber = Integer.parseInt(parts[0]);
+            final int sequence = Integer.parseInt(parts[1]);
+            Assert.assertEquals("Messages were reordered", last[producerNumber] + 1, sequence);
+            last[producerNumber] = sequence;
+        }
+    }
+
+    /**
+     * Tests that a slow {@link BatchSender} does not block the threads that keep buffering {@link Message}s
+     * to the same recipient, and that flushing waits until they are sent.
+     *
+     * @throws InterruptedException Never.
+     */
+    @Test
+    public void testSlowSenderDoesNotBlockBuffering() throws InterruptedException {
+        final CountDownLatch sending = new CountDownLatch(1);
+        final CountDownLatch gate = new CountDownLatch(1);
+        final RecordingBatchSender batchSender = new RecordingBatchSender() {
+            @Override
+            public void accept(final List<Message> messages, final String recipient) {
+                sending.countDown();
+                awaitQuietly(gate);
+                super.accept(messages, recipient);
+            }
+        };
+        try (final BatchingMessageProducer producer = BatchingMessageProducer.Builder.create()
+                .sendingWith(batchSender)
+                .maxBatchMessages(2)
+                .linger(NO_LINGER)
+                .build()) {
+            final Thread sender = new Thread(() -> {
+                producer.send(message("1"), "recipient");
+                producer.send(message("2"), "recipient");
+            });
+            sender.start();
+            Assert.assertTrue(sending.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+
+            // Buffered (and the full batch queued) while the first batch is being sent
+            for (int i = 3; i <= 5; i++) {
+                producer.send(message(String.valueOf(i)), "recipient");
+            }
+            final Thread flusher = new Thread(producer::flush);
+            flusher.start();
+            awaitBlocked(flusher);
+
+            gate.countDown();
+            flusher.join(TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS));
+            Assert.assertFalse("Flushing did not finish", flusher.isAlive());
+            Assert.assertEquals(
+                    Arrays.asList(Arrays.asList("1", "2"), Arrays.asList("3", "4"), Collections.singletonList("5")),
+                    batchSender.payloads());
+        }
+    }
+
+    /**
+     * Tests that sending blocks when the max. amount of buffered {@link Message}s is reached,
+     * until a batch is sent.
+     *
+     * @throws InterruptedException Never.
+     */
+    @Test
+    public void testSendBlocksWhenBufferIsFull() throws InterruptedException {
+        final RecordingBatchSender batchSender = new RecordingBatchSender();
+        try (final BatchingMessageProducer producer = BatchingMessageProducer.Builder.create()
+                .sendingWith(batchSender)
+                .maxBatchMessages(100)
+                .maxBufferedMessages(2)
+                .linger(NO_LINGER)
+                .build()) {
+            producer.send(message("1"), "recipient");
+            producer.send(message("2"), "recipient");
+            final Thread blocked = new Thread(() -> producer.send(message("3"), "recipient"));
+            blocked.start();
+            awaitBlocked(blocked);
+
+            producer.flush();
+            blocked.join(TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS));
+            Assert.assertFalse("Sending is still blocked after the buffer was flushed", blocked.isAlive());
+        }
+    }
+
+    /**
+     * Tests that a failure to send a batch completes exceptionally the stages of the {@link Message}s
+     * of that batch only, and that it is not thrown to the callers of {@link BatchingMessageProducer#send}.
+     *
+     * @throws Exception Never.
+     */
+    @Test
+    public void testFailureIsReportedToTheMessagesOfTheBatch() throws Exception {
+        final RuntimeException failure = new RuntimeException("Could not send");
+        final AtomicInteger attempts = new AtomicInteger();
+        try (final BatchingMessageProducer producer = BatchingMessageProducer.Builder.create()
+                .sendingWith((messages, recipient) -> {
+                    attempts.incrementAndGet();
+                    if ("fail".equals(messages.get(0).getPayload())) {
+                        throw failure;
+                    }
+                })
+                .maxBatchMessages(2)
+                .linger(NO_LINGER)
+                .build()) {
+            final CompletableFuture<SendResult> failed = producer.sendAsync(message("fail"), "recipient")
+                    .toCompletableFuture();
+            final CompletableFuture<SendResult> failedToo = producer.sendAsync(message("other"), "recipient")
+                    .toCompletableFuture();
+            final CompletableFuture<SendResult> sent = producer.sendAsync(message("ok"), "recipient")
+                    .toCompletableFuture();
+            final CompletableFuture<SendResult> sentToo = producer.sendAsync(message("other"), "recipient")
+                    .toCompletableFuture();
+            assertFailsWith(failure, failed);
+            assertFailsWith(failure, failedToo);
+            Assert.assertEquals("ok", sent.get(TIMEOUT_SECONDS, TimeUnit.SECONDS).getMessage().getPayload());
+            Assert.assertEquals("other", sentToo.get(TIMEOUT_SECONDS, TimeUnit.SECONDS).getMessage().getPayload());
+
+            // Logged, not thrown
+            producer.send(message("fail"), "another-recipient");
+            producer.send(message("other"), "another-recipient");
+            Assert.assertEquals(3, attempts.get());
+        }
+    }
+
+    /**
+     * Tests that closing the producer sends the buffered {@link Message}s of every recipient,
+     * and rejects new ones.
+     *
+     * @throws Exception Never.
+     */
+    @Test
+    public void testCloseSendsBufferedMessagesAndRejectsNewOnes() throws Exception {
+        final RecordingBatchSender batchSender = new RecordingBatchSender();
+        final BatchingMessageProducer producer = BatchingMessageProducer.Builder.create()
+                .sendingWith(batchSender)
+                .linger(NO_LINGER)
+                .build();
+        producer.send(message("1"), "first");
+        producer.send(message("2"), "first");
+        producer.send(message("3"), "second");
+        producer.close();
+        Assert.assertEquals(3, batchSender.payloads().stream().mapToInt(List::size).sum());
+
+        try {
+            producer.send(message("late"), "first");
+            Assert.fail("A message was sent after closing the producer");
+        } catch (final IllegalStateException e) {
+            // Expected
+        }
+        final CompletableFuture<SendResult> late = producer.sendAsync(message("late"), "first").toCompletableFuture();
+        try {
+            late.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            Assert.fail("A message was sent after closing the producer");
+        } catch (final ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+    }
+
+    /**
+     * Tests that closing the producer while other threads are sending never loses a {@link Message}:
+     * each one is either sent or rejected.
+     *
+     * @throws InterruptedException Never.
+     */
+    @Test
+    public void testCloseWhileSendingLosesNoMessages() throws InterruptedException {
+        for (int round = 0; round < 20; round++) {
+            final AtomicInteger sent = new AtomicInteger();
+            final BatchingMessageProducer producer = BatchingMessageProducer.Builder.create()
+                    .sendingWith((messages, recipient) -> sent.addAndGet(messages.size()))
+                    .maxBatchMessages(10)
+                    .linger(Duration.ofMillis(1))
+                    .build();
+            final AtomicInteger accepted = new AtomicInteger();
+            final CountDownLatch started = new CountDownLatch(4);
+            final List<Thread> producers = new ArrayList<>();
+            for (int thread = 0; thread < 4; thread++) {
+                final String recipient = "recipient-" + (thread % 2);
+                final Thread producerThread = new Thread(() -> {
+                    started.countDown();
+                    try {
+                        while (true) {
+                            producer.send(message("message"), recipient);
+                            accepted.incrementAndGet();
+                        }
+                    } catch (final IllegalStateException e) {
+                        // Closed
+                    }
+                });
+                producerThread.start();
+                producers.add(producerThread);
+            }
+            started.await();
+            producer.close();
+            for (final Thread producerThread : producers) {
+                producerThread.join(TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS));
+                Assert.assertFalse("A producer did not stop after closing", producerThread.isAlive());
+            }
+            Assert.assertEquals("Messages were lost", accepted.get(), sent.get());
+        }
+    }
+
+
+    /**
+     * Builds a {@link Message} with the given {@code payload}.
+     *
+     * @param payload The payload.
+     * @return The built {@link Message}.
+     */
+    private static Message message(final String payload) {
+        return new MessageBuilder<String>().from("test-sender").withPayload(payload).build();
+    }
+
+    /**
+     * Asserts that the given {@code future} is completed exceptionally with the given {@code failure}.
+     *
+     * @param failure The expected failure.
+     * @param future  The {@link CompletableFuture}.
+     * @throws Exception If the {@code future} is not completed in time.
+     */
+    private static void assertFailsWith(final Throwable failure, final CompletableFuture<SendResult> future)
+            throws Exception {
+        try {
+            future.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            Assert.fail("The message was sent");
+        } catch (final ExecutionException e) {
+            Assert.assertSame(failure, e.getCause());
+        }
+    }
+
+    /**
+     * Waits until the given {@code thread} is blocked.
+     *
+     * @param thread The thread.
+     * @throws InterruptedException If interrupted while waiting.
+     */
+    private static void awaitBlocked(final Thread thread) throws InterruptedException {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT_SECONDS);
+        while (thread.getState() != Thread.State.WAITING) {
+            Assert.assertTrue("The thread did not block", System.nanoTime() < deadline);
+            Thread.sleep(1);
+        }
+    }
+
+    /**
+     * Waits for the given {@code latch}, restoring the interrupted status if interrupted.
+     *
+     * @param latch The {@link CountDownLatch}.
+     */
+    private static void awaitQuietly(final CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+
+    /**
+     * A {@link BatchSender} that records the sent batches.
+     */
+    private static class RecordingBatchSender implements BatchSender {
+
+        /**
+         * The sent batches.
+         */
+        private final List<List<Message>> batches = Collections.synchronizedList(new ArrayList<>());
+
+        @Override
+        public void accept(final List<Message> messages, final String recipient) {
+            batches.add(new ArrayList<>(messages));
+        }
+
+        /**
+         * Returns the payloads of the sent batches.
+         *
+         * @return The payloads of the {@link Message}s of each sent batch.
+         */
+        private List<List<String>> payloads() {
+            synchronized (batches) {
+                return batches.stream()
+                        .map(batch -> batch.stream().map(Message::getPayload).collect(Collectors.toList()))
+                        .collect(Collectors.toList());
+            }
+        }
+    }
+}
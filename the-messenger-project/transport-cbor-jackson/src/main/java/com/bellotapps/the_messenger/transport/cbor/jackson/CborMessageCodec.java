@@ -0,0 +1,50 @@
+package com.bellotapps.the_messenger.transport.cbor.jackson;
+
+import com.bellotapps.the_messenger.transport.json.jackson.JacksonMessage;
+import com.bellotapps.the_messenger.transport.json.jackson.JacksonMessageCodec;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.apache.commons.lang3.Validate;
+
+/**
+ * A {@link JacksonMessageCodec} that writes and reads {@link JacksonMessage} envelopes as CBOR (RFC 7049),
+ * which are smaller and faster to parse than text JSON envelopes.
+ *
+ * @implNote The CBOR backend of this Jackson version does not support string references (the CBOR equivalent
+ * of Smile back-references), so repeated header names and values are written in full.
+ * Use the Smile transport if envelopes carry many repeated headers.
+ */
+public class CborMessageCodec extends JacksonMessageCodec {
+
+    /**
+     * Constructor that uses a default {@link CBORFactory}.
+     */
+    public CborMessageCodec() {
+        this(new ObjectMapper(new CBORFactory()));
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param objectMapper The {@link ObjectMapper} to be used, which must have been created with a
+     *                     {@link CBORFactory}.
+     * @throws IllegalArgumentException If the object mapper is null, or if it does not use a {@link CBORFactory}.
+     */
+    public CborMessageCodec(final ObjectMapper objectMapper) throws IllegalArgumentException {
+        super(validate(objectMapper));
+    }
+
+
+    /**
+     * Checks that the given {@code objectMapper} uses a {@link CBORFactory}.
+     *
+     * @param objectMapper The {@link ObjectMapper} to be checked.
+     * @return The given {@code objectMapper}.
+     * @throws IllegalArgumentException If the object mapper is null, or if it does not use a {@link CBORFactory}.
+     */
+    private static ObjectMapper validate(final ObjectMapper objectMapper) throws IllegalArgumentException {
+        Validate.isTrue(objectMapper != null, "The object mapper must not be null");
+        Validate.isTrue(objectMapper.getFactory() instanceof CBORFactory, "The object mapper must use CBOR");
+        return objectMapper;
+    }
+}
@@ -0,0 +1,215 @@
+package com.bellotapps.the_messenger.transport.compact;
+
+import com.bellotapps.the_messenger.commons.Message;
+import com.bellotapps.the_messenger.commons.headers.DefinedHeader;
+import com.bellotapps.the_messenger.commons.headers.ToStringSerializable;
+import org.apache.commons.lang3.Validate;
+
+import java.nio.Buffer;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Decodes {@link Message}s from compact envelopes (see {@link CompactEnvelopeFormat} for the layout),
+ * as written by the {@link CompactEnvelopeEncoder}.
+ * <p>
+ * The payload of the decoded {@link Message}s is a view of the decoded {@link ByteBuffer} (i.e it is not copied),
+ * so the content of the buffer must not be modified while the {@link Message}s are in use.
+ * Well-known header names and values are decoded into their interned instances.
+ *
+ * @implNote Instances are stateless and thread-safe.
+ */
+public final class CompactEnvelopeDecoder {
+
+    /**
+     * Single instance of this class.
+     */
+    private static final CompactEnvelopeDecoder SINGLETON = new CompactEnvelopeDecoder();
+
+
+    /**
+     * Private constructor.
+     * Use {@link #getInstance()} to get an instance of the {@link CompactEnvelopeDecoder}.
+     */
+    private CompactEnvelopeDecoder() {
+    }
+
+
+    /**
+     * Decodes a {@link Message} from the given {@code envelope}.
+     *
+     * @param envelope The envelope to be decoded.
+     * @return The decoded {@link Message}.
+     * @throws IllegalArgumentException If the envelope is null, or if it is not a valid envelope.
+     */
+    public Message decode(final byte[] envelope) throws IllegalArgumentException {
+        Validate.isTrue(envelope != null, "The envelope must not be null");
+        return decode(ByteBuffer.wrap(envelope));
+    }
+
+    /**
+     * Decodes a {@link Message} from the given {@code buffer}, starting at its position.
+     * On return, the position of the {@code buffer} is just after the envelope,
+     * so several envelopes written one after the other can be decoded from the same buffer.
+     *
+     * @param buffer The {@link ByteBuffer} from which the envelope is decoded.
+     * @return The decoded {@link Message}.
+     * @throws IllegalArgumentException If the buffer is null, or if it does not contain a valid envelope.
+     */
+    public Message decode(final ByteBuffer buffer) throws IllegalArgumentException {
+        Validate.isTrue(buffer != null, "The buffer must not be null");
+        try {
+            return read(buffer);
+        } catch (final BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Truncated compact envelope", e);
+        }
+    }
+
+
+    /**
+     * Reads a {@link Message} from the given {@code buffer}.
+     *
+     * @param buffer The {@link ByteBuffer} from which the envelope is read.
+     * @return The read {@link Message}.
+     * @throws IllegalArgumentException If the buffer does not contain a valid envelope.
+     * @throws BufferUnderflowException If the envelope is truncated.
+     */
+    private static Message read(final ByteBuffer buffer) throws IllegalArgumentException, BufferUnderflowException {
+        final byte version = buffer.get();
+        if (version != CompactEnvelopeFormat.VERSION) {
+            throw new IllegalArgumentException("Unsupported compact envelope version: " + version);
+        }
+        final int flags = buffer.get();
+        final String id = (flags & CompactEnvelopeFormat.UUID_ID_FLAG) != 0 ?
+                new UUID(buffer.getLong(), buffer.getLong()).toString() :
+                readString(buffer);
+        final String sender = readString(buffer);
+        final long timestampMillis = CompactEnvelopeFormat.BASE_EPOCH_MILLIS
+                + CompactEnvelopeFormat.zigZagDecode(CompactEnvelopeFormat.readVarint(buffer));
+        final int headersCount = readLength(buffer);
+        final Map<String, String> headers = new HashMap<>(headersCount * 4 / 3 + 1);
+        for (int i = 0; i < headersCount; i++) {
+            final int nameTag = buffer.get() & 0xFF;
+            final DefinedHeader definedHeader = nameTag == CompactEnvelopeFormat.LITERAL_TAG ?
+                    null :
+                    fromTag(CompactEnvelopeFormat.HEADERS, nameTag, "header");
+            final String name = definedHeader == null ? readString(buffer) : definedHeader.serialize();
+            final String value;
+            if (definedHeader == DefinedHeader.MESSAGE_TYPE) {
+                value = readTaggedValue(buffer, CompactEnvelopeFormat.MESSAGE_TYPES, "message type");
+            } else if (definedHeader == DefinedHeader.CONTENT_TYPE) {
+                value = readTaggedValue(buffer, CompactEnvelopeFormat.CONTENT_TYPES, "content type");
+            } else {
+                value = readString(buffer);
+            }
+            headers.put(name, value);
+        }
+        final ByteBuffer payload = (flags & CompactEnvelopeFormat.PAYLOAD_FLAG) != 0 ?
+                readSlice(buffer, readLength(buffer)) :
+                null;
+        return new CompactMessage(id, sender, timestampMillis, headers, payload);
+    }
+
+    /**
+     * Reads a value that is encoded as a tag (or as a string after the {@link CompactEnvelopeFormat#LITERAL_TAG}).
+     *
+     * @param buffer      The {@link ByteBuffer} from which the value is read.
+     * @param table       The table of well-known values.
+     * @param description A description of the values (used in error messages).
+     * @param <T>         The type of values.
+     * @return The read value.
+     * @throws IllegalArgumentException If the tag is unknown.
+     */
+    private static <T extends ToStringSerializable> String readTaggedValue(
+            final ByteBuffer buffer,
+            final T[] table,
+            final String description)
+            throws IllegalArgumentException {
+        final int tag = buffer.get() & 0xFF;
+        if (tag == CompactEnvelopeFormat.LITERAL_TAG) {
+            return readString(buffer);
+        }
+        return fromTag(table, tag, description).serialize();
+    }
+
+    /**
+     * Returns the value of the given {@code tag} in the given {@code table}.
+     *
+     * @param table       The table of well-known values.
+     * @param tag         The tag (which is not the {@link CompactEnvelopeFormat#LITERAL_TAG}).
+     * @param description A description of the values (used in error messages).
+     * @param <T>         The type of values.
+     * @return The value of the tag.
+     * @throws IllegalArgumentException If the tag is unknown.
+     */
+    private static <T> T fromTag(final T[] table, final int tag, final String description)
+            throws IllegalArgumentException {
+        if (tag > table.length) {
+            throw new IllegalArgumentException("Unknown " + description + " tag in compact envelope: " + tag);
+        }
+        return table[tag - 1];
+    }
+
+    /**
+     * Reads a length (i.e a varint that must fit in an {@code int}).
+     *
+     * @param buffer The {@link ByteBuffer} from which the length is read.
+     * @return The read length.
+     * @throws IllegalArgumentException If the length exceeds the remaining bytes of the buffer.
+     */
+    private static int readLength(final ByteBuffer buffer) throws IllegalArgumentException {
+        final long length = CompactEnvelopeFormat.readVarint(buffer);
+        if (length < 0 || length > buffer.remaining()) {
+            throw new IllegalArgumentException("Truncated compact envelope");
+        }
+        return (int) length;
+    }
+
+    /**
+     * Reads a string (i.e a length followed by UTF-8 bytes).
+     *
+     * @param buffer The {@link ByteBuffer} from which the string is read.
+     * @return The read string.
+     * @throws IllegalArgumentException If the string exceeds the remaining bytes of the buffer.
+     */
+    private static String readString(final ByteBuffer buffer) throws IllegalArgumentException {
+        final int length = readLength(buffer);
+        if (buffer.hasArray()) {
+            final int position = buffer.position();
+            final String value = new String(buffer.array(), buffer.arrayOffset() + position, length,
+                    StandardCharsets.UTF_8);
+            ((Buffer) buffer).position(position + length);
+            return value;
+        }
+        final byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reads a view of the next {@code length} bytes of the given {@code buffer}, without copying them.
+     *
+     * @param buffer The {@link ByteBuffer} from which the bytes are read.
+     * @param length The amount of bytes.
+     * @return A {@link ByteBuffer} whose remaining bytes are the read ones.
+     */
+    private static ByteBuffer readSlice(final ByteBuffer buffer, final int length) {
+        final ByteBuffer slice = buffer.slice();
+        // Called through Buffer, as ByteBuffer overrides these methods since Java 9.
+        ((Buffer) slice).limit(length);
+        ((Buffer) buffer).position(buffer.position() + length);
+        return slice;
+    }
+
+
+    /**
+     * @return The single instance of the {@link CompactEnvelopeDecoder}.
+     */
+    public static CompactEnvelopeDecoder getInstance() {
+        return SINGLETON;
+    }
+}
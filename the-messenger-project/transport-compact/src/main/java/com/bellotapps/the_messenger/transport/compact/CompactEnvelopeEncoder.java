@@ -0,0 +1,354 @@
+package com.bellotapps.the_messenger.transport.compact;
+
+import com.bellotapps.the_messenger.commons.Message;
+import com.bellotapps.the_messenger.commons.headers.ContentType;
+import com.bellotapps.the_messenger.commons.headers.DefinedHeader;
+import com.bellotapps.the_messenger.commons.headers.MessageType;
+import org.apache.commons.lang3.Validate;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.Map;
+
+/**
+ * Encodes {@link Message}s into compact envelopes (see {@link CompactEnvelopeFormat} for the layout),
+ * in which well-known header names and values take one byte each, the timestamp takes 6 bytes
+ * and UUID ids take 16 bytes, so small command messages take a few dozen bytes.
+ * <p>
+ * The size of the envelope is computed before writing it, so it is written straight into its target,
+ * without intermediate buffers.
+ *
+ * @implNote Instances are stateless and thread-safe.
+ */
+public final class CompactEnvelopeEncoder {
+
+    /**
+     * Single instance of this class.
+     */
+    private static final CompactEnvelopeEncoder SINGLETON = new CompactEnvelopeEncoder();
+
+
+    /**
+     * Private constructor.
+     * Use {@link #getInstance()} to get an instance of the {@link CompactEnvelopeEncoder}.
+     */
+    private CompactEnvelopeEncoder() {
+    }
+
+
+    /**
+     * Returns the amount of bytes the envelope of the given {@code message} takes.
+     *
+     * @param message The {@link Message} to be encoded.
+     * @return The size of the envelope, in bytes.
+     * @throws IllegalArgumentException If the message is null.
+     */
+    public int encodedSize(final Message message) throws IllegalArgumentException {
+        Validate.isTrue(message != null, "The message must not be null");
+        return encodedSize(message, message.getPayloadBuffer());
+    }
+
+    /**
+     * Encodes the given {@code message} into a new array.
+     *
+     * @param message The {@link Message} to be encoded.
+     * @return The envelope of the message.
+     * @throws IllegalArgumentException If the message is null.
+     */
+    public byte[] encode(final Message message) throws IllegalArgumentException {
+        Validate.isTrue(message != null, "The message must not be null");
+        final ByteBuffer payload = message.getPayloadBuffer();
+        final byte[] envelope = new byte[encodedSize(message, payload)];
+        write(message, payload, ByteBuffer.wrap(envelope));
+        return envelope;
+    }
+
+    /**
+     * Encodes the given {@code message} into the given {@code target}, starting at its position.
+     * On return, the position of the {@code target} is just after the envelope.
+     *
+     * @param message The {@link Message} to be encoded.
+     * @param target  The {@link ByteBuffer} into which the envelope is written.
+     * @throws IllegalArgumentException If the message or the target are null.
+     * @throws BufferOverflowException  If the envelope does not fit in the remaining bytes of the target
+     *                                  (in which case nothing is written).
+     */
+    public void encode(final Message message, final ByteBuffer target)
+            throws IllegalArgumentException, BufferOverflowException {
+        Validate.isTrue(message != null, "The message must not be null");
+        Validate.isTrue(target != null, "The target must not be null");
+        final ByteBuffer payload = message.getPayloadBuffer();
+        if (target.remaining() < encodedSize(message, payload)) {
+            throw new BufferOverflowException();
+        }
+        write(message, payload, target);
+    }
+
+
+    /**
+     * Returns the amount of bytes the envelope of the given {@code message} takes.
+     *
+     * @param message The {@link Message} to be encoded.
+     * @param payload The payload of the message (or {@code null} if there is no payload).
+     * @return The size of the envelope, in bytes.
+     */
+    private static int encodedSize(final Message message, final ByteBuffer payload) {
+        int size = 2; // The version and the flags.
+        final String id = message.getId();
+        size += isCanonicalUuid(id) ? 16 : stringSize(id);
+        size += stringSize(message.getSender());
+        size += CompactEnvelopeFormat.varintSize(encodeTimestamp(message.getTimestampMillis()));
+        final Map<String, String> headers = message.getHeaders();
+        size += CompactEnvelopeFormat.varintSize(headers.size());
+        for (final Map.Entry<String, String> header : headers.entrySet()) {
+            final DefinedHeader definedHeader = DefinedHeader.fromSerialized(header.getKey());
+            final int nameTag = tagOf(definedHeader);
+            size += 1 + (nameTag == CompactEnvelopeFormat.LITERAL_TAG ? stringSize(header.getKey()) : 0);
+            final int valueTag = valueTagOf(definedHeader, header.getValue());
+            size += valueTag == CompactEnvelopeFormat.LITERAL_TAG ?
+                    stringSize(header.getValue()) + (hasTaggedValues(definedHeader) ? 1 : 0) : 1;
+        }
+        if (payload != null) {
+            size += CompactEnvelopeFormat.varintSize(payload.remaining()) + payload.remaining();
+        }
+        return size;
+    }
+
+    /**
+     * Writes the envelope of the given {@code message} into the given {@code target}.
+     *
+     * @param message The {@link Message} to be encoded.
+     * @param payload The payload of the message (or {@code null} if there is no payload).
+     * @param target  The {@link ByteBuffer} into which the envelope is written.
+     */
+    private static void write(final Message message, final ByteBuffer payload, final ByteBuffer target) {
+        final String id = message.getId();
+        final boolean uuidId = isCanonicalUuid(id);
+        int flags = 0;
+        if (uuidId) {
+            flags |= CompactEnvelopeFormat.UUID_ID_FLAG;
+        }
+        if (payload != null) {
+            flags |= CompactEnvelopeFormat.PAYLOAD_FLAG;
+        }
+        target.put(CompactEnvelopeFormat.VERSION);
+        target.put((byte) flags);
+        if (uuidId) {
+            writeUuid(id, target);
+        } else {
+            writeString(id, target);
+        }
+        writeString(message.getSender(), target);
+        CompactEnvelopeFormat.writeVarint(target, encodeTimestamp(message.getTimestampMillis()));
+        final Map<String, String> headers = message.getHeaders();
+        CompactEnvelopeFormat.writeVarint(target, headers.size());
+        for (final Map.Entry<String, String> header : headers.entrySet()) {
+            final DefinedHeader definedHeader = DefinedHeader.fromSerialized(header.getKey());
+            final int nameTag = tagOf(definedHeader);
+            target.put((byte) nameTag);
+            if (nameTag == CompactEnvelopeFormat.LITERAL_TAG) {
+                writeString(header.getKey(), target);
+            }
+            if (hasTaggedValues(definedHeader)) {
+                final int valueTag = valueTagOf(definedHeader, header.getValue());
+                target.put((byte) valueTag);
+                if (valueTag == CompactEnvelopeFormat.LITERAL_TAG) {
+                    writeString(header.getValue(), target);
+                }
+            } else {
+                writeString(header.getValue(), target);
+            }
+        }
+        if (payload != null) {
+            CompactEnvelopeFormat.writeVarint(target, payload.remaining());
+            target.put(payload.duplicate());
+        }
+    }
+
+
+    /**
+     * Returns the tag of the given {@link DefinedHeader}.
+     *
+     * @param definedHeader The {@link DefinedHeader} (or {@code null} if the header is not a defined one).
+     * @return The tag of the header.
+     */
+    private static int tagOf(final DefinedHeader definedHeader) {
+        return CompactEnvelopeFormat.tagOf(CompactEnvelopeFormat.HEADERS, definedHeader);
+    }
+
+    /**
+     * Indicates whether the values of the given header are encoded as tags.
+     *
+     * @param definedHeader The {@link DefinedHeader} (or {@code null} if the header is not a defined one).
+     * @return {@code true} if the values of the header are tagged, or {@code false} otherwise.
+     */
+    private static boolean hasTaggedValues(final DefinedHeader definedHeader) {
+        return definedHeader == DefinedHeader.MESSAGE_TYPE || definedHeader == DefinedHeader.CONTENT_TYPE;
+    }
+
+    /**
+     * Returns the tag of the given header {@code value}.
+     *
+     * @param definedHeader The {@link DefinedHeader} (or {@code null} if the header is not a defined one).
+     * @param value         The value of the header.
+     * @return The tag of the value, or {@link CompactEnvelopeFormat#LITERAL_TAG}
+     * if it is not a well-known value of the header.
+     */
+    private static int valueTagOf(final DefinedHeader definedHeader, final String value) {
+        if (definedHeader == DefinedHeader.MESSAGE_TYPE) {
+            return CompactEnvelopeFormat.tagOf(CompactEnvelopeFormat.MESSAGE_TYPES, MessageType.fromSerialized(value));
+        }
+        if (definedHeader == DefinedHeader.CONTENT_TYPE) {
+            return CompactEnvelopeFormat.tagOf(CompactEnvelopeFormat.CONTENT_TYPES, ContentType.fromSerialized(value));
+        }
+        return CompactEnvelopeFormat.LITERAL_TAG;
+    }
+
+    /**
+     * Encodes the given {@code timestampMillis} as a zig-zag delta from the
+     * {@link CompactEnvelopeFormat#BASE_EPOCH_MILLIS}.
+     *
+     * @param timestampMillis The timestamp, in milliseconds since the epoch.
+     * @return The encoded timestamp.
+     */
+    private static long encodeTimestamp(final long timestampMillis) {
+        return CompactEnvelopeFormat.zigZagEncode(timestampMillis - CompactEnvelopeFormat.BASE_EPOCH_MILLIS);
+    }
+
+    /**
+     * Indicates whether the given {@code id} is a canonical UUID (i.e 36 lowercase hexadecimal digits and dashes,
+     * as produced by {@link java.util.UUID#toString()}), so it can be encoded in 16 bytes and decoded back as-is.
+     *
+     * @param id The id to be checked.
+     * @return {@code true} if the id is a canonical UUID, or {@code false} otherwise.
+     */
+    private static boolean isCanonicalUuid(final String id) {
+        if (id.length() != CompactEnvelopeFormat.UUID_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < CompactEnvelopeFormat.UUID_LENGTH; i++) {
+            final char c = id.charAt(i);
+            if (i == 8 || i == 13 || i == 18 || i == 23) {
+                if (c != '-') {
+                    return false;
+                }
+            } else if ((c < '0' || c > '9') && (c < 'a' || c > 'f')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Writes the given canonical UUID {@code id} as 16 bytes.
+     *
+     * @param id     The id to be written (which must be a canonical UUID).
+     * @param target The {@link ByteBuffer} into which the id is written.
+     */
+    private static void writeUuid(final String id, final ByteBuffer target) {
+        final long mostSignificantBits = hexToLong(id, 0, 8) << 32 | hexToLong(id, 9, 13) << 16
+                | hexToLong(id, 14, 18);
+        final long leastSignificantBits = hexToLong(id, 19, 23) << 48 | hexToLong(id, 24, 36);
+        target.putLong(mostSignificantBits);
+        target.putLong(leastSignificantBits);
+    }
+
+    /**
+     * Parses the given range of lowercase hexadecimal digits.
+     *
+     * @param value The {@link String} containing the digits.
+     * @param from  The position of the first digit.
+     * @param to    The position after the last digit.
+     * @return The parsed value.
+     */
+    private static long hexToLong(final String value, final int from, final int to) {
+        long result = 0;
+        for (int i = from; i < to; i++) {
+            final char c = value.charAt(i);
+            result = result << 4 | (c <= '9' ? c - '0' : c - 'a' + 10);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the amount of bytes the given {@code value} takes when encoded as a string
+     * (i.e its length followed by its UTF-8 bytes).
+     *
+     * @param value The value.
+     * @return The amount of bytes.
+     */
+    private static int stringSize(final String value) {
+        final int length = utf8Length(value);
+        return CompactEnvelopeFormat.varintSize(length) + length;
+    }
+
+    /**
+     * Returns the amount of bytes of the given {@code value} encoded in UTF-8.
+     *
+     * @param value The value.
+     * @return The amount of bytes.
+     * @implNote Unpaired surrogates count as one byte, as they are replaced by {@code '?'}
+     * (like {@link String#getBytes(java.nio.charset.Charset)} does).
+     */
+    private static int utf8Length(final String value) {
+        final int chars = value.length();
+        int length = 0;
+        for (int i = 0; i < chars; i++) {
+            final char c = value.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < chars && Character.isLowSurrogate(value.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                length++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Writes the given {@code value} as a string (i.e its length followed by its UTF-8 bytes),
+     * encoding it straight into the {@code target}.
+     *
+     * @param value  The value to be written.
+     * @param target The {@link ByteBuffer} into which the value is written.
+     */
+    private static void writeString(final String value, final ByteBuffer target) {
+        CompactEnvelopeFormat.writeVarint(target, utf8Length(value));
+        final int chars = value.length();
+        for (int i = 0; i < chars; i++) {
+            final char c = value.charAt(i);
+            if (c < 0x80) {
+                target.put((byte) c);
+            } else if (c < 0x800) {
+                target.put((byte) (0xC0 | c >> 6));
+                target.put((byte) (0x80 | c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < chars && Character.isLowSurrogate(value.charAt(i + 1))) {
+                final int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                target.put((byte) (0xF0 | codePoint >> 18));
+                target.put((byte) (0x80 | codePoint >> 12 & 0x3F));
+                target.put((byte) (0x80 | codePoint >> 6 & 0x3F));
+                target.put((byte) (0x80 | codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                target.put((byte) '?');
+            } else {
+                target.put((byte) (0xE0 | c >> 12));
+                target.put((byte) (0x80 | c >> 6 & 0x3F));
+                target.put((byte) (0x80 | c & 0x3F));
+            }
+        }
+    }
+
+
+    /**
+     * @return The single instance of the {@link CompactEnvelopeEncoder}.
+     */
+    public static CompactEnvelopeEncoder getInstance() {
+        return SINGLETON;
+    }
+}
@@ -0,0 +1,180 @@
+package com.bellotapps.the_messenger.transport.compact;
+
+import com.bellotapps.the_messenger.commons.headers.ContentType;
+import com.bellotapps.the_messenger.commons.headers.DefinedHeader;
+import com.bellotapps.the_messenger.commons.headers.MessageType;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+
+/**
+ * Definitions of the compact envelope format, shared by the {@link CompactEnvelopeEncoder}
+ * and the {@link CompactEnvelopeDecoder}. An envelope is laid out as follows:
+ * <ol>
+ * <li>The format version (one byte).</li>
+ * <li>The flags (one byte), which tell how the id is encoded and whether there is a payload.</li>
+ * <li>The id, as 16 bytes if it is a canonical (i.e lowercase) UUID, or as a string otherwise.</li>
+ * <li>The sender, as a string.</li>
+ * <li>The timestamp, as a zig-zag varint with the milliseconds elapsed since the {@link #BASE_EPOCH_MILLIS}.</li>
+ * <li>The amount of headers (a varint), followed by each header. The name of a header is a one-byte tag
+ * ({@link #LITERAL_TAG} followed by a string if it is not a {@link DefinedHeader}), and so are the values of
+ * the {@link DefinedHeader#MESSAGE_TYPE} and {@link DefinedHeader#CONTENT_TYPE} headers
+ * (if they are a {@link MessageType} or a {@link ContentType}). Any other value is a string.</li>
+ * <li>The payload (if any), as a varint with its length followed by its UTF-8 bytes.</li>
+ * </ol>
+ * Strings are encoded as a varint with their length followed by their UTF-8 bytes.
+ * <p>
+ * Tags are the position of the value in the tables of this class plus one (zero is the {@link #LITERAL_TAG}),
+ * so new values must only be appended to those tables.
+ */
+final class CompactEnvelopeFormat {
+
+    /**
+     * The version of the format.
+     */
+    static final byte VERSION = 1;
+
+    /**
+     * Flag indicating that the id is encoded as a 16 bytes UUID.
+     */
+    static final int UUID_ID_FLAG = 0x01;
+
+    /**
+     * Flag indicating that the envelope has a payload.
+     */
+    static final int PAYLOAD_FLAG = 0x02;
+
+    /**
+     * The tag indicating that the value is not a well-known one, so it is encoded as a string after the tag.
+     */
+    static final int LITERAL_TAG = 0;
+
+    /**
+     * The epoch from which timestamps are encoded (2019-01-01T00:00:00Z),
+     * so current timestamps take 6 bytes instead of 8.
+     */
+    static final long BASE_EPOCH_MILLIS = Instant.parse("2019-01-01T00:00:00Z").toEpochMilli();
+
+    /**
+     * The {@link DefinedHeader}s, by tag (minus one).
+     */
+    static final DefinedHeader[] HEADERS = {
+            DefinedHeader.MESSAGE_TYPE,
+            DefinedHeader.CONTENT_TYPE,
+            DefinedHeader.REPLIES_TO,
+            DefinedHeader.COMMAND,
+            DefinedHeader.COPY_HEADERS,
+            DefinedHeader.CONTENT_ENCODING,
+    };
+
+    /**
+     * The {@link MessageType}s, by tag (minus one).
+     */
+    static final MessageType[] MESSAGE_TYPES = {
+            MessageType.SIMPLE,
+            MessageType.REPLY,
+            MessageType.COMMAND,
+    };
+
+    /**
+     * The {@link ContentType}s, by tag (minus one).
+     */
+    static final ContentType[] CONTENT_TYPES = {
+            ContentType.PLAIN,
+            ContentType.JSON,
+    };
+
+    /**
+     * The length of a canonical UUID string.
+     */
+    static final int UUID_LENGTH = 36;
+
+
+    /**
+     * Private constructor to avoid instantiation.
+     */
+    private CompactEnvelopeFormat() {
+    }
+
+
+    /**
+     * Returns the tag of the given {@code value} in the given {@code table}.
+     *
+     * @param table The table of well-known values.
+     * @param value The value whose tag must be returned (might be {@code null}).
+     * @return The tag of the value, or {@link #LITERAL_TAG} if it is not in the table.
+     */
+    static int tagOf(final Object[] table, final Object value) {
+        for (int i = 0; i < table.length; i++) {
+            if (table[i] == value) {
+                return i + 1;
+            }
+        }
+        return LITERAL_TAG;
+    }
+
+    /**
+     * Returns the amount of bytes taken by the given {@code value} encoded as an unsigned varint.
+     *
+     * @param value The value.
+     * @return The amount of bytes.
+     */
+    static int varintSize(final long value) {
+        final int bits = 64 - Long.numberOfLeadingZeros(value | 1);
+        return (bits + 6) / 7;
+    }
+
+    /**
+     * Writes the given {@code value} into the given {@code buffer} as an unsigned varint.
+     *
+     * @param buffer The {@link ByteBuffer} into which the value is written.
+     * @param value  The value to be written.
+     */
+    static void writeVarint(final ByteBuffer buffer, final long value) {
+        long remaining = value;
+        while ((remaining & ~0x7FL) != 0) {
+            buffer.put((byte) ((remaining & 0x7F) | 0x80));
+            remaining >>>= 7;
+        }
+        buffer.put((byte) remaining);
+    }
+
+    /**
+     * Reads an unsigned varint from the given {@code buffer}.
+     *
+     * @param buffer The {@link ByteBuffer} from which the value is read.
+     * @return The read value.
+     * @throws IllegalArgumentException If the varint is longer than 64 bits.
+     */
+    static long readVarint(final ByteBuffer buffer) throws IllegalArgumentException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            final byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint in compact envelope");
+    }
+
+    /**
+     * Encodes the given signed {@code value} with zig-zag encoding, so small negative values stay small.
+     *
+     * @param value The value to be encoded.
+     * @return The encoded value.
+     */
+    static long zigZagEncode(final long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    /**
+     * Decodes the given zig-zag encoded {@code value}.
+     *
+     * @param value The value to be decoded.
+     * @return The decoded value.
+     */
+    static long zigZagDecode(final long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
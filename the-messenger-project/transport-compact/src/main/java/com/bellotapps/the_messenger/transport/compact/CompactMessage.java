@@ -0,0 +1,37 @@
+package com.bellotapps.the_messenger.transport.compact;
+
+import com.bellotapps.the_messenger.commons.AbstractMessage;
+import com.bellotapps.the_messenger.commons.validation.TrustedMessageValidator;
+
+import java.nio.ByteBuffer;
+import java.util.Map;
+
+/**
+ * An extension of an {@link AbstractMessage} created by the {@link CompactEnvelopeDecoder},
+ * whose payload is a view of the decoded envelope (i.e it is not copied).
+ * Decoded messages were validated by the producer before being sent,
+ * so they are validated with a {@link TrustedMessageValidator}.
+ */
+final class CompactMessage extends AbstractMessage {
+
+    /**
+     * Constructor.
+     *
+     * @param id              The message's id.
+     * @param sender          An identification of the sender.
+     *                        This allows the recipient to know who has sent the message.
+     * @param timestampMillis The timestamp of the message, in milliseconds since the epoch.
+     * @param headers         The message headers.
+     * @param payloadBytes    The message payload, as UTF-8 bytes (or {@code null} if there is no payload).
+     * @throws IllegalArgumentException If any argument is invalid.
+     */
+    CompactMessage(
+            final String id,
+            final String sender,
+            final long timestampMillis,
+            final Map<String, String> headers,
+            final ByteBuffer payloadBytes)
+            throws IllegalArgumentException {
+        super(id, sender, timestampMillis, headers, payloadBytes, TrustedMessageValidator.getInstance());
+    }
+}
@@ -0,0 +1,270 @@
+package com.bellotapps.the_messenger.transport.compact;
+
+import com.bellotapps.the_messenger.commons.AbstractMessage;
+import com.bellotapps.the_messenger.commons.Message;
+import com.bellotapps.the_messenger.commons.headers.ContentType;
+import com.bellotapps.the_messenger.commons.headers.DefinedHeader;
+import com.bellotapps.the_messenger.commons.headers.MessageType;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.Buffer;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Round trip tests for the {@link CompactEnvelopeEncoder} and the {@link CompactEnvelopeDecoder}.
+ */
+public class CompactEnvelopeTest {
+
+    /**
+     * A timestamp after the base epoch of the format.
+     */
+    private static final long TIMESTAMP = 1700000000123L;
+
+
+    /**
+     * The encoder being tested.
+     */
+    private final CompactEnvelopeEncoder encoder = CompactEnvelopeEncoder.getInstance();
+
+    /**
+     * The decoder being tested.
+     */
+    private final CompactEnvelopeDecoder decoder = CompactEnvelopeDecoder.getInstance();
+
+
+    /**
+     * Tests that a command {@link Message} with a UUID id and well-known headers is decoded unchanged,
+     * and that its envelope has the size reported by the encoder.
+     */
+    @Test
+    public void testCommandMessageRoundTrip() {
+        final Message message = commandMessage(UUID.randomUUID().toString(), "{\"orderId\":42}");
+        final byte[] envelope = encoder.encode(message);
+        Assert.assertEquals(encoder.encodedSize(message), envelope.length);
+        assertSameMessage(message, decoder.decode(envelope));
+    }
+
+    /**
+     * Tests that ids that are not canonical UUIDs (e.g uppercase ones) are kept verbatim.
+     */
+    @Test
+    public void testNonUuidIdsRoundTrip() {
+        final String uuid = UUID.randomUUID().toString();
+        for (final String id : Arrays.asList(uuid.toUpperCase(), "order-42", uuid + "-suffix")) {
+            final Message message = commandMessage(id, "payload");
+            assertSameMessage(message, decoder.decode(encoder.encode(message)));
+        }
+    }
+
+    /**
+     * Tests that custom headers, and defined headers with values that are not well-known, are kept verbatim.
+     */
+    @Test
+    public void testLiteralHeadersRoundTrip() {
+        final Map<String, String> headers = new HashMap<>();
+        headers.put(DefinedHeader.MESSAGE_TYPE.serialize(), "Custom-Type");
+        headers.put(DefinedHeader.CONTENT_TYPE.serialize(), "application/xml");
+        headers.put(DefinedHeader.REPLIES_TO.serialize(), UUID.randomUUID().toString());
+        headers.put("Custom-Header", "Ñandú €");
+        final Message message = new TestMessage("id", "sender", TIMESTAMP, headers, "<payload/>");
+        final byte[] envelope = encoder.encode(message);
+        Assert.assertEquals(encoder.encodedSize(message), envelope.length);
+        assertSameMessage(message, decoder.decode(envelope));
+    }
+
+    /**
+     * Tests that {@link Message}s without payload, or with an empty or non ASCII one, are decoded unchanged.
+     */
+    @Test
+    public void testPayloadsRoundTrip() {
+        for (final String payload : Arrays.asList(null, "", "Ñandú € 😀", repeat('x', 300))) {
+            final Message message = commandMessage(UUID.randomUUID().toString(), payload);
+            assertSameMessage(message, decoder.decode(encoder.encode(message)));
+        }
+    }
+
+    /**
+     * Tests that timestamps before the base epoch of the format, and far in the future, are decoded unchanged.
+     */
+    @Test
+    public void testTimestampsRoundTrip() {
+        for (final long timestamp : new long[]{0L, CompactEnvelopeFormat.BASE_EPOCH_MILLIS - 1,
+                CompactEnvelopeFormat.BASE_EPOCH_MILLIS, TIMESTAMP, 253402300799999L}) {
+            final Message message = new TestMessage("id", "sender", timestamp, new HashMap<>(), "payload");
+            assertSameMessage(message, decoder.decode(encoder.encode(message)));
+        }
+    }
+
+    /**
+     * Tests encoding consecutive envelopes into a heap {@link ByteBuffer} that does not start at position zero,
+     * and decoding them back, checking that the positions are moved just after each envelope.
+     */
+    @Test
+    public void testHeapBufferRoundTrip() {
+        assertBufferRoundTrip(ByteBuffer.allocate(1024));
+    }
+
+    /**
+     * Tests encoding consecutive envelopes into a direct {@link ByteBuffer}, and decoding them back.
+     */
+    @Test
+    public void testDirectBufferRoundTrip() {
+        assertBufferRoundTrip(ByteBuffer.allocateDirect(1024));
+    }
+
+    /**
+     * Tests decoding from a heap {@link ByteBuffer} whose content starts at an offset of its backing array.
+     */
+    @Test
+    public void testDecodeFromBufferWithArrayOffset() {
+        final Message message = commandMessage("order-42", "payload");
+        final byte[] envelope = encoder.encode(message);
+        final byte[] bytes = new byte[envelope.length + 13];
+        System.arraycopy(envelope, 0, bytes, 13, envelope.length);
+        final ByteBuffer buffer = ByteBuffer.wrap(bytes, 13, envelope.length).slice();
+        Assert.assertEquals(13, buffer.arrayOffset());
+        assertSameMessage(message, decoder.decode(buffer));
+        Assert.assertFalse(buffer.hasRemaining());
+    }
+
+    /**
+     * Tests that encoding into a target without enough room fails without writing anything.
+     */
+    @Test
+    public void testEncodeIntoSmallTargetWritesNothing() {
+        final Message message = commandMessage(UUID.randomUUID().toString(), "payload");
+        final ByteBuffer target = ByteBuffer.allocate(encoder.encodedSize(message) - 1);
+        try {
+            encoder.encode(message, target);
+            Assert.fail("The envelope was written into a target without enough room");
+        } catch (final BufferOverflowException e) {
+            Assert.assertEquals(0, target.position());
+        }
+    }
+
+    /**
+     * Tests that every truncated envelope is rejected with an {@link IllegalArgumentException}.
+     */
+    @Test
+    public void testTruncatedEnvelopesAreRejected() {
+        final byte[] envelope = encoder.encode(commandMessage(UUID.randomUUID().toString(), "payload"));
+        for (int length = 0; length < envelope.length; length++) {
+            try {
+                decoder.decode(Arrays.copyOf(envelope, length));
+                Assert.fail("An envelope truncated to " + length + " bytes was decoded");
+            } catch (final IllegalArgumentException e) {
+                // Expected
+            }
+        }
+    }
+
+    /**
+     * Tests that envelopes with an unknown version are rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownVersionIsRejected() {
+        final byte[] envelope = encoder.encode(commandMessage(UUID.randomUUID().toString(), "payload"));
+        envelope[0] = CompactEnvelopeFormat.VERSION + 1;
+        decoder.decode(envelope);
+    }
+
+
+    /**
+     * Encodes several {@link Message}s into the given {@code buffer} (after some garbage bytes),
+     * and decodes them back.
+     *
+     * @param buffer The {@link ByteBuffer} into which the envelopes are written.
+     */
+    private void assertBufferRoundTrip(final ByteBuffer buffer) {
+        final List<Message> messages = Arrays.asList(
+                commandMessage(UUID.randomUUID().toString(), "{\"orderId\":42}"),
+                commandMessage("order-42", null),
+                new TestMessage("id", "sender", TIMESTAMP, new HashMap<>(), ""));
+        buffer.put(new byte[]{1, 2, 3});
+        for (final Message message : messages) {
+            final int start = buffer.position();
+            encoder.encode(message, buffer);
+            Assert.assertEquals(encoder.encodedSize(message), buffer.position() - start);
+        }
+        ((Buffer) buffer).flip();
+        ((Buffer) buffer).position(3);
+        for (final Message message : messages) {
+            assertSameMessage(message, decoder.decode(buffer));
+        }
+        Assert.assertFalse("The buffer was not fully read", buffer.hasRemaining());
+    }
+
+    /**
+     * Creates a command {@link Message} with JSON content type.
+     *
+     * @param id      The message's id.
+     * @param payload The message's payload.
+     * @return The created {@link Message}.
+     */
+    private static Message commandMessage(final String id, final String payload) {
+        final Map<String, String> headers = new HashMap<>();
+        headers.put(DefinedHeader.MESSAGE_TYPE.serialize(), MessageType.COMMAND.serialize());
+        headers.put(DefinedHeader.COMMAND.serialize(), "PlaceOrder");
+        headers.put(DefinedHeader.CONTENT_TYPE.serialize(), ContentType.JSON.serialize());
+        return new TestMessage(id, "orders-service", TIMESTAMP, headers, payload);
+    }
+
+    /**
+     * Returns a string with the given {@code character} repeated the given amount of {@code times}.
+     *
+     * @param character The character.
+     * @param times     The amount of times.
+     * @return The string.
+     */
+    private static String repeat(final char character, final int times) {
+        final char[] characters = new char[times];
+        Arrays.fill(characters, character);
+        return new String(characters);
+    }
+
+    /**
+     * Asserts that the given {@link Message}s have the same id, sender, timestamp, headers and payload.
+     *
+     * @param expected The expected {@link Message}.
+     * @param actual   The actual {@link Message}.
+     */
+    private static void assertSameMessage(final Message expected, final Message actual) {
+        Assert.assertEquals(expected.getId(), actual.getId());
+        Assert.assertEquals(expected.getSender(), actual.getSender());
+        Assert.assertEquals(expected.getTimestampMillis(), actual.getTimestampMillis());
+        Assert.assertEquals(expected.getHeaders(), actual.getHeaders());
+        Assert.assertEquals(expected.getPayload(), actual.getPayload());
+    }
+
+
+    /**
+     * A {@link Message} to be encoded in tests.
+     */
+    private static final class TestMessage extends AbstractMessage {
+
+        /**
+         * Constructor.
+         *
+         * @param id              The message's id.
+         * @param sender          The sender of the message.
+         * @param timestampMillis The timestamp of the message, in milliseconds since the epoch.
+         * @param headers         The message headers.
+         * @param payload         The message payload.
+         */
+        private TestMessage(
+                final String id,
+                final String sender,
+                final long timestampMillis,
+                final Map<String, String> headers,
+                final String payload) {
+            super(id, sender, timestampMillis, headers, payload);
+        }
+    }
+}
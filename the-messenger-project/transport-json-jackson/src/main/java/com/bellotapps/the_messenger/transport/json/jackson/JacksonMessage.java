@@ -1,40 +1,43 @@
 package com.bellotapps.the_messenger.transport.json.jackson;
 
 import com.bellotapps.the_messenger.commons.AbstractMessage;
+import com.bellotapps.the_messenger.commons.validation.MessageValidator;
+import com.bellotapps.the_messenger.commons.validation.TrustedMessageValidator;
 import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
-import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
-import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 
+import java.nio.ByteBuffer;
 import java.time.Instant;
 import java.util.Map;
 
 /**
  * An extension of an {@link AbstractMessage} decorated to be serialized/deserialized to/into JSON
- * using Jackson.
+ * using Jackson. The timestamp is (de)serialized straight from/into its milliseconds since the epoch,
+ * so no {@link Instant} is created unless {@link #getTimestamp()} is called.
  */
 public class JacksonMessage extends AbstractMessage {
 
     /**
      * The JSON field for the id.
      */
-    private static final String ID = "id";
+    static final String ID = "id";
     /**
      * The JSON field for the sender.
      */
-    private static final String SENDER = "sn";
+    static final String SENDER = "sn";
     /**
      * The JSON field for the timestamp.
      */
-    private static final String TIMESTAMP = "ts";
+    static final String TIMESTAMP = "ts";
     /**
      * The JSON field for the headers.
      */
-    private static final String HEADERS = "hs";
+    static final String HEADERS = "hs";
     /**
      * The JSON field for the payload.
      */
-    private static final String PAYLOAD = "pl";
+    static final String PAYLOAD = "pl";
 
 
     /**
@@ -47,16 +50,154 @@ public class JacksonMessage extends AbstractMessage {
      * @param payload   The message payload.
      * @throws IllegalArgumentException If any argument is invalid.
      */
-    @JsonCreator
     public JacksonMessage(
+            final String id,
+            final String sender,
+            final Instant timestamp,
+            final Map<String, String> headers,
+            final String payload)
+            throws IllegalArgumentException {
+        super(id, sender, timestamp, headers, payload);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param id              The message's id.
+     * @param sender          An identification of the sender.
+     *                        This allows the recipient to know who has sent the message.
+     * @param timestampMillis The timestamp of the message, in milliseconds since the epoch.
+     * @param headers         The message headers.
+     * @param payload         The message payload.
+     * @throws IllegalArgumentException If any argument is invalid.
+     */
+    public JacksonMessage(
+            final String id,
+            final String sender,
+            final long timestampMillis,
+            final Map<String, String> headers,
+            final String payload)
+            throws IllegalArgumentException {
+        super(id, sender, timestampMillis, headers, payload);
+    }
+
+    /**
+     * Constructor that validates with the given {@link MessageValidator}.
+     *
+     * @param id        The message's id.
+     * @param sender    An identification of the sender. This allows the recipient to know who has sent the message.
+     * @param timestamp The timestamp of the message.
+     * @param headers   The message headers.
+     * @param payload   The message payload.
+     * @param validator The {@link MessageValidator} used to validate the arguments.
+     * @throws IllegalArgumentException If any argument is invalid.
+     */
+    protected JacksonMessage(
+            final String id,
+            final String sender,
+            final Instant timestamp,
+            final Map<String, String> headers,
+            final String payload,
+            final MessageValidator validator)
+            throws IllegalArgumentException {
+        super(id, sender, timestamp, headers, payload, validator);
+    }
+
+    /**
+     * Constructor that validates with the given {@link MessageValidator}.
+     *
+     * @param id              The message's id.
+     * @param sender          An identification of the sender.
+     *                        This allows the recipient to know who has sent the message.
+     * @param timestampMillis The timestamp of the message, in milliseconds since the epoch.
+     * @param headers         The message headers.
+     * @param payload         The message payload.
+     * @param validator       The {@link MessageValidator} used to validate the arguments.
+     * @throws IllegalArgumentException If any argument is invalid.
+     */
+    protected JacksonMessage(
+            final String id,
+            final String sender,
+            final long timestampMillis,
+            final Map<String, String> headers,
+            final String payload,
+            final MessageValidator validator)
+            throws IllegalArgumentException {
+        super(id, sender, timestampMillis, headers, payload, validator);
+    }
+
+
+    /**
+     * Constructor for messages whose payload is received as UTF-8 bytes,
+     * which are decoded only if the payload is requested as a {@link String}.
+     *
+     * @param id           The message's id.
+     * @param sender       An identification of the sender.
+     *                     This allows the recipient to know who has sent the message.
+     * @param timestamp    The timestamp of the message.
+     * @param headers      The message headers.
+     * @param payloadBytes The message payload, as UTF-8 bytes (or {@code null} if there is no payload).
+     * @param validator    The {@link MessageValidator} used to validate the arguments.
+     * @throws IllegalArgumentException If any argument is invalid.
+     */
+    protected JacksonMessage(
+            final String id,
+            final String sender,
+            final Instant timestamp,
+            final Map<String, String> headers,
+            final ByteBuffer payloadBytes,
+            final MessageValidator validator)
+            throws IllegalArgumentException {
+        super(id, sender, timestamp, headers, payloadBytes, validator);
+    }
+
+    /**
+     * Constructor for messages whose payload is received as UTF-8 bytes,
+     * which are decoded only if the payload is requested as a {@link String}.
+     *
+     * @param id              The message's id.
+     * @param sender          An identification of the sender.
+     *                        This allows the recipient to know who has sent the message.
+     * @param timestampMillis The timestamp of the message, in milliseconds since the epoch.
+     * @param headers         The message headers.
+     * @param payloadBytes    The message payload, as UTF-8 bytes (or {@code null} if there is no payload).
+     * @param validator       The {@link MessageValidator} used to validate the arguments.
+     * @throws IllegalArgumentException If any argument is invalid.
+     */
+    protected JacksonMessage(
+            final String id,
+            final String sender,
+            final long timestampMillis,
+            final Map<String, String> headers,
+            final ByteBuffer payloadBytes,
+            final MessageValidator validator)
+            throws IllegalArgumentException {
+        super(id, sender, timestampMillis, headers, payloadBytes, validator);
+    }
+
+    /**
+     * Creates a {@link JacksonMessage} when deserializing.
+     * Deserialized messages were validated by the producer before being sent,
+     * so they are validated with a {@link TrustedMessageValidator}.
+     *
+     * @param id        The message's id.
+     * @param sender    An identification of the sender. This allows the recipient to know who has sent the message.
+     * @param timestamp The timestamp of the message, in milliseconds since the epoch.
+     * @param headers   The message headers.
+     * @param payload   The message payload.
+     * @return The created {@link JacksonMessage}.
+     * @throws IllegalArgumentException If any argument is invalid.
+     */
+    @JsonCreator
+    private static JacksonMessage fromJson(
             @JsonProperty(value = ID, access = JsonProperty.Access.WRITE_ONLY) final String id,
             @JsonProperty(value = SENDER, access = JsonProperty.Access.WRITE_ONLY) final String sender,
-            @JsonProperty(value = TIMESTAMP, access = JsonProperty.Access.WRITE_ONLY)
-            @JsonDeserialize(using = InstantEpochDeserializer.class) final Instant timestamp,
+            @JsonProperty(value = TIMESTAMP, access = JsonProperty.Access.WRITE_ONLY, required = true)
+            final long timestamp,
             @JsonProperty(value = HEADERS, access = JsonProperty.Access.WRITE_ONLY) final Map<String, String> headers,
             @JsonProperty(value = PAYLOAD, access = JsonProperty.Access.WRITE_ONLY) final String payload)
             throws IllegalArgumentException {
-        super(id, sender, timestamp, headers, payload);
+        return new JacksonMessage(id, sender, timestamp, headers, payload, TrustedMessageValidator.getInstance());
     }
 
 
@@ -73,12 +214,17 @@ public class JacksonMessage extends AbstractMessage {
     }
 
     @Override
-    @JsonProperty(value = TIMESTAMP, access = JsonProperty.Access.READ_ONLY)
-    @JsonSerialize(using = InstantEpochSerializer.class)
+    @JsonIgnore
     public Instant getTimestamp() {
         return super.getTimestamp();
     }
 
+    @Override
+    @JsonProperty(value = TIMESTAMP, access = JsonProperty.Access.READ_ONLY)
+    public long getTimestampMillis() {
+        return super.getTimestampMillis();
+    }
+
     @Override
     @JsonProperty(value = HEADERS, access = JsonProperty.Access.READ_ONLY)
     public Map<String, String> getHeaders() {
@@ -90,4 +236,16 @@ public class JacksonMessage extends AbstractMessage {
     public String getPayload() {
         return super.getPayload();
     }
+
+    @Override
+    @JsonIgnore
+    public byte[] getPayloadBytes() {
+        return super.getPayloadBytes();
+    }
+
+    @Override
+    @JsonIgnore
+    public ByteBuffer getPayloadBuffer() {
+        return super.getPayloadBuffer();
+    }
 }
@@ -0,0 +1,141 @@
+package com.bellotapps.the_messenger.transport.json.jackson;
+
+import com.bellotapps.the_messenger.commons.Message;
+import com.bellotapps.the_messenger.commons.validation.TrustedMessageValidator;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.apache.commons.lang3.Validate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Writes and reads {@link Message}s with the {@link JacksonMessage} mapping, in the data format of the
+ * {@link ObjectMapper} it is created with (e.g JSON, or a binary format such as Smile or CBOR).
+ * The {@link ObjectReader} and {@link ObjectWriter} of {@link JacksonMessage} are resolved once, at construction.
+ * <p>
+ * {@link Message}s that are not {@link JacksonMessage}s are copied into one before being written.
+ *
+ * @implNote Instances are immutable and thread-safe.
+ */
+public class JacksonMessageCodec {
+
+    /**
+     * The {@link ObjectReader} of {@link JacksonMessage}s.
+     */
+    private final ObjectReader reader;
+
+    /**
+     * The {@link ObjectWriter} of {@link JacksonMessage}s.
+     */
+    private final ObjectWriter writer;
+
+    /**
+     * The {@link ObjectWriter} of {@link JacksonMessage}s into streams, which does not close them.
+     */
+    private final ObjectWriter streamWriter;
+
+
+    /**
+     * Constructor that uses a default (i.e JSON) {@link ObjectMapper}.
+     */
+    public JacksonMessageCodec() {
+        this(new ObjectMapper());
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param objectMapper The {@link ObjectMapper} whose data format is used.
+     * @throws IllegalArgumentException If the object mapper is null.
+     */
+    public JacksonMessageCodec(final ObjectMapper objectMapper) throws IllegalArgumentException {
+        Validate.isTrue(objectMapper != null, "The object mapper must not be null");
+        this.reader = objectMapper.readerFor(JacksonMessage.class);
+        this.writer = objectMapper.writerFor(JacksonMessage.class);
+        this.streamWriter = writer.without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    }
+
+
+    /**
+     * Writes the given {@code message} into the given {@code outputStream}.
+     *
+     * @param message      The {@link Message} to be written.
+     * @param outputStream The {@link OutputStream} into which the message is written (it is not closed).
+     * @throws IOException If any I/O error occurs.
+     */
+    public void write(final Message message, final OutputStream outputStream) throws IOException {
+        streamWriter.writeValue(outputStream, asJacksonMessage(message));
+    }
+
+    /**
+     * Writes the given {@code message} as bytes.
+     *
+     * @param message The {@link Message} to be written.
+     * @return The written bytes.
+     * @throws IOException If any I/O error occurs.
+     */
+    public byte[] writeAsBytes(final Message message) throws IOException {
+        return writer.writeValueAsBytes(asJacksonMessage(message));
+    }
+
+    /**
+     * Reads a {@link Message} from the given {@code bytes}.
+     *
+     * @param bytes The bytes to be read.
+     * @return The read {@link Message}.
+     * @throws IOException If any I/O error occurs, or if the bytes are not a valid envelope.
+     */
+    public Message read(final byte[] bytes) throws IOException {
+        return reader.readValue(bytes);
+    }
+
+    /**
+     * Reads a {@link Message} from the given region of {@code bytes}.
+     *
+     * @param bytes  The bytes to be read.
+     * @param offset The position of the first byte of the envelope.
+     * @param length The amount of bytes of the envelope.
+     * @return The read {@link Message}.
+     * @throws IOException If any I/O error occurs, or if the bytes are not a valid envelope.
+     */
+    public Message read(final byte[] bytes, final int offset, final int length) throws IOException {
+        return reader.readValue(bytes, offset, length);
+    }
+
+    /**
+     * Reads a {@link Message} from the given {@code inputStream}.
+     *
+     * @param inputStream The {@link InputStream} from which the message is read.
+     * @return The read {@link Message}.
+     * @throws IOException If any I/O error occurs, or if the input is not a valid envelope.
+     */
+    public Message read(final InputStream inputStream) throws IOException {
+        return reader.readValue(inputStream);
+    }
+
+
+    /**
+     * Returns the given {@code message} as a {@link JacksonMessage}.
+     *
+     * @param message The {@link Message} to be converted.
+     * @return The same {@code message} if it is already a {@link JacksonMessage}, or a copy of it otherwise.
+     */
+    private static JacksonMessage asJacksonMessage(final Message message) {
+        if (message instanceof JacksonMessage) {
+            return (JacksonMessage) message;
+        }
+        // The message was already validated when it was created.
+        return new JacksonMessage(
+                message.getId(),
+                message.getSender(),
+                message.getTimestampMillis(),
+                message.getHeaders(),
+                message.getPayload(),
+                TrustedMessageValidator.getInstance()
+        );
+    }
+}
@@ -0,0 +1,312 @@
+package com.bellotapps.the_messenger.transport.json.jackson;
+
+import com.bellotapps.the_messenger.commons.Message;
+import com.bellotapps.the_messenger.commons.headers.ContentType;
+import com.bellotapps.the_messenger.commons.headers.DefinedHeader;
+import com.bellotapps.the_messenger.commons.validation.TrustedMessageValidator;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.util.ByteArrayBuilder;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import org.apache.commons.lang3.Validate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Writes and reads {@link Message}s as JSON using Jackson's streaming API, in a single pass.
+ * The envelope is the same as the one of a {@link JacksonMessage}, except that payloads whose content type
+ * is {@link ContentType#JSON} are embedded as raw JSON values (in the {@code "pj"} field),
+ * instead of as an escaped JSON string (in the {@code "pl"} field), unless they have a
+ * {@link DefinedHeader#CONTENT_ENCODING} (e.g they are compressed).
+ * This avoids escaping and unescaping JSON payloads, and it makes envelopes smaller.
+ * When reading, embedded JSON payloads are not parsed: the created {@link Message} keeps them as a slice of the
+ * input bytes, which are decoded or deserialized (see {@link Message#payloadAs}) only when requested.
+ * Envelopes can also be read straight from {@link ByteBuffer}s (e.g direct or memory-mapped ones),
+ * keeping the embedded payloads as slices of the buffer, so they are not copied into the heap.
+ *
+ * @apiNote Envelopes written by an {@link com.fasterxml.jackson.databind.ObjectMapper} from a {@link JacksonMessage}
+ * can be read by this codec, but envelopes with embedded JSON payloads can only be read by this codec.
+ * The payload of messages with JSON content type must be valid JSON, as it is written verbatim.
+ * @implNote Instances are immutable and thread-safe.
+ */
+public class StreamingJacksonMessageCodec {
+
+    /**
+     * The JSON field for an embedded JSON payload.
+     */
+    private static final String JSON_PAYLOAD = "pj";
+
+    /**
+     * The {@link JsonFactory} used to create generators and parsers.
+     */
+    private final JsonFactory jsonFactory;
+
+
+    /**
+     * Constructor that uses a default {@link JsonFactory}.
+     */
+    public StreamingJacksonMessageCodec() {
+        this(new JsonFactory());
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param jsonFactory The {@link JsonFactory} used to create generators and parsers.
+     */
+    public StreamingJacksonMessageCodec(final JsonFactory jsonFactory) {
+        Validate.isTrue(jsonFactory != null, "The json factory must not be null");
+        this.jsonFactory = jsonFactory;
+    }
+
+
+    /**
+     * Writes the given {@code message} into the given {@code outputStream}, as UTF-8 JSON.
+     *
+     * @param message      The {@link Message} to be written.
+     * @param outputStream The {@link OutputStream} into which the message is written (it is not closed).
+     * @throws IOException If any I/O error occurs.
+     */
+    public void write(final Message message, final OutputStream outputStream) throws IOException {
+        try (final JsonGenerator generator = jsonFactory.createGenerator(outputStream, JsonEncoding.UTF8)) {
+            write(message, generator);
+        }
+    }
+
+    /**
+     * Writes the given {@code message} with the given {@code generator}.
+     *
+     * @param message   The {@link Message} to be written.
+     * @param generator The {@link JsonGenerator} with which the message is written (it is neither flushed nor closed).
+     * @throws IOException If any I/O error occurs.
+     */
+    public void write(final Message message, final JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField(JacksonMessage.ID, message.getId());
+        generator.writeStringField(JacksonMessage.SENDER, message.getSender());
+        generator.writeNumberField(JacksonMessage.TIMESTAMP, message.getTimestampMillis());
+        generator.writeObjectFieldStart(JacksonMessage.HEADERS);
+        for (final Map.Entry<String, String> header : message.getHeaders().entrySet()) {
+            generator.writeStringField(header.getKey(), header.getValue());
+        }
+        generator.writeEndObject();
+        final String payload = message.getPayload();
+        // Encoded (e.g compressed) JSON payloads are no longer JSON, so they can not be embedded.
+        if (payload != null && message.wellKnownContentTypeOrNull() == ContentType.JSON
+                && message.headerValueOrNull(DefinedHeader.CONTENT_ENCODING) == null) {
+            generator.writeFieldName(JSON_PAYLOAD);
+            generator.writeRawValue(payload);
+        } else {
+            generator.writeStringField(JacksonMessage.PAYLOAD, payload);
+        }
+        generator.writeEndObject();
+    }
+
+    /**
+     * Writes the given {@code message} as UTF-8 JSON.
+     *
+     * @param message The {@link Message} to be written.
+     * @return The written bytes.
+     * @throws IOException If any I/O error occurs.
+     */
+    public byte[] writeAsBytes(final Message message) throws IOException {
+        try (final ByteArrayBuilder builder = new ByteArrayBuilder()) {
+            write(message, builder);
+            return builder.toByteArray();
+        }
+    }
+
+
+    /**
+     * Reads a {@link Message} from the given UTF-8 JSON {@code bytes}.
+     *
+     * @param bytes The bytes to be read.
+     * @return The read {@link Message}.
+     * @throws IOException              If any I/O error occurs, or if the bytes are not a valid envelope.
+     * @throws IllegalArgumentException If the envelope does not contain a valid message.
+     * @apiNote The {@code bytes} must not be modified afterwards, as the returned message might refer to them.
+     */
+    public Message read(final byte[] bytes) throws IOException, IllegalArgumentException {
+        return read(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Reads a {@link Message} from the given region of UTF-8 JSON {@code bytes}.
+     *
+     * @param bytes  The bytes to be read.
+     * @param offset The position of the first byte of the envelope.
+     * @param length The amount of bytes of the envelope.
+     * @return The read {@link Message}.
+     * @throws IOException              If any I/O error occurs, or if the bytes are not a valid envelope.
+     * @throws IllegalArgumentException If the envelope does not contain a valid message.
+     * @apiNote The {@code bytes} must not be modified afterwards, as the returned message might refer to them.
+     */
+    public Message read(final byte[] bytes, final int offset, final int length)
+            throws IOException, IllegalArgumentException {
+        try (final JsonParser parser = jsonFactory.createParser(bytes, offset, length)) {
+            return read(parser, ByteBuffer.wrap(bytes, offset, length).slice());
+        }
+    }
+
+    /**
+     * Reads a {@link Message} from the given {@code buffer} (which must contain UTF-8 JSON), starting at its position.
+     * On return, the position of the {@code buffer} is just after the envelope,
+     * so several envelopes written one after the other (e.g a log of messages) can be read from the same buffer.
+     *
+     * @param buffer The {@link ByteBuffer} from which the message is read (e.g a heap, direct or mapped buffer).
+     * @return The read {@link Message}.
+     * @throws IOException              If any I/O error occurs, or if the buffer does not contain a valid envelope.
+     * @throws IllegalArgumentException If the buffer is null, or if the envelope does not contain a valid message.
+     * @apiNote The content of the {@code buffer} must not be modified afterwards (nor a mapped buffer unmapped),
+     * as an embedded JSON payload of the returned message is a slice of it.
+     * @implNote Buffers backed by an array are parsed in place. Other buffers are parsed through an
+     * {@link InputStream} view of them (the parser copies the envelope in small chunks, to parse its fields),
+     * but an embedded JSON payload is still a slice of the buffer.
+     */
+    public Message read(final ByteBuffer buffer) throws IOException, IllegalArgumentException {
+        Validate.isTrue(buffer != null, "The buffer must not be null");
+        final ByteBuffer source = buffer.slice();
+        try (final JsonParser parser = source.hasArray() ?
+                jsonFactory.createParser(source.array(), source.arrayOffset(), source.remaining()) :
+                jsonFactory.createParser(new ByteBufferBackedInputStream(source.duplicate()))) {
+            final Message message = read(parser, source);
+            final int end = (int) parser.getCurrentLocation().getByteOffset();
+            ((Buffer) buffer).position(buffer.position() + end);
+            return message;
+        }
+    }
+
+    /**
+     * Reads a {@link Message} from the given {@code inputStream}, which must contain UTF-8 JSON.
+     *
+     * @param inputStream The {@link InputStream} from which the message is read (it is not closed).
+     * @return The read {@link Message}.
+     * @throws IOException              If any I/O error occurs, or if the input is not a valid envelope.
+     * @throws IllegalArgumentException If the envelope does not contain a valid message.
+     * @implNote The stream is fully read into memory first, so an embedded JSON payload can be kept as raw bytes.
+     */
+    public Message read(final InputStream inputStream) throws IOException, IllegalArgumentException {
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[8192];
+        int read;
+        while ((read = inputStream.read(buffer)) != -1) {
+            outputStream.write(buffer, 0, read);
+        }
+        return read(outputStream.toByteArray());
+    }
+
+
+    /**
+     * Reads a {@link Message} with the given {@code parser}.
+     *
+     * @param parser The {@link JsonParser} created for the given {@code source}.
+     * @param source The bytes being parsed, starting at position zero (an embedded JSON payload will be a slice
+     *               of them).
+     * @return The read {@link Message}.
+     * @throws IOException              If any I/O error occurs, or if the bytes are not a valid envelope.
+     * @throws IllegalArgumentException If the envelope does not contain a valid message.
+     */
+    private static Message read(final JsonParser parser, final ByteBuffer source)
+            throws IOException, IllegalArgumentException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new JsonParseException(parser, "A message must be a JSON object");
+        }
+        String id = null;
+        String sender = null;
+        long timestamp = 0;
+        boolean hasTimestamp = false;
+        Map<String, String> headers = null;
+        String payload = null;
+        ByteBuffer jsonPayload = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            final String field = parser.getCurrentName();
+            final JsonToken value = parser.nextToken();
+            switch (field) {
+                case JacksonMessage.ID:
+                    id = parser.getValueAsString();
+                    break;
+                case JacksonMessage.SENDER:
+                    sender = parser.getValueAsString();
+                    break;
+                case JacksonMessage.TIMESTAMP:
+                    hasTimestamp = value != JsonToken.VALUE_NULL;
+                    timestamp = hasTimestamp ? parser.getLongValue() : 0;
+                    break;
+                case JacksonMessage.HEADERS:
+                    headers = value == JsonToken.VALUE_NULL ? null : readHeaders(parser);
+                    break;
+                case JacksonMessage.PAYLOAD:
+                    payload = parser.getValueAsString();
+                    break;
+                case JSON_PAYLOAD:
+                    // Skip the payload, and just keep the region of the input that contains it.
+                    final int start = (int) parser.getTokenLocation().getByteOffset();
+                    if (value.isStructStart()) {
+                        parser.skipChildren();
+                    } else {
+                        parser.finishToken(); // Scalar values (e.g strings) might be lazily read.
+                    }
+                    final int end = (int) parser.getCurrentLocation().getByteOffset();
+                    jsonPayload = slice(source, start, end);
+                    break;
+                default:
+                    parser.skipChildren();
+            }
+        }
+        if (!hasTimestamp) {
+            throw new IllegalArgumentException("The timestamp must not be null");
+        }
+        return jsonPayload == null ?
+                new JacksonMessage(id, sender, timestamp, headers, payload, TrustedMessageValidator.getInstance()) :
+                new JacksonMessage(id, sender, timestamp, headers, jsonPayload, TrustedMessageValidator.getInstance());
+    }
+
+    /**
+     * Returns a view of the given region of the {@code source}, without copying it.
+     *
+     * @param source The {@link ByteBuffer} containing the region.
+     * @param start  The position of the first byte of the region.
+     * @param end    The position after the last byte of the region.
+     * @return A {@link ByteBuffer} whose remaining bytes are the ones of the region.
+     */
+    private static ByteBuffer slice(final ByteBuffer source, final int start, final int end) {
+        final ByteBuffer slice = source.duplicate();
+        // Called through Buffer, as ByteBuffer overrides these methods since Java 9.
+        ((Buffer) slice).limit(end);
+        ((Buffer) slice).position(start);
+        return slice.slice();
+    }
+
+    /**
+     * Reads the headers object the given {@code parser} is positioned at.
+     *
+     * @param parser The {@link JsonParser} positioned at the start of the headers object.
+     * @return The read headers.
+     * @throws IOException If any I/O error occurs, or if the headers are not a JSON object with scalar values.
+     */
+    private static Map<String, String> readHeaders(final JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            throw new JsonParseException(parser, "The headers must be a JSON object");
+        }
+        final Map<String, String> headers = new HashMap<>();
+        String key;
+        while ((key = parser.nextFieldName()) != null) {
+            if (parser.nextToken().isStructStart()) {
+                throw new JsonParseException(parser, "The value of the \"" + key + "\" header must be a scalar");
+            }
+            headers.put(key, parser.getValueAsString());
+        }
+        return headers;
+    }
+}
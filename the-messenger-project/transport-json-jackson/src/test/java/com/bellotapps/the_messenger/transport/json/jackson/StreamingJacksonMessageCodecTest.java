@@ -0,0 +1,305 @@
+package com.bellotapps.the_messenger.transport.json.jackson;
+
+import com.bellotapps.the_messenger.commons.Message;
+import com.bellotapps.the_messenger.commons.headers.ContentType;
+import com.bellotapps.the_messenger.commons.headers.DefinedHeader;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tests for the {@link StreamingJacksonMessageCodec}.
+ */
+public class StreamingJacksonMessageCodecTest {
+
+    /**
+     * A JSON payload (with whitespace and escaped characters, which must be kept verbatim).
+     */
+    private static final String JSON_PAYLOAD = "{\"name\": \"The \\\"Messenger\\\"\", \"tags\": [1, 2.5, true, null]}";
+
+    /**
+     * A text payload, with characters that must be escaped in JSON, and non ASCII ones.
+     */
+    private static final String TEXT_PAYLOAD = "Quotes \" and \\ backslashes,\nnew lines and ñandú €";
+
+
+    /**
+     * The codec being tested.
+     */
+    private final StreamingJacksonMessageCodec codec = new StreamingJacksonMessageCodec();
+
+
+    /**
+     * Tests that a JSON payload is embedded raw in the envelope, and that it is read back unchanged.
+     *
+     * @throws IOException Never.
+     */
+    @Test
+    public void testJsonPayloadIsEmbeddedRaw() throws IOException {
+        final Message message = jsonMessage("1", JSON_PAYLOAD);
+        final byte[] bytes = codec.writeAsBytes(message);
+        final String envelope = new String(bytes, StandardCharsets.UTF_8);
+        Assert.assertTrue("The payload was not embedded: " + envelope, envelope.contains("\"pj\":" + JSON_PAYLOAD));
+        assertSameMessage(message, codec.read(bytes));
+    }
+
+    /**
+     * Tests that a non JSON payload is written as a string, and read back unchanged.
+     *
+     * @throws IOException Never.
+     */
+    @Test
+    public void testTextPayloadRoundTrip() throws IOException {
+        final Message message = message("1", new HashMap<>(), TEXT_PAYLOAD);
+        final byte[] bytes = codec.writeAsBytes(message);
+        Assert.assertTrue(new String(bytes, StandardCharsets.UTF_8).contains("\"pl\":"));
+        assertSameMessage(message, codec.read(bytes));
+    }
+
+    /**
+     * Tests that a {@link Message} without payload is read back unchanged.
+     *
+     * @throws IOException Never.
+     */
+    @Test
+    public void testMessageWithoutPayloadRoundTrip() throws IOException {
+        final Message message = jsonMessage("1", null);
+        assertSameMessage(message, codec.read(codec.writeAsBytes(message)));
+    }
+
+    /**
+     * Tests that scalar JSON payloads (e.g strings or numbers) are embedded and read back unchanged.
+     *
+     * @throws IOException Never.
+     */
+    @Test
+    public void testScalarJsonPayloadsRoundTrip() throws IOException {
+        for (final String payload : Arrays.asList("\"a \\\"string\\\"\"", "42", "-1.5e10", "true", "null")) {
+            final Message message = jsonMessage("1", payload);
+            assertSameMessage(message, codec.read(codec.writeAsBytes(message)));
+        }
+    }
+
+    /**
+     * Tests that an encoded (e.g compressed) JSON payload is not embedded, as it is no longer JSON.
+     *
+     * @throws IOException Never.
+     */
+    @Test
+    public void testEncodedJsonPayloadIsNotEmbedded() throws IOException {
+        final Map<String, String> headers = new HashMap<>();
+        headers.put(DefinedHeader.CONTENT_TYPE.serialize(), ContentType.JSON.serialize());
+        headers.put(DefinedHeader.CONTENT_ENCODING.serialize(), "gzip");
+        final Message message = message("1", headers, "H4sIAAAAAAAA/6tWykvMTVWyUkpKLFKqBQBFnGGmDwAAAA==");
+        final byte[] bytes = codec.writeAsBytes(message);
+        Assert.assertFalse(new String(bytes, StandardCharsets.UTF_8).contains("\"pj\""));
+        assertSameMessage(message, codec.read(bytes));
+    }
+
+    /**
+     * Tests reading an envelope from a region of a bigger array.
+     *
+     * @throws IOException Never.
+     */
+    @Test
+    public void testReadFromArrayRegion() throws IOException {
+        final Message message = jsonMessage("1", JSON_PAYLOAD);
+        final byte[] envelope = codec.writeAsBytes(message);
+        final byte[] bytes = surround(envelope, 7, 11);
+        assertSameMessage(message, codec.read(bytes, 7, envelope.length));
+    }
+
+    /**
+     * Tests reading consecutive envelopes from a heap {@link ByteBuffer} that does not start at position zero,
+     * checking that its position is moved just after each envelope.
+     *
+     * @throws IOException Never.
+     */
+    @Test
+    public void testReadFromHeapBuffer() throws IOException {
+        final List<Message> messages = Arrays.asList(
+                jsonMessage("1", JSON_PAYLOAD),
+                message("2", new HashMap<>(), TEXT_PAYLOAD),
+                jsonMessage("3", "[]"));
+        final byte[] log = writeAll(messages);
+        final ByteBuffer buffer = ByteBuffer.wrap(surround(log, 5, 0));
+        ((Buffer) buffer).position(5);
+        assertReadsAll(messages, buffer);
+    }
+
+    /**
+     * Tests reading consecutive envelopes from a direct {@link ByteBuffer}.
+     *
+     * @throws IOException Never.
+     */
+    @Test
+    public void testReadFromDirectBuffer() throws IOException {
+        final List<Message> messages = Arrays.asList(
+                jsonMessage("1", JSON_PAYLOAD),
+                message("2", new HashMap<>(), TEXT_PAYLOAD),
+                jsonMessage("3", "[]"));
+        final byte[] log = writeAll(messages);
+        final ByteBuffer buffer = ByteBuffer.allocateDirect(log.length + 3);
+        ((Buffer) buffer).position(3);
+        buffer.put(log);
+        ((Buffer) buffer).position(3);
+        assertReadsAll(messages, buffer);
+    }
+
+    /**
+     * Tests reading from a heap {@link ByteBuffer} whose content starts at an offset of its backing array
+     * (e.g a slice of a bigger buffer).
+     *
+     * @throws IOException Never.
+     */
+    @Test
+    public void testReadFromBufferWithArrayOffset() throws IOException {
+        final List<Message> messages = Arrays.asList(jsonMessage("1", JSON_PAYLOAD), jsonMessage("2", "{}"));
+        final byte[] log = writeAll(messages);
+        final ByteBuffer buffer = ByteBuffer.wrap(surround(log, 9, 4), 9, log.length).slice();
+        Assert.assertEquals(9, buffer.arrayOffset());
+        assertReadsAll(messages, buffer);
+    }
+
+    /**
+     * Tests reading an envelope from an {@link java.io.InputStream}.
+     *
+     * @throws IOException Never.
+     */
+    @Test
+    public void testReadFromInputStream() throws IOException {
+        final Message message = jsonMessage("1", JSON_PAYLOAD);
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        codec.write(message, outputStream);
+        assertSameMessage(message, codec.read(new ByteArrayInputStream(outputStream.toByteArray())));
+    }
+
+    /**
+     * Tests that envelopes written by an {@link ObjectMapper} from a {@link JacksonMessage} can be read.
+     *
+     * @throws IOException Never.
+     */
+    @Test
+    public void testReadEnvelopeWrittenByObjectMapper() throws IOException {
+        final Message message = jsonMessage("1", JSON_PAYLOAD);
+        assertSameMessage(message, codec.read(new ObjectMapper().writeValueAsBytes(message)));
+    }
+
+    /**
+     * Tests that headers with non scalar values are rejected.
+     *
+     * @throws IOException Always.
+     */
+    @Test(expected = JsonParseException.class)
+    public void testNonScalarHeaderIsRejected() throws IOException {
+        codec.read("{\"id\":\"1\",\"sn\":\"s\",\"ts\":1,\"hs\":{\"h\":{\"a\":1}},\"pl\":null}"
+                .getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Tests that envelopes that are not JSON objects are rejected.
+     *
+     * @throws IOException Always.
+     */
+    @Test(expected = JsonParseException.class)
+    public void testNonObjectEnvelopeIsRejected() throws IOException {
+        codec.read("[1, 2]".getBytes(StandardCharsets.UTF_8));
+    }
+
+
+    /**
+     * Reads all the given {@code expected} messages from the given {@code buffer}, checking that it is fully read.
+     *
+     * @param expected The expected {@link Message}s.
+     * @param buffer   The {@link ByteBuffer} from which they are read.
+     * @throws IOException If any I/O error occurs.
+     */
+    private void assertReadsAll(final List<Message> expected, final ByteBuffer buffer) throws IOException {
+        for (final Message message : expected) {
+            assertSameMessage(message, codec.read(buffer));
+        }
+        Assert.assertFalse("The buffer was not fully read", buffer.hasRemaining());
+    }
+
+    /**
+     * Writes all the given {@code messages}, one after the other.
+     *
+     * @param messages The {@link Message}s to be written.
+     * @return The written bytes.
+     * @throws IOException If any I/O error occurs.
+     */
+    private byte[] writeAll(final List<Message> messages) throws IOException {
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        for (final Message message : messages) {
+            codec.write(message, outputStream);
+        }
+        return outputStream.toByteArray();
+    }
+
+    /**
+     * Returns a copy of the given {@code bytes} surrounded by garbage.
+     *
+     * @param bytes  The bytes.
+     * @param before The amount of garbage bytes before the given {@code bytes}.
+     * @param after  The amount of garbage bytes after the given {@code bytes}.
+     * @return The surrounded bytes.
+     */
+    private static byte[] surround(final byte[] bytes, final int before, final int after) {
+        final byte[] result = new byte[before + bytes.length + after];
+        Arrays.fill(result, (byte) '}');
+        System.arraycopy(bytes, 0, result, before, bytes.length);
+        return result;
+    }
+
+    /**
+     * Creates a {@link Message} with JSON content type.
+     *
+     * @param id      The message's id.
+     * @param payload The message's payload.
+     * @return The created {@link Message}.
+     */
+    private static Message jsonMessage(final String id, final String payload) {
+        final Map<String, String> headers = new HashMap<>();
+        headers.put(DefinedHeader.CONTENT_TYPE.serialize(), ContentType.JSON.serialize());
+        headers.put("Custom-Header", "Some \"value\"");
+        return message(id, headers, payload);
+    }
+
+    /**
+     * Creates a {@link Message}.
+     *
+     * @param id      The message's id.
+     * @param headers The message's headers.
+     * @param payload The message's payload.
+     * @return The created {@link Message}.
+     */
+    private static Message message(final String id, final Map<String, String> headers, final String payload) {
+        return new JacksonMessage(id, "test-sender", 1546300800123L, headers, payload);
+    }
+
+    /**
+     * Asserts that the given {@link Message}s have the same id, sender, timestamp, headers and payload.
+     *
+     * @param expected The expected {@link Message}.
+     * @param actual   The actual {@link Message}.
+     */
+    private static void assertSameMessage(final Message expected, final Message actual) {
+        Assert.assertEquals(expected.getId(), actual.getId());
+        Assert.assertEquals(expected.getSender(), actual.getSender());
+        Assert.assertEquals(expected.getTimestampMillis(), actual.getTimestampMillis());
+        Assert.assertEquals(expected.getHeaders(), actual.getHeaders());
+        Assert.assertEquals(expected.getPayload(), actual.getPayload());
+    }
+}
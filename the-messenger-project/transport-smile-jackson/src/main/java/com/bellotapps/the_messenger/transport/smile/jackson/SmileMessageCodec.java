@@ -0,0 +1,62 @@
+package com.bellotapps.the_messenger.transport.smile.jackson;
+
+import com.bellotapps.the_messenger.transport.json.jackson.JacksonMessage;
+import com.bellotapps.the_messenger.transport.json.jackson.JacksonMessageCodec;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import org.apache.commons.lang3.Validate;
+
+/**
+ * A {@link JacksonMessageCodec} that writes and reads {@link JacksonMessage} envelopes as Smile
+ * (a binary JSON format), which are smaller and faster to parse than text JSON envelopes.
+ * <p>
+ * The default {@link SmileFactory} (see {@link #createSmileFactory()}) uses back-references for repeated names
+ * and for repeated short string values, so each header name (e.g {@code Message-Type}), and each well-known
+ * header value (e.g {@code Command}), is written in full only once per envelope.
+ */
+public class SmileMessageCodec extends JacksonMessageCodec {
+
+    /**
+     * Constructor that uses the {@link SmileFactory} returned by {@link #createSmileFactory()}.
+     */
+    public SmileMessageCodec() {
+        this(new ObjectMapper(createSmileFactory()));
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param objectMapper The {@link ObjectMapper} to be used, which must have been created with a
+     *                     {@link SmileFactory}.
+     * @throws IllegalArgumentException If the object mapper is null, or if it does not use a {@link SmileFactory}.
+     */
+    public SmileMessageCodec(final ObjectMapper objectMapper) throws IllegalArgumentException {
+        super(validate(objectMapper));
+    }
+
+
+    /**
+     * Creates a {@link SmileFactory} that uses back-references for both repeated names and repeated string values.
+     *
+     * @return The created {@link SmileFactory}.
+     */
+    public static SmileFactory createSmileFactory() {
+        return new SmileFactory()
+                .configure(SmileGenerator.Feature.CHECK_SHARED_NAMES, true)
+                .configure(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES, true);
+    }
+
+    /**
+     * Checks that the given {@code objectMapper} uses a {@link SmileFactory}.
+     *
+     * @param objectMapper The {@link ObjectMapper} to be checked.
+     * @return The given {@code objectMapper}.
+     * @throws IllegalArgumentException If the object mapper is null, or if it does not use a {@link SmileFactory}.
+     */
+    private static ObjectMapper validate(final ObjectMapper objectMapper) throws IllegalArgumentException {
+        Validate.isTrue(objectMapper != null, "The object mapper must not be null");
+        Validate.isTrue(objectMapper.getFactory() instanceof SmileFactory, "The object mapper must use Smile");
+        return objectMapper;
+    }
+}